@@ -2,6 +2,12 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.6"
     id("io.spring.dependency-management") version "1.1.7"
+    // Only used for its processAot task: Spring AOT for the JVM (start with -Dspring.aot.enabled=true)
+    id("org.graalvm.buildtools.native") version "0.10.6"
+    // Microbenchmarks in src/jmh/java (./gradlew jmh)
+    id("me.champeau.jmh") version "0.7.3"
+    // Build-time entity enhancement; keep the version equal to the Hibernate that Spring Boot manages
+    id("org.hibernate.orm") version "6.6.29.Final"
 }
 
 group = "com.example"
@@ -23,6 +29,12 @@ repositories {
     mavenCentral()
 }
 
+// Load-test harness in src/loadtest/java (./gradlew loadTest), runs the app in-process against H2
+val loadtest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
 dependencies {
     // Web + JPA + Database 
     implementation("org.springframework.boot:spring-boot-starter-web")
@@ -30,15 +42,75 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("com.mysql:mysql-connector-j")
 
-	// Dev Tools
-	implementation("org.springframework.boot:spring-boot-devtools")
+    // AOP (request coalescing) + Actuator (metrics)
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    // Streaming CSV parsing for catalog import
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-csv")
+    // Jackson property access through generated lambdas instead of reflection
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
+    // Binary response formats on request (Accept: application/cbor, x-jackson-smile, x-protobuf)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-protobuf")
+
+	// Dev Tools (developmentOnly: kept out of the boot jar, so it never slows down production startup)
+	developmentOnly("org.springframework.boot:spring-boot-devtools")
 
     // Testing 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     testRuntimeOnly("com.h2database:h2")
+
+    // Load tests boot the app on an embedded H2 database
+    "loadtestRuntimeOnly"("com.h2database:h2")
+
+    // Benchmarks: JOL measures retained heap next to the JMH timings
+    jmh("org.openjdk.jol:jol-core:0.17")
+}
+
+// Lazy loading of single attributes and of the inverse side of one-to-ones (ExerciseEntity.details)
+hibernate {
+    enhancement {
+        enableLazyInitialization.set(true)
+    }
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+jmh {
+    // -Pjmh.includes=SomeBenchmark runs a single benchmark class
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+    // -Pjmh.profilers=gc adds allocation rates (gc.alloc.rate.norm = bytes allocated per operation)
+    providers.gradleProperty("jmh.profilers").orNull?.let { profilers.add(it) }
+    // the test source set depends on the jmh one (below), not the other way round
+    includeTests.set(false)
+}
+
+// Benchmark-only code (CompactWorkoutStore) stays out of the boot jar but keeps its unit test in src/test/java
+sourceSets.test {
+    compileClasspath += sourceSets["jmh"].output
+    runtimeClasspath += sourceSets["jmh"].output
+}
+
+// -Pload.args="--users=2000 --concurrency=64 --duration=120s" (see LoadTest for all options)
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Boots the app on H2, seeds synthetic data and reports throughput and latency percentiles."
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.demo.loadtest.LoadTest")
+    workingDir = projectDir
+    providers.gradleProperty("load.args").orNull?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
+
+// AOT processing runs with the production profile, so the generated bean definitions match what Docker starts.
+// @ConditionalOnProperty is evaluated here, not when the image starts: switches that add or replace beans
+// (datasource.routing.enabled, workout.sharding.enabled) need a rebuild, e.g.
+// -Paot.args="--datasource.routing.enabled=true" (Docker: --build-arg AOT_ARGS=...)
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    args("--spring.profiles.active=prod")
+    providers.gradleProperty("aot.args").orNull?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Startup benchmark: time from launching the JVM until the first HTTP request succeeds
+# (GET /actuator/health/liveness -> 200). Runs the app several times and prints each run + the median.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [java options...]
+#
+# Plain jar, default profile:
+#   ./gradlew bootJar && scripts/startup-benchmark.sh 5
+# Same setup as the Dockerfile (prod profile + AOT + CDS):
+#   ./gradlew bootJar
+#   java -Djarmode=tools -jar build/libs/demo-0.0.1-SNAPSHOT.jar extract --destination build/application
+#   java -XX:ArchiveClassesAtExit=build/application/application.jsa -Dspring.context.exit=onRefresh \
+#        -Dspring.aot.enabled=true -Dspring.profiles.active=prod -jar build/application/demo-0.0.1-SNAPSHOT.jar
+#   JAR=build/application/demo-0.0.1-SNAPSHOT.jar scripts/startup-benchmark.sh 5 \
+#        -XX:SharedArchiveFile=build/application/application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=prod
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+JAR=${JAR:-build/libs/demo-0.0.1-SNAPSHOT.jar}
+PORT=${BENCH_PORT:-18080}
+URL="http://localhost:${PORT}/actuator/health/liveness"
+LOG_DIR=build/startup-benchmark
+mkdir -p "$LOG_DIR"
+
+results=()
+for i in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  java "$@" -Dserver.port="$PORT" -jar "$JAR" > "$LOG_DIR/run-$i.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "run $i: application exited early, see $LOG_DIR/run-$i.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  ms=$(( (end - start) / 1000000 ))
+  results+=("$ms")
+  echo "run $i: ${ms} ms to first request"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "median: ${sorted[$(( RUNS / 2 ))]} ms (min ${sorted[0]} ms, max ${sorted[$(( RUNS - 1 ))]} ms)"
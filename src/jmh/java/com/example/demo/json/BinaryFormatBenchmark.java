@@ -0,0 +1,136 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding the large /exercises catalog list per response format, through the converters the app
+ * registers in JsonConfig. Time per response is the score; the payload size of each format is printed
+ * once at setup (and the "bytes" counter gives bytes/sec):
+ *
+ * ./gradlew jmh -Pjmh.includes=BinaryFormatBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final Type EXERCISES = new ParameterizedTypeReference<List<ExerciseEntity>>() {}.getType();
+
+    @Param({"5000"})
+    int rows;
+
+    private List<ExerciseEntity> catalog;
+    private GenericHttpMessageConverter<Object> json;
+    private GenericHttpMessageConverter<Object> cbor;
+    private GenericHttpMessageConverter<Object> smile;
+    private GenericHttpMessageConverter<Object> protobuf;
+    private final Buffer out = new Buffer();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        catalog = new ArrayList<>();
+        String[] muscles = {"chest", "back", "quadriceps", "hamstrings", "shoulders", "biceps"};
+        for (int i = 0; i < rows; i++) {
+            ExerciseEntity e = new ExerciseEntity("exercise " + i);
+            e.setId((long) i);
+            e.setType("strength");
+            e.setMuscle(muscles[i % muscles.length]);
+            e.setEquipment("barbell");
+            e.setDifficulty("intermediate");
+            e.setInstructions("Brace the core, keep the back neutral and control the lowering phase. Variation " + i);
+            catalog.add(e);
+        }
+        json = converter(new StreamingListHttpMessageConverter(mapper(null)));
+        ObjectMapper cborMapper = mapper(new CBORFactory());
+        cbor = converter(new StreamingListHttpMessageConverter(cborMapper.getFactory(), MediaType.APPLICATION_CBOR));
+        ObjectMapper smileMapper = mapper(new SmileFactory());
+        smile = converter(new StreamingListHttpMessageConverter(smileMapper.getFactory(), JsonConfig.APPLICATION_SMILE));
+        protobuf = converter(new ProtobufHttpMessageConverter(mapper(new ProtobufFactory())));
+
+        for (Map.Entry<String, GenericHttpMessageConverter<Object>> f : Map.of("json", json, "cbor", cbor,
+                "smile", smile, "protobuf", protobuf).entrySet()) {
+            System.out.printf("%n%s payload for %d exercises: %d bytes%n", f.getKey(), rows, write(f.getValue()));
+        }
+    }
+
+    @Benchmark
+    public void json(Bytes counter) throws IOException {
+        counter.bytes += write(json);
+    }
+
+    @Benchmark
+    public void cbor(Bytes counter) throws IOException {
+        counter.bytes += write(cbor);
+    }
+
+    @Benchmark
+    public void smile(Bytes counter) throws IOException {
+        counter.bytes += write(smile);
+    }
+
+    @Benchmark
+    public void protobuf(Bytes counter) throws IOException {
+        counter.bytes += write(protobuf);
+    }
+
+    private int write(GenericHttpMessageConverter<Object> converter) throws IOException {
+        out.body.reset();
+        converter.write(catalog, EXERCISES, null, out);
+        return out.body.size();
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        ObjectMapper mapper = factory == null ? new ObjectMapper() : new ObjectMapper(factory);
+        return mapper.registerModule(new BlackbirdModule());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GenericHttpMessageConverter<Object> converter(GenericHttpMessageConverter<?> converter) {
+        return (GenericHttpMessageConverter<Object>) converter;
+    }
+
+    private static final class Buffer implements HttpOutputMessage {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 21);
+        final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
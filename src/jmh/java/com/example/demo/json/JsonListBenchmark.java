@@ -0,0 +1,116 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.workout.Workout;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the /exercises and /api/workout list responses: plain Jackson vs Jackson + Blackbird vs the
+ * streaming JsonRowWriters. The "bytes" counter turns into bytes/sec; allocations per response come from
+ * the GC profiler (gc.alloc.rate.norm):
+ *
+ * ./gradlew jmh -Pjmh.includes=JsonListBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonListBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    private List<ExerciseEntity> exercises;
+    private List<Workout> workouts;
+    private ObjectMapper plain;
+    private ObjectMapper blackbird;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    /** Reported by JMH as a rate next to ops/s. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        plain = new ObjectMapper();
+        blackbird = new ObjectMapper().registerModule(new BlackbirdModule());
+        exercises = new ArrayList<>();
+        workouts = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            ExerciseEntity e = new ExerciseEntity("exercise " + i);
+            e.setId((long) i);
+            e.setType("strength");
+            e.setMuscle("chest");
+            e.setEquipment("barbell");
+            e.setDifficulty("intermediate");
+            e.setInstructions("Lie back on a flat bench, lift the bar off the rack and lower it to the middle of the chest. " + i);
+            exercises.add(e);
+            Workout w = new Workout("user-" + (i % 50), "Plan " + (i % 3), "exercise " + i, "Mon", 3, 10);
+            w.setId((long) i);
+            workouts.add(w);
+        }
+    }
+
+    @Benchmark
+    public void exercises_jackson(Bytes counter) throws IOException {
+        counter.bytes += write(plain, exercises);
+    }
+
+    @Benchmark
+    public void exercises_jacksonBlackbird(Bytes counter) throws IOException {
+        counter.bytes += write(blackbird, exercises);
+    }
+
+    @Benchmark
+    public void exercises_streamingWriter(Bytes counter) throws IOException {
+        counter.bytes += stream(exercises, JsonRowWriters.EXERCISE);
+    }
+
+    @Benchmark
+    public void workouts_jackson(Bytes counter) throws IOException {
+        counter.bytes += write(plain, workouts);
+    }
+
+    @Benchmark
+    public void workouts_jacksonBlackbird(Bytes counter) throws IOException {
+        counter.bytes += write(blackbird, workouts);
+    }
+
+    @Benchmark
+    public void workouts_streamingWriter(Bytes counter) throws IOException {
+        counter.bytes += stream(workouts, JsonRowWriters.WORKOUT);
+    }
+
+    private int write(ObjectMapper mapper, List<?> list) throws IOException {
+        out.reset();
+        mapper.writeValue(out, list);
+        return out.size();
+    }
+
+    private <T> int stream(List<T> list, JsonRowWriter<T> writer) throws IOException {
+        out.reset();
+        try (JsonGenerator gen = plain.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            for (T row : list) {
+                writer.write(gen, row);
+            }
+            gen.writeEndArray();
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.ratelimit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tryAcquire + release from many threads at once, i.e. what every request pays in RateLimitFilter.
+ * Compare sampleWindow=1 (limit recalculated on every release) with the default window.
+ *
+ * ./gradlew jmh -Pjmh.includes=AdaptiveConcurrencyLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class AdaptiveConcurrencyLimiterBenchmark {
+
+    @Param({"1", "10"})
+    int sampleWindow;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Concurrency settings = new RateLimitProperties.Concurrency();
+        settings.setInitialLimit(200);
+        settings.setMinLimit(200); // keep every call admitted: this measures the bookkeeping, not rejections
+        settings.setSampleWindow(sampleWindow);
+        limiter = new AdaptiveConcurrencyLimiter(settings);
+    }
+
+    @Benchmark
+    public boolean acquireRelease() {
+        boolean admitted = limiter.tryAcquire();
+        if (admitted) {
+            limiter.release(1_000_000, false);
+        }
+        return admitted;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.demo.workout;
+
+import com.example.demo.support.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only, columnar copy of the workout table for keeping many rows on the heap.
+ * - userId, workoutPlanName, exerciseName and day are dictionary-encoded, so every distinct string is
+ *   stored once; a row is just its column entries: long id, int plan, int exercise, byte day,
+ *   short sets, short reps (~21 bytes instead of an entity plus four Strings).
+ * - Rows are grouped by user (userStart[u] .. userStart[u + 1]) and sorted by (plan, day, exercise)
+ *   inside each user, so the WorkoutRepository lookups below are binary searches.
+ * - Results are materialized as new Workout objects; the store itself is immutable, build a new one to refresh.
+ * Only WorkoutStoreBenchmark uses it, so it lives in the jmh source set: no production read path is big
+ * enough yet to pay for a heap copy of the table.
+ */
+public final class CompactWorkoutStore {
+
+    private static final int MAX_DAYS = 256; // day ids are stored as unsigned bytes
+
+    private final StringDictionary users;
+    private final StringDictionary plans;
+    private final StringDictionary exercises;
+    private final StringDictionary days;
+
+    private final int[] userStart;
+    private final long[] id;
+    private final int[] plan;
+    private final int[] exercise;
+    private final byte[] day;
+    private final short[] sets;
+    private final short[] reps;
+
+    private CompactWorkoutStore(StringDictionary users, StringDictionary plans, StringDictionary exercises,
+                                StringDictionary days, int[] userStart, long[] id, int[] plan, int[] exercise,
+                                byte[] day, short[] sets, short[] reps) {
+        this.users = users;
+        this.plans = plans;
+        this.exercises = exercises;
+        this.days = days;
+        this.userStart = userStart;
+        this.id = id;
+        this.plan = plan;
+        this.exercise = exercise;
+        this.day = day;
+        this.sets = sets;
+        this.reps = reps;
+    }
+
+    public static CompactWorkoutStore of(Collection<Workout> rows) {
+        int n = rows.size();
+        StringDictionary users = new StringDictionary();
+        StringDictionary plans = new StringDictionary();
+        StringDictionary exercises = new StringDictionary();
+        StringDictionary days = new StringDictionary();
+        int[] u = new int[n];
+        int[] p = new int[n];
+        int[] e = new int[n];
+        int[] d = new int[n];
+        Workout[] source = rows.toArray(new Workout[0]);
+
+        for (int i = 0; i < n; i++) {
+            Workout w = source[i];
+            u[i] = users.idOf(w.getUserId());
+            p[i] = plans.idOf(w.getWorkoutPlanName());
+            e[i] = exercises.idOf(w.getExerciseName());
+            d[i] = days.idOf(w.getDay());
+            checkShort("sets", w.getSets());
+            checkShort("reps", w.getReps());
+        }
+        if (days.size() > MAX_DAYS) {
+            throw new IllegalArgumentException("More than " + MAX_DAYS + " distinct day values");
+        }
+
+        // one-off sort at build time; all lookups afterwards are on primitive columns
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> u[i])
+                .thenComparingInt(i -> p[i])
+                .thenComparingInt(i -> d[i])
+                .thenComparingInt(i -> e[i]));
+
+        int[] userStart = new int[users.size() + 1];
+        long[] id = new long[n];
+        int[] plan = new int[n];
+        int[] exercise = new int[n];
+        byte[] day = new byte[n];
+        short[] sets = new short[n];
+        short[] reps = new short[n];
+        for (int row = 0; row < n; row++) {
+            int i = order[row];
+            Long rowId = source[i].getId();
+            id[row] = rowId == null ? 0 : rowId;
+            plan[row] = p[i];
+            exercise[row] = e[i];
+            day[row] = (byte) d[i];
+            sets[row] = (short) source[i].getSets();
+            reps[row] = (short) source[i].getReps();
+            userStart[u[i] + 1]++;
+        }
+        for (int user = 0; user < users.size(); user++) {
+            userStart[user + 1] += userStart[user];
+        }
+        return new CompactWorkoutStore(users, plans, exercises, days, userStart, id, plan, exercise, day, sets, reps);
+    }
+
+    private static void checkShort(String column, int value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(column + " out of range for the compact store: " + value);
+        }
+    }
+
+    public int size() {
+        return id.length;
+    }
+
+    public List<Workout> findByUserIdAndWorkoutPlanNameAndDay(String userId, String workoutPlanName, String dayName) {
+        int u = users.find(userId);
+        int p = plans.find(workoutPlanName);
+        int d = days.find(dayName);
+        if (u < 0 || p < 0 || d < 0) {
+            return List.of();
+        }
+        int from = first(u, p, d, 0);
+        int to = first(u, p, d + 1, 0);
+        return rows(u, from, to);
+    }
+
+    public List<Workout> findByUserIdAndWorkoutPlanName(String userId, String workoutPlanName) {
+        int u = users.find(userId);
+        int p = plans.find(workoutPlanName);
+        if (u < 0 || p < 0) {
+            return List.of();
+        }
+        return rows(u, first(u, p, 0, 0), first(u, p + 1, 0, 0));
+    }
+
+    // like the repository method, day is not part of the lookup: the first matching row wins
+    public Optional<Workout> findByUserIdAndWorkoutPlanNameAndExerciseName(String userId, String workoutPlanName,
+                                                                          String exerciseName) {
+        int u = users.find(userId);
+        int p = plans.find(workoutPlanName);
+        int e = exercises.find(exerciseName);
+        if (u < 0 || p < 0 || e < 0) {
+            return Optional.empty();
+        }
+        for (int i = first(u, p, 0, 0), to = first(u, p + 1, 0, 0); i < to; i++) {
+            if (exercise[i] == e) {
+                return Optional.of(row(u, i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean existsByUserIdAndWorkoutPlanName(String userId, String workoutPlanName) {
+        int u = users.find(userId);
+        int p = plans.find(workoutPlanName);
+        if (u < 0 || p < 0) {
+            return false;
+        }
+        int i = first(u, p, 0, 0);
+        return i < userStart[u + 1] && plan[i] == p;
+    }
+
+    /** First row of user u whose (plan, day, exercise) is >= (p, d, e), or the end of the user's rows. */
+    private int first(int u, int p, int d, int e) {
+        int lo = userStart[u];
+        int hi = userStart[u + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Integer.compare(plan[mid], p);
+            if (cmp == 0) {
+                cmp = Integer.compare(Byte.toUnsignedInt(day[mid]), d);
+            }
+            if (cmp == 0) {
+                cmp = Integer.compare(exercise[mid], e);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private List<Workout> rows(int u, int from, int to) {
+        List<Workout> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(row(u, i));
+        }
+        return result;
+    }
+
+    private Workout row(int u, int i) {
+        Workout w = new Workout(users.valueOf(u), plans.valueOf(plan[i]), exercises.valueOf(exercise[i]),
+                days.valueOf(Byte.toUnsignedInt(day[i])), sets[i], reps[i]);
+        w.setId(id[i] == 0 ? null : id[i]);
+        return w;
+    }
+}
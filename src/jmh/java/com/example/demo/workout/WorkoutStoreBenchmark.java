@@ -0,0 +1,95 @@
+package com.example.demo.workout;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity list vs CompactWorkoutStore: lookup latency, plus retained heap per row (printed once per fork via JOL).
+ * Rows are built like Hibernate would: every row gets its own String instances.
+ *
+ * ./gradlew jmh -Pjmh.includes=WorkoutStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkoutStoreBenchmark {
+
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    @Param({"100000"})
+    int rows;
+
+    private List<Workout> entities;
+    private CompactWorkoutStore store;
+    private String[] queryUsers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        int users = rows / 20;
+        entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Workout w = new Workout(new String("user-" + random.nextInt(users)), new String("Plan " + random.nextInt(3)),
+                    new String("Exercise " + random.nextInt(500)), new String(DAYS[random.nextInt(7)]),
+                    1 + random.nextInt(5), 1 + random.nextInt(15));
+            w.setId((long) i + 1);
+            entities.add(w);
+        }
+        store = CompactWorkoutStore.of(entities);
+        queryUsers = new String[1024];
+        for (int i = 0; i < queryUsers.length; i++) {
+            queryUsers[i] = "user-" + random.nextInt(users);
+        }
+
+        long entityBytes = GraphLayout.parseInstance(entities).totalSize();
+        long storeBytes = GraphLayout.parseInstance(store).totalSize();
+        System.out.printf("%nheap per row: entity list %d B, compact store %d B (%.1fx smaller)%n",
+                entityBytes / rows, storeBytes / rows, (double) entityBytes / storeBytes);
+    }
+
+    private String nextUser() {
+        return queryUsers[next++ & (queryUsers.length - 1)];
+    }
+
+    @Benchmark
+    public List<Workout> entityList_byUserPlanDay() {
+        String user = nextUser();
+        List<Workout> result = new ArrayList<>();
+        for (Workout w : entities) {
+            if (w.getUserId().equals(user) && w.getWorkoutPlanName().equals("Plan 1") && w.getDay().equals("Wed")) {
+                result.add(w);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Workout> compactStore_byUserPlanDay() {
+        return store.findByUserIdAndWorkoutPlanNameAndDay(nextUser(), "Plan 1", "Wed");
+    }
+
+    @Benchmark
+    public boolean entityList_existsByUserPlan() {
+        String user = nextUser();
+        for (Workout w : entities) {
+            if (w.getUserId().equals(user) && w.getWorkoutPlanName().equals("Plan 2")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean compactStore_existsByUserPlan() {
+        return store.existsByUserIdAndWorkoutPlanName(nextUser(), "Plan 2");
+    }
+}
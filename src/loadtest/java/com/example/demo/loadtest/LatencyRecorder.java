@@ -0,0 +1,63 @@
+package com.example.demo.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies (microseconds) of one operation on one worker thread; merged after the run.
+ * Plain growable long[]: no synchronization on the hot path, exact percentiles at the end.
+ */
+final class LatencyRecorder {
+
+    private long[] micros = new long[1024];
+    private int size;
+    private long errors;
+    private long bytes;
+
+    void record(long latencyMicros, boolean error, long responseBytes) {
+        if (size == micros.length) {
+            micros = Arrays.copyOf(micros, size * 2);
+        }
+        micros[size++] = latencyMicros;
+        if (error) {
+            errors++;
+        }
+        bytes += responseBytes;
+    }
+
+    void addAll(LatencyRecorder other) {
+        if (size + other.size > micros.length) {
+            micros = Arrays.copyOf(micros, Math.max(size + other.size, micros.length * 2));
+        }
+        System.arraycopy(other.micros, 0, micros, size, other.size);
+        size += other.size;
+        errors += other.errors;
+        bytes += other.bytes;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    /** A sorted copy of the latencies. */
+    long[] sorted() {
+        long[] copy = Arrays.copyOf(micros, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000.0;
+    }
+}
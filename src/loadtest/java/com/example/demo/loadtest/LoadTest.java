@@ -0,0 +1,214 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test of the REST API, fully local:
+ * 1. boots DemoApplication on a random port with the "loadtest" profile (embedded H2),
+ * 2. seeds users, plans and an exercise catalog with SyntheticData,
+ * 3. runs `concurrency` closed-loop workers (each sends its next request when the previous one is
+ *    answered) for `warmup`, then for `duration` while recording,
+ * 4. writes throughput, latency percentiles and error rates per operation as JSON.
+ *
+ * ./gradlew loadTest -Pload.args="--users=2000 --concurrency=64 --duration=120s --mix=plan-day=50,add-exercise=50"
+ *
+ * Options (defaults): users (1000), plans (3), exercises (5000), exercises-per-day (4), days-per-plan (3),
+ * concurrency (32), warmup (15s), duration (60s), mix (LoadTestConfig.DEFAULT_MIX), seed (42),
+ * out (build/loadtest/report-<timestamp>.json).
+ * Java 17 has no virtual threads, so workers are platform threads and the HttpClient gets its own pool.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        SpringApplication app = new SpringApplication(DemoApplication.class);
+        app.setAdditionalProfiles("loadtest");
+        try (ConfigurableApplicationContext context = app.run("--server.port=0")) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI base = URI.create("http://localhost:" + port);
+
+            long seedStart = System.nanoTime();
+            SyntheticData.Dataset data = SyntheticData.seed(context.getBean(DataSource.class), config);
+            System.out.printf("Seeded %d users, %d exercises, %d workouts in %d ms%n", data.userIds().size(),
+                    data.exerciseNames().size(), data.workouts(), (System.nanoTime() - seedStart) / 1_000_000);
+
+            Scenario scenario = new Scenario(base, data, config.mix());
+            Map<String, Object> report = run(config, scenario);
+            report.put("dataset", Map.of("users", data.userIds().size(), "plansPerUser", data.plans(),
+                    "exercises", data.exerciseNames().size(), "workouts", data.workouts()));
+
+            Files.createDirectories(config.out().toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(config.out().toFile(), report);
+            System.out.println("Report written to " + config.out().toAbsolutePath());
+        }
+        System.exit(0); // the app's non-daemon threads are gone with the context, this covers the rest
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, Scenario scenario) throws Exception {
+        AtomicInteger clientThreads = new AtomicInteger();
+        ExecutorService clientPool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                r -> {
+                    Thread t = new Thread(r, "loadtest-http-" + clientThreads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientPool)
+                .build();
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+        try {
+            System.out.printf("Warming up for %s with %d workers%n", config.warmup(), config.concurrency());
+            phase(config, scenario, client, workers, config.warmup().toNanos());
+
+            System.out.printf("Measuring for %s%n", config.duration());
+            Instant started = Instant.now();
+            long start = System.nanoTime();
+            List<Map<Scenario.Operation, LatencyRecorder>> perWorker =
+                    phase(config, scenario, client, workers, config.duration().toNanos());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<Scenario.Operation, LatencyRecorder> merged = new EnumMap<>(Scenario.Operation.class);
+            LatencyRecorder all = new LatencyRecorder();
+            for (Map<Scenario.Operation, LatencyRecorder> recorders : perWorker) {
+                recorders.forEach((op, rec) -> {
+                    merged.computeIfAbsent(op, k -> new LatencyRecorder()).addAll(rec);
+                    all.addAll(rec);
+                });
+            }
+
+            Map<String, Object> operations = new LinkedHashMap<>();
+            System.out.printf("%-18s %9s %9s %8s %8s %8s %8s %8s%n",
+                    "operation", "requests", "req/s", "err %", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            for (Scenario.Operation op : scenario.operations()) {
+                LatencyRecorder rec = merged.getOrDefault(op, new LatencyRecorder());
+                operations.put(op.key, stats(rec, seconds, op.write));
+                print(op.key, rec, seconds);
+            }
+            print("total", all, seconds);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", started.toString());
+            report.put("durationSeconds", seconds);
+            report.put("config", Map.of("concurrency", config.concurrency(), "warmupSeconds", config.warmup().toSeconds(),
+                    "mix", config.mix(), "seed", config.seed()));
+            report.put("environment", Map.of("java", Runtime.version().toString(),
+                    "cpus", Runtime.getRuntime().availableProcessors(),
+                    "maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+            report.put("total", stats(all, seconds, false));
+            report.put("operations", operations);
+            return report;
+        } finally {
+            workers.shutdownNow();
+            clientPool.shutdownNow();
+        }
+    }
+
+    /** Runs every worker until the deadline; returns each worker's recorders. */
+    private static List<Map<Scenario.Operation, LatencyRecorder>> phase(
+            LoadTestConfig config, Scenario scenario, HttpClient client, ExecutorService workers, long nanos)
+            throws Exception {
+        long deadline = System.nanoTime() + nanos;
+        List<Future<Map<Scenario.Operation, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int w = 0; w < config.concurrency(); w++) {
+            Random random = new Random(config.seed() * 31 + w);
+            futures.add(workers.submit(() -> worker(scenario, client, random, deadline)));
+        }
+        List<Map<Scenario.Operation, LatencyRecorder>> results = new ArrayList<>();
+        for (Future<Map<Scenario.Operation, LatencyRecorder>> f : futures) {
+            results.add(f.get());
+        }
+        return results;
+    }
+
+    private static Map<Scenario.Operation, LatencyRecorder> worker(Scenario scenario, HttpClient client,
+                                                                   Random random, long deadline) {
+        Map<Scenario.Operation, LatencyRecorder> recorders = new EnumMap<>(Scenario.Operation.class);
+        while (System.nanoTime() < deadline) {
+            Scenario.Operation op = scenario.pick(random);
+            HttpRequest request = scenario.request(op, random);
+            long start = System.nanoTime();
+            boolean error;
+            long bytes = 0;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                error = response.statusCode() >= 400;
+                bytes = response.body().length;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                error = true; // timeouts, refused connections, resets
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            recorders.computeIfAbsent(op, k -> new LatencyRecorder()).record(micros, error, bytes);
+        }
+        return recorders;
+    }
+
+    private static Map<String, Object> stats(LatencyRecorder rec, double seconds, boolean write) {
+        long[] sorted = rec.sorted();
+        double mean = 0;
+        for (long v : sorted) {
+            mean += v;
+        }
+        mean = sorted.length == 0 ? 0 : mean / sorted.length / 1000.0;
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", round(mean));
+        latency.put("p50", LatencyRecorder.percentileMillis(sorted, 50));
+        latency.put("p90", LatencyRecorder.percentileMillis(sorted, 90));
+        latency.put("p99", LatencyRecorder.percentileMillis(sorted, 99));
+        latency.put("p999", LatencyRecorder.percentileMillis(sorted, 99.9));
+        latency.put("max", LatencyRecorder.percentileMillis(sorted, 100));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("write", write);
+        out.put("requests", rec.count());
+        out.put("errors", rec.errors());
+        out.put("errorRate", rec.count() == 0 ? 0 : round((double) rec.errors() / rec.count()));
+        out.put("throughputPerSecond", round(rec.count() / seconds));
+        out.put("bytesPerSecond", Math.round(rec.bytes() / seconds));
+        out.put("latencyMs", latency);
+        return out;
+    }
+
+    private static void print(String name, LatencyRecorder rec, double seconds) {
+        long[] sorted = rec.sorted();
+        System.out.printf("%-18s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, rec.count(), rec.count() / seconds,
+                rec.count() == 0 ? 0.0 : 100.0 * rec.errors() / rec.count(),
+                LatencyRecorder.percentileMillis(sorted, 50), LatencyRecorder.percentileMillis(sorted, 90),
+                LatencyRecorder.percentileMillis(sorted, 99), LatencyRecorder.percentileMillis(sorted, 100));
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1000) / 1000.0;
+    }
+}
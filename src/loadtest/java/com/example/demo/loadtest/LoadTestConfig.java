@@ -0,0 +1,75 @@
+package com.example.demo.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options, all "--name=value" (see LoadTest for the list and defaults).
+ */
+record LoadTestConfig(int users, int plans, int exercises, int exercisesPerDay, int daysPerPlan,
+                      int concurrency, Duration warmup, Duration duration, Map<String, Integer> mix,
+                      long seed, Path out) {
+
+    static final String DEFAULT_MIX =
+            "plan-day=35,exercise-by-name=20,dashboard=15,user=10,add-exercise=15,create-user=3,list-exercises=2";
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        LoadTestConfig config = new LoadTestConfig(
+                intOpt(opts, "users", 1000),
+                intOpt(opts, "plans", 3),
+                intOpt(opts, "exercises", 5000),
+                intOpt(opts, "exercises-per-day", 4),
+                intOpt(opts, "days-per-plan", 3),
+                intOpt(opts, "concurrency", 32),
+                Duration.parse("PT" + opts.getOrDefault("warmup", "15s").toUpperCase()),
+                Duration.parse("PT" + opts.getOrDefault("duration", "60s").toUpperCase()),
+                parseMix(opts.getOrDefault("mix", DEFAULT_MIX)),
+                Long.parseLong(opts.getOrDefault("seed", "42")),
+                Path.of(opts.getOrDefault("out", "build/loadtest/report-" + stamp + ".json")));
+        opts.keySet().removeAll(Set.of("users", "plans", "exercises", "exercises-per-day", "days-per-plan",
+                "concurrency", "warmup", "duration", "mix", "seed", "out"));
+        if (!opts.isEmpty()) {
+            throw new IllegalArgumentException("unknown options: " + opts.keySet());
+        }
+        return config;
+    }
+
+    /** "plan-day=35,dashboard=15" -> ordered weights; every name must be a Scenario operation. */
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("bad mix entry: " + part);
+            }
+            Scenario.Operation.byKey(kv[0].trim()); // validates the name
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(kv[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("the mix has no operations");
+        }
+        return mix;
+    }
+
+    private static int intOpt(Map<String, String> opts, String name, int def) {
+        String v = opts.get(name);
+        return v == null ? def : Integer.parseInt(v);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The REST calls the load test can make, and the weighted pick between them.
+ * Parameters come from the seeded Dataset, so reads hit existing rows.
+ */
+final class Scenario {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    enum Operation {
+        PLAN_DAY("plan-day", false),
+        EXERCISE_BY_NAME("exercise-by-name", false),
+        DASHBOARD("dashboard", false),
+        USER("user", false),
+        LIST_EXERCISES("list-exercises", false),
+        ADD_EXERCISE("add-exercise", true),
+        CREATE_USER("create-user", true);
+
+        final String key;
+        final boolean write;
+
+        Operation(String key, boolean write) {
+            this.key = key;
+            this.write = write;
+        }
+
+        static Operation byKey(String key) {
+            return Arrays.stream(values()).filter(o -> o.key.equals(key)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("unknown operation " + key + ", expected one of "
+                            + Arrays.stream(values()).map(o -> o.key).toList()));
+        }
+    }
+
+    private final URI base;
+    private final SyntheticData.Dataset data;
+    private final Operation[] ops;
+    private final int[] cumulative;
+    private final AtomicLong created = new AtomicLong();
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    Scenario(URI base, SyntheticData.Dataset data, Map<String, Integer> mix) {
+        this.base = base;
+        this.data = data;
+        this.ops = new Operation[mix.size()];
+        this.cumulative = new int[mix.size()];
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            total += e.getValue();
+            ops[i] = Operation.byKey(e.getKey());
+            cumulative[i++] = total;
+        }
+    }
+
+    List<Operation> operations() {
+        return List.of(ops);
+    }
+
+    Operation pick(Random random) {
+        int r = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) {
+                return ops[i];
+            }
+        }
+        return ops[ops.length - 1];
+    }
+
+    HttpRequest request(Operation op, Random random) {
+        String user = pick(data.userIds(), random).toString();
+        String plan = SyntheticData.planName(random.nextInt(data.plans()));
+        String day = pick(data.days(), random);
+        return switch (op) {
+            case PLAN_DAY -> get("/api/workout/" + user + "/" + encode(plan) + "/exercises?day=" + day);
+            case EXERCISE_BY_NAME -> get("/exercises/" + encode(pick(data.exerciseNames(), random)));
+            case DASHBOARD -> get("/api/dashboard/" + user + "?day=" + day);
+            case USER -> get("/api/users/" + user);
+            case LIST_EXERCISES -> get("/exercises");
+            case ADD_EXERCISE -> post("/api/workout/add-exercise", """
+                    {"userId":"%s","workoutPlanName":"%s","exerciseName":"%s","day":"%s","sets":%d,"reps":%d}"""
+                    .formatted(user, plan, pick(data.exerciseNames(), random), day,
+                            2 + random.nextInt(4), 5 + random.nextInt(11)));
+            case CREATE_USER -> {
+                long n = created.incrementAndGet();
+                yield post("/api/users", """
+                        {"name":"Load %d","email":"load-%s-%d@loadtest.local","password":"secret-%d"}"""
+                        .formatted(n, runId, n, n));
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static <T> T pick(List<T> list, Random random) {
+        return list.get(random.nextInt(list.size()));
+    }
+}
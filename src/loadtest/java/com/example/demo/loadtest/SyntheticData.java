@@ -0,0 +1,116 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.model.InstructionsCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the database with a deterministic (seeded) data set, straight through JDBC batches:
+ * an exercise catalog, users, and per user `plans` plans with `exercisesPerDay` exercises on
+ * `daysPerPlan` days. The returned Dataset is what the scenario picks request parameters from.
+ */
+final class SyntheticData {
+
+    static final String[] MUSCLES = {"chest", "back", "shoulders", "biceps", "triceps", "quadriceps",
+            "hamstrings", "glutes", "calves", "abdominals", "forearms", "lats"};
+    static final String[] TYPES = {"strength", "cardio", "stretching", "plyometrics", "powerlifting"};
+    static final String[] EQUIPMENT = {"barbell", "dumbbell", "body_only", "cable", "machine", "kettlebells"};
+    static final String[] DIFFICULTIES = {"beginner", "intermediate", "expert"};
+    static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    private static final int BATCH = 1000;
+
+    /** What was generated; ids are the database ids. */
+    record Dataset(List<Long> userIds, List<String> exerciseNames, int plans, List<String> days, long workouts) {
+    }
+
+    static String planName(int plan) {
+        return "Plan " + (char) ('A' + plan);
+    }
+
+    private SyntheticData() {
+    }
+
+    static Dataset seed(DataSource dataSource, LoadTestConfig config) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Random random = new Random(config.seed());
+
+        List<String> exerciseNames = new ArrayList<>(config.exercises());
+        List<String> instructions = new ArrayList<>(config.exercises());
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < config.exercises(); i++) {
+            String muscle = MUSCLES[random.nextInt(MUSCLES.length)];
+            String name = muscle + " exercise " + i;
+            exerciseNames.add(name);
+            rows.add(new Object[]{name, TYPES[random.nextInt(TYPES.length)], muscle,
+                    EQUIPMENT[random.nextInt(EQUIPMENT.length)], DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]});
+            instructions.add(instructions(random, name));
+            flushIfFull(jdbc, "INSERT INTO exercises (name, type, muscle, equipment, difficulty) VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        flush(jdbc, "INSERT INTO exercises (name, type, muscle, equipment, difficulty) VALUES (?, ?, ?, ?, ?)", rows);
+
+        // seeding runs on an empty database, so ids ascend in the order the exercises were generated
+        List<Long> exerciseIds = jdbc.queryForList("SELECT id FROM exercises ORDER BY id", Long.class);
+        for (int i = 0; i < exerciseIds.size() && i < instructions.size(); i++) {
+            InstructionsCodec.Encoded encoded = InstructionsCodec.encode(instructions.get(i));
+            rows.add(new Object[]{exerciseIds.get(i), encoded.bytes(), encoded.compressed()});
+            flushIfFull(jdbc, "INSERT INTO exercise_instructions (exercise_id, content, compressed) VALUES (?, ?, ?)", rows);
+        }
+        flush(jdbc, "INSERT INTO exercise_instructions (exercise_id, content, compressed) VALUES (?, ?, ?)", rows);
+
+        for (int u = 0; u < config.users(); u++) {
+            rows.add(new Object[]{"User " + u, "user" + u + "@loadtest.local", "password-" + u});
+            flushIfFull(jdbc, "INSERT INTO users (name, email, password) VALUES (?, ?, ?)", rows);
+        }
+        flush(jdbc, "INSERT INTO users (name, email, password) VALUES (?, ?, ?)", rows);
+        List<Long> userIds = jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+
+        List<String> days = List.of(DAYS).subList(0, Math.min(DAYS.length, config.daysPerPlan()));
+        String insertWorkout = "INSERT INTO workout (user_id, workout_plan_name, exercise_name, day, sets, reps, version)"
+                + " VALUES (?, ?, ?, ?, ?, ?, 0)";
+        long workouts = 0;
+        for (Long userId : userIds) {
+            for (int p = 0; p < config.plans(); p++) {
+                for (String day : days) {
+                    // distinct exercises per (plan, day), the unique key includes the exercise name
+                    int first = random.nextInt(exerciseNames.size());
+                    for (int e = 0; e < config.exercisesPerDay(); e++) {
+                        String exercise = exerciseNames.get((first + e) % exerciseNames.size());
+                        rows.add(new Object[]{userId.toString(), planName(p), exercise, day,
+                                2 + random.nextInt(4), 5 + random.nextInt(11)});
+                        workouts++;
+                        flushIfFull(jdbc, insertWorkout, rows);
+                    }
+                }
+            }
+        }
+        flush(jdbc, insertWorkout, rows);
+        return new Dataset(userIds, exerciseNames, config.plans(), days, workouts);
+    }
+
+    private static String instructions(Random random, String name) {
+        StringBuilder sb = new StringBuilder("Set up for the ").append(name).append('.');
+        int sentences = 1 + random.nextInt(2);
+        for (int i = 0; i < sentences; i++) {
+            sb.append(" Keep the core braced, move through the full range of motion and control the lowering phase.");
+        }
+        return sb.toString();
+    }
+
+    private static void flushIfFull(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        if (rows.size() >= BATCH) {
+            flush(jdbc, sql, rows);
+        }
+    }
+
+    private static void flush(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo;
+
+import com.example.demo.catalog.ExerciseImporter;
+import com.example.demo.catalog.ImportFormat;
+import com.example.demo.catalog.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line catalog import, e.g.
+ *   java -jar demo.jar --spring.main.web-application-type=none --catalog.import.file=exercises.csv
+ * Format comes from the file extension (.csv, otherwise JSON). The app exits when the import is done
+ * unless catalog.import.exit-when-done=false.
+ * Does nothing without catalog.import.file; checked at run time, so it also works in the AOT image.
+ */
+@Component
+public class ExerciseImportRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExerciseImportRunner.class);
+
+    private final ExerciseImporter importer;
+    private final ConfigurableApplicationContext context;
+    private final String file;
+    private final Integer batchSize;
+    private final boolean exitWhenDone;
+
+    public ExerciseImportRunner(ExerciseImporter importer, ConfigurableApplicationContext context,
+                                @Value("${catalog.import.file:}") String file,
+                                @Value("${catalog.import.batch-size:#{null}}") Integer batchSize,
+                                @Value("${catalog.import.exit-when-done:true}") boolean exitWhenDone) {
+        this.importer = importer;
+        this.context = context;
+        this.file = file;
+        this.batchSize = batchSize;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (file.isBlank()) {
+            return;
+        }
+        Path path = Path.of(file);
+        log.info("Importing exercise catalog from {}", path.toAbsolutePath());
+        ImportReport report;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            report = importer.importCatalog(in, ImportFormat.detect(path.getFileName().toString()), batchSize);
+        }
+        report.errors().forEach(e -> log.warn("row {}: {}", e.row(), e.message()));
+        log.info("Imported {} rows/s ({} inserted, {} updated, {} skipped)",
+                report.rowsPerSecond(), report.inserted(), report.updated(), report.skipped());
+
+        if (exitWhenDone) {
+            int code = report.aborted() ? 1 : 0;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.admin;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the admin token check in front of /api/admin/*.
+ * The filter is registered here (not as a @Component) so @WebMvcTest slices don't pick it up.
+ */
+@Configuration
+public class AdminConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdminTokenFilter> adminTokenFilter(@Value("${admin.token:}") String token) {
+        FilterRegistrationBean<AdminTokenFilter> registration = new FilterRegistrationBean<>(new AdminTokenFilter(token));
+        registration.addUrlPatterns("/api/admin/*");
+        // before rate limiting and the rest, but after the JFR request event so rejections are recorded too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.admin;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards /api/admin/** (JFR recordings, SQL stats settings): the caller has to send the configured
+ * admin.token in X-Admin-Token, otherwise 401. Without a configured token the admin endpoints
+ * don't exist (404), so they are off unless an operator sets ADMIN_TOKEN.
+ */
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final byte[] token; // null when no token is configured
+
+    public AdminTokenFilter(String token) {
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token == null) {
+            reject(response, HttpStatus.NOT_FOUND);
+            return;
+        }
+        String presented = request.getHeader(TOKEN_HEADER);
+        // constant-time comparison, so the response time doesn't give the token away byte by byte
+        if (presented == null || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            reject(response, HttpStatus.UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase() + "\"}");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.analytics;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+public class AnalyticsController {
+
+    private final VolumeAnalytics analytics;
+
+    public AnalyticsController(VolumeAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    // total sets x reps per muscle over the week; ?plan= limits it to one workout plan
+    @GetMapping("/api/analytics/{userId}/volume/weekly")
+    public Map<String, Long> weeklyVolume(@PathVariable String userId, @RequestParam(required = false) String plan) {
+        return analytics.weeklyVolumeByMuscle(userId, plan);
+    }
+
+    // day -> muscle -> sets x reps
+    @GetMapping("/api/analytics/{userId}/volume/daily")
+    public Map<String, Map<String, Long>> dailyVolume(@PathVariable String userId, @RequestParam(required = false) String plan) {
+        return analytics.dailyVolumeByMuscle(userId, plan);
+    }
+
+    // difficulty -> number of exercises in the user's plans + their volume
+    @GetMapping("/api/analytics/{userId}/difficulty")
+    public Map<String, VolumeAnalytics.DifficultyStats> difficulty(@PathVariable String userId,
+                                                                   @RequestParam(required = false) String plan) {
+        return analytics.difficultyDistribution(userId, plan);
+    }
+
+    // recompute everything from the workout/exercises tables (backfill or after catalog changes);
+    // a full table scan, so under /api/admin behind admin.AdminTokenFilter
+    @PostMapping("/api/admin/analytics/rebuild")
+    public VolumeAnalytics.RebuildStats rebuild() {
+        return analytics.rebuild();
+    }
+}
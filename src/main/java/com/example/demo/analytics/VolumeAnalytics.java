@@ -0,0 +1,367 @@
+package com.example.demo.analytics;
+
+import com.example.demo.catalog.CatalogChangedEvent;
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.support.StringDictionary;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutChangedEvent;
+import com.example.demo.workout.WorkoutRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Training volume (sets x reps) per user, kept up to date incrementally from WorkoutChangedEvents.
+ * - Muscles and difficulties are dictionary-encoded; per user (and per plan) the totals live in
+ *   primitive long[] arrays indexed by [muscle * DAYS + day], [muscle] and [difficulty].
+ * - Each row's last contribution is remembered by its (plan, exercise, day) key, so an update
+ *   subtracts the old value before adding the new one, and replaying an event is harmless.
+ * - Queries read the arrays directly: no joins of workout against exercises at request time.
+ * - rebuild() recomputes everything from the tables (backfill, or after catalog muscle changes: a catalog
+ *   import triggers one in the background, since rows it touched were counted with the old or unknown muscle).
+ * - Events only come from this instance's own writes. With several instances behind the router each
+ *   one misses the others' changes, so every analytics.rebuild-interval the state is rebuilt from the
+ *   tables: totals lag other instances' writes by at most that interval (analytics.periodic-rebuild=false
+ *   for a single instance).
+ */
+@Component
+public class VolumeAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(VolumeAnalytics.class);
+
+    static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun", "Other"};
+    static final int DAYS = DAY_NAMES.length;
+    static final String UNKNOWN = "unknown";
+
+    private final WorkoutRepository workouts;
+    private final ExerciseRepository exercises;
+    private final boolean rebuildOnStartup;
+    private final boolean periodicRebuild;
+
+    private final StringDictionary muscles = new StringDictionary();
+    private final StringDictionary difficulties = new StringDictionary();
+    // lower-case exercise name -> {muscle id, difficulty id}
+    private final ConcurrentHashMap<String, int[]> exerciseInfo = new ConcurrentHashMap<>();
+
+    private volatile ConcurrentHashMap<String, UserState> users = new ConcurrentHashMap<>();
+
+    // events take the read lock (they only lock their own user), a rebuild's final swap takes the write lock
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<WorkoutChangedEvent> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+    private volatile boolean rebuilding;
+
+    public VolumeAnalytics(WorkoutRepository workouts, ExerciseRepository exercises,
+                           @Value("${analytics.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                           @Value("${analytics.periodic-rebuild:true}") boolean periodicRebuild) {
+        this.workouts = workouts;
+        this.exercises = exercises;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.periodicRebuild = periodicRebuild;
+    }
+
+    public record DifficultyStats(int exercises, long volume) {}
+
+    public record RebuildStats(long rows, int users, long millis) {}
+
+    private record Contribution(String plan, int muscle, int difficulty, int day, long volume) {}
+
+    /** Running totals for one user or one plan. Guarded by the owning UserState's monitor. */
+    private static final class Totals {
+        long[] volumeByMuscleDay = new long[8 * DAYS];
+        long[] volumeByMuscle = new long[8];
+        long[] volumeByDifficulty = new long[4];
+        int[] exercisesByDifficulty = new int[4];
+
+        void apply(Contribution c, int sign) {
+            if (c.muscle() >= volumeByMuscle.length) {
+                int capacity = Math.max(c.muscle() + 1, volumeByMuscle.length * 2);
+                volumeByMuscle = Arrays.copyOf(volumeByMuscle, capacity);
+                volumeByMuscleDay = Arrays.copyOf(volumeByMuscleDay, capacity * DAYS);
+            }
+            if (c.difficulty() >= volumeByDifficulty.length) {
+                int capacity = Math.max(c.difficulty() + 1, volumeByDifficulty.length * 2);
+                volumeByDifficulty = Arrays.copyOf(volumeByDifficulty, capacity);
+                exercisesByDifficulty = Arrays.copyOf(exercisesByDifficulty, capacity);
+            }
+            volumeByMuscleDay[c.muscle() * DAYS + c.day()] += sign * c.volume();
+            volumeByMuscle[c.muscle()] += sign * c.volume();
+            volumeByDifficulty[c.difficulty()] += sign * c.volume();
+            exercisesByDifficulty[c.difficulty()] += sign;
+        }
+    }
+
+    private static final class UserState {
+        final Totals total = new Totals();
+        final Map<String, Totals> plans = new HashMap<>();
+        final Map<String, Contribution> rows = new HashMap<>(); // plan \0 exercise \0 day -> contribution
+    }
+
+    // ---------------------------------------------------------------- updates
+
+    @EventListener
+    public void onWorkoutChanged(WorkoutChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(users, event);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a deleted user right away (UserPurgeService.submit). The purge then publishes a DELETED
+     * event per workout: they remove whatever a concurrent rebuild still read, and are ignored otherwise.
+     */
+    public void removeUser(String userId) {
+        swapLock.readLock().lock();
+        try {
+            users.remove(userId);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void apply(ConcurrentHashMap<String, UserState> target, WorkoutChangedEvent e) {
+        if (e.userId() == null || e.workoutPlanName() == null || e.exerciseName() == null) {
+            return;
+        }
+        UserState user = e.type() == WorkoutChangedEvent.Type.DELETED
+                ? target.get(e.userId()) // nothing to subtract from; don't bring a removed user back
+                : target.computeIfAbsent(e.userId(), id -> new UserState());
+        if (user == null) {
+            return;
+        }
+        String rowKey = e.workoutPlanName() + '\u0000' + e.exerciseName() + '\u0000' + e.day();
+        Contribution next = e.type() == WorkoutChangedEvent.Type.DELETED ? null : contributionOf(e);
+
+        synchronized (user) {
+            Contribution previous = next == null ? user.rows.remove(rowKey) : user.rows.put(rowKey, next);
+            if (previous != null) {
+                user.total.apply(previous, -1);
+                user.plans.get(previous.plan()).apply(previous, -1);
+            }
+            if (next != null) {
+                user.total.apply(next, 1);
+                user.plans.computeIfAbsent(next.plan(), p -> new Totals()).apply(next, 1);
+            }
+        }
+    }
+
+    private Contribution contributionOf(WorkoutChangedEvent e) {
+        String key = e.exerciseName().toLowerCase(Locale.ROOT);
+        int[] info = exerciseInfo.get(key);
+        if (info == null) {
+            // query outside computeIfAbsent (no DB call while holding a map bin), and only remember
+            // exercises that exist: a name added to the catalog later must not stay "unknown"
+            ExerciseEntity exercise = exercises.findByName(e.exerciseName()).stream().findFirst().orElse(null);
+            info = infoOf(exercise);
+            if (exercise != null) {
+                exerciseInfo.putIfAbsent(key, info);
+            }
+        }
+        return new Contribution(e.workoutPlanName(), info[0], info[1], dayIndex(e.day()),
+                (long) e.sets() * e.reps());
+    }
+
+    private int[] infoOf(ExerciseEntity exercise) {
+        String muscle = exercise == null || exercise.getMuscle() == null ? UNKNOWN : exercise.getMuscle().toLowerCase(Locale.ROOT);
+        String difficulty = exercise == null || exercise.getDifficulty() == null ? UNKNOWN : exercise.getDifficulty().toLowerCase(Locale.ROOT);
+        return new int[]{muscles.idOf(muscle), difficulties.idOf(difficulty)};
+    }
+
+    /** "Mon", "monday", "MONDAY" -> 0 ... "Sun" -> 6, anything else -> 7 ("Other"). */
+    static int dayIndex(String day) {
+        if (day != null && day.length() >= 3) {
+            String prefix = day.substring(0, 3);
+            for (int i = 0; i < 7; i++) {
+                if (DAY_NAMES[i].equalsIgnoreCase(prefix)) {
+                    return i;
+                }
+            }
+        }
+        return DAYS - 1;
+    }
+
+    // ---------------------------------------------------------------- queries
+
+    /** Weekly volume per muscle, for one plan or (plan == null) all of the user's plans. */
+    public Map<String, Long> weeklyVolumeByMuscle(String userId, String plan) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        UserState user = users.get(userId);
+        if (user == null) {
+            return result;
+        }
+        synchronized (user) {
+            Totals totals = plan == null ? user.total : user.plans.get(plan);
+            if (totals != null) {
+                for (int m = 0; m < totals.volumeByMuscle.length; m++) {
+                    if (totals.volumeByMuscle[m] != 0) {
+                        result.put(muscles.valueOf(m), totals.volumeByMuscle[m]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Volume per day of the week and muscle, for one plan or all plans. */
+    public Map<String, Map<String, Long>> dailyVolumeByMuscle(String userId, String plan) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        UserState user = users.get(userId);
+        if (user == null) {
+            return result;
+        }
+        synchronized (user) {
+            Totals totals = plan == null ? user.total : user.plans.get(plan);
+            if (totals != null) {
+                for (int d = 0; d < DAYS; d++) {
+                    Map<String, Long> day = new LinkedHashMap<>();
+                    for (int m = 0; m < totals.volumeByMuscle.length; m++) {
+                        long volume = totals.volumeByMuscleDay[m * DAYS + d];
+                        if (volume != 0) {
+                            day.put(muscles.valueOf(m), volume);
+                        }
+                    }
+                    if (!day.isEmpty()) {
+                        result.put(DAY_NAMES[d], day);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** How many plan entries (and how much volume) the user has per exercise difficulty. */
+    public Map<String, DifficultyStats> difficultyDistribution(String userId, String plan) {
+        Map<String, DifficultyStats> result = new LinkedHashMap<>();
+        UserState user = users.get(userId);
+        if (user == null) {
+            return result;
+        }
+        synchronized (user) {
+            Totals totals = plan == null ? user.total : user.plans.get(plan);
+            if (totals != null) {
+                for (int d = 0; d < totals.exercisesByDifficulty.length; d++) {
+                    if (totals.exercisesByDifficulty[d] != 0) {
+                        result.put(difficulties.valueOf(d),
+                                new DifficultyStats(totals.exercisesByDifficulty[d], totals.volumeByDifficulty[d]));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------- full rebuild
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildInBackground("Initial analytics rebuild");
+        }
+    }
+
+    // the importer writes with plain JDBC: exercise info and the totals counted with it are out of date
+    @EventListener(CatalogChangedEvent.class)
+    public void onCatalogChanged() {
+        rebuildInBackground("Analytics rebuild after a catalog import");
+    }
+
+    private void rebuildInBackground(String what) {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("{} failed; run POST /api/admin/analytics/rebuild once the DB is reachable", what, e);
+            }
+        }, "analytics-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // picks up what other instances wrote (their events never reach this one)
+    @Scheduled(initialDelayString = "${analytics.rebuild-interval:PT15M}",
+            fixedDelayString = "${analytics.rebuild-interval:PT15M}")
+    public void rebuildPeriodically() {
+        if (!periodicRebuild) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Periodic analytics rebuild failed; the current totals are kept", e);
+        }
+    }
+
+    /**
+     * Recomputes all aggregates from the workout and exercises tables.
+     * Events that arrive meanwhile are applied to the live state and queued; after the scan the new
+     * state is swapped in and the queued events are replayed on it.
+     */
+    public synchronized RebuildStats rebuild() {
+        long start = System.nanoTime();
+        pendingDuringRebuild.clear();
+        rebuilding = true;
+        ConcurrentHashMap<String, UserState> fresh = new ConcurrentHashMap<>();
+        long rows = 0;
+        try {
+            exerciseInfo.clear();
+            for (ExerciseEntity exercise : exercises.findAll()) {
+                if (exercise.getName() != null) {
+                    exerciseInfo.putIfAbsent(exercise.getName().toLowerCase(Locale.ROOT), infoOf(exercise));
+                }
+            }
+
+            long lastId = 0;
+            while (true) {
+                List<Workout> page = workouts.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Workout w : page) {
+                    apply(fresh, WorkoutChangedEvent.of(WorkoutChangedEvent.Type.UPDATED, w));
+                }
+                rows += page.size();
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } catch (RuntimeException e) {
+            rebuilding = false;
+            pendingDuringRebuild.clear();
+            throw e;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            WorkoutChangedEvent event;
+            while ((event = pendingDuringRebuild.poll()) != null) {
+                apply(fresh, event);
+            }
+            users = fresh;
+            rebuilding = false;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        RebuildStats stats = new RebuildStats(rows, fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        log.info("Analytics rebuilt from {} workout rows for {} users in {} ms", stats.rows(), stats.users(), stats.millis());
+        return stats;
+    }
+}
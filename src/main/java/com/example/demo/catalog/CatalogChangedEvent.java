@@ -0,0 +1,8 @@
+package com.example.demo.catalog;
+
+/**
+ * Published (Spring application event) after a catalog import wrote exercises with plain JDBC, so the
+ * in-memory copies of the catalog (name index, plan catalog, analytics exercise info) reload right away
+ * instead of on their next scheduled refresh.
+ */
+public record CatalogChangedEvent(long inserted, long updated) {}
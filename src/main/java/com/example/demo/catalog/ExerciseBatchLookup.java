@@ -0,0 +1,66 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up many exercises by name at once: from the in-memory ExerciseNameIndex when it is enabled and
+ * loaded, otherwise with a single WHERE name IN (...) query.
+ * The result keeps the order of the requested names (duplicates and blanks dropped); every name maps to
+ * its exercises ordered by id, or to an empty list.
+ */
+@Service
+public class ExerciseBatchLookup {
+
+    private final ExerciseRepository repository;
+    private final ObjectProvider<ExerciseNameIndex> index;
+    private final int maxNames;
+
+    public ExerciseBatchLookup(ExerciseRepository repository, ObjectProvider<ExerciseNameIndex> index,
+                               @Value("${catalog.batch-lookup.max-names:100}") int maxNames) {
+        this.repository = repository;
+        this.index = index;
+        this.maxNames = maxNames;
+    }
+
+    public Map<String, List<ExerciseEntity>> findByNames(List<String> names) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                distinct.add(name);
+            }
+        }
+        if (distinct.size() > maxNames) {
+            throw new IllegalArgumentException("At most " + maxNames + " names per request, got " + distinct.size());
+        }
+
+        Map<String, List<ExerciseEntity>> result = new LinkedHashMap<>();
+        ExerciseNameIndex idx = index.getIfAvailable();
+        if (idx != null && idx.isLoaded()) {
+            distinct.forEach(name -> result.put(name, idx.find(name)));
+            return result;
+        }
+        if (distinct.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<ExerciseEntity>> byKey = new HashMap<>();
+        repository.findByNameIn(distinct).stream()
+                .sorted(Comparator.comparing(ExerciseEntity::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(e -> byKey.computeIfAbsent(ExerciseNameIndex.key(e.getName()), k -> new ArrayList<>()).add(e));
+        distinct.forEach(name -> result.put(name, byKey.getOrDefault(ExerciseNameIndex.key(name), List.of())));
+        return result;
+    }
+}
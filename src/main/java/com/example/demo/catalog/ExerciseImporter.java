@@ -0,0 +1,205 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.InstructionsCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk loads the exercises table from a CSV/JSON stream.
+ * - Rows are validated and deduped by name (case-insensitive, first occurrence wins).
+ * - Every batchSize rows: one SELECT ... WHERE name IN (...) to find existing names,
+ *   then one JDBC batch UPDATE for those and one JDBC batch INSERT for the rest, in a single transaction.
+ * - Instructions go to exercise_instructions (see InstructionsCodec): the batch's old rows are deleted
+ *   and all of them inserted again, keyed by the exercise ids read back after the INSERT.
+ * Skips JPA entirely so memory stays flat and the persistence context never grows. Since no entity
+ * listener sees those writes, a CatalogChangedEvent goes out at the end for the in-memory catalog copies.
+ * Databases from before the instructions split still have exercises.instructions NOT NULL, which the
+ * INSERT doesn't fill: the import refuses to start there until InstructionsColumnMigration's first step
+ * (catalog.instructions.migration-enabled=true) has made the column nullable.
+ */
+@Service
+public class ExerciseImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExerciseImporter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO exercises (name, type, muscle, equipment, difficulty) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE exercises SET type = ?, muscle = ?, equipment = ?, difficulty = ? WHERE name = ?";
+    private static final String INSERT_INSTRUCTIONS_SQL =
+            "INSERT INTO exercise_instructions (exercise_id, content, compressed) VALUES (?, ?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final int defaultBatchSize;
+    private final int maxErrors;
+
+    public ExerciseImporter(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager txManager,
+                            ApplicationEventPublisher events,
+                            @Value("${catalog.import.batch-size:1000}") int defaultBatchSize,
+                            @Value("${catalog.import.max-errors:1000}") int maxErrors) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.events = events;
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ImportReport importCatalog(InputStream in, ImportFormat format, Integer batchSize) throws IOException {
+        checkInstructionsColumn();
+        int size = batchSize != null && batchSize > 0 ? batchSize : defaultBatchSize;
+        ImportReport.Tally tally = new ImportReport.Tally(maxErrors);
+        Set<String> seen = new HashSet<>();
+        List<ExerciseRow> batch = new ArrayList<>(size);
+
+        try (ExerciseRowReader reader = ExerciseRowReader.open(in, format)) {
+            while (true) {
+                ExerciseRow row;
+                try {
+                    row = reader.next();
+                } catch (JsonProcessingException e) {
+                    // the parser can't resync after malformed input; keep what we have so far
+                    tally.aborted = true;
+                    tally.error(tally.rowsRead + 1, "Malformed input: " + e.getOriginalMessage());
+                    break;
+                }
+                if (row == null) {
+                    break;
+                }
+                tally.rowsRead++;
+
+                String problem = row.validate();
+                if (problem != null) {
+                    tally.reject(row.rowNumber(), problem);
+                    continue;
+                }
+                if (!seen.add(row.name().trim().toLowerCase(Locale.ROOT))) {
+                    tally.reject(row.rowNumber(), "duplicate name '" + row.name() + "'");
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == size) {
+                    flush(batch, tally);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, tally);
+        }
+
+        ImportReport report = tally.finish();
+        log.info("Exercise import done: {} rows read, {} inserted, {} updated, {} skipped in {} ms{}",
+                report.rowsRead(), report.inserted(), report.updated(), report.skipped(), report.elapsedMillis(),
+                report.aborted() ? " (aborted on malformed input)" : "");
+        if (report.inserted() + report.updated() > 0) {
+            events.publishEvent(new CatalogChangedEvent(report.inserted(), report.updated()));
+        }
+        return report;
+    }
+
+    // every INSERT would fail on the old NOT NULL column; say why once instead of once per batch
+    private void checkInstructionsColumn() {
+        boolean oldColumnNotNull = Boolean.TRUE.equals(jdbc.getJdbcOperations().execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            boolean upper = meta.storesUpperCaseIdentifiers();
+            try (ResultSet rs = meta.getColumns(con.getCatalog(), null,
+                    upper ? "EXERCISES" : "exercises", upper ? "INSTRUCTIONS" : "instructions")) {
+                return rs.next() && rs.getInt("NULLABLE") == DatabaseMetaData.columnNoNulls;
+            }
+        }));
+        if (oldColumnNotNull) {
+            throw new IllegalStateException("exercises.instructions is still NOT NULL (database from before the"
+                    + " instructions split): start once with catalog.instructions.migration-enabled=true, then import");
+        }
+    }
+
+    private void flush(List<ExerciseRow> batch, ImportReport.Tally tally) {
+        List<ExerciseRow> updates = new ArrayList<>();
+        List<ExerciseRow> inserts = new ArrayList<>();
+
+        try {
+            tx.executeWithoutResult(status -> writeBatch(batch, updates, inserts));
+        } catch (DataAccessException e) {
+            // one bad batch (e.g. a constraint violation) shouldn't lose the rest of the import
+            tally.skipped += batch.size();
+            tally.error(batch.get(0).rowNumber(), "Batch of " + batch.size() + " rows starting here failed: "
+                    + e.getMostSpecificCause().getMessage());
+            return;
+        }
+
+        tally.inserted += inserts.size();
+        tally.updated += updates.size();
+        log.info("Exercise import progress: {} rows read, {} inserted, {} updated, {} skipped ({} ms)",
+                tally.rowsRead, tally.inserted, tally.updated, tally.skipped, tally.elapsedMillis());
+    }
+
+    private void writeBatch(List<ExerciseRow> batch, List<ExerciseRow> updates, List<ExerciseRow> inserts) {
+        Map<String, Long> ids = idsByName(batch);
+        for (ExerciseRow row : batch) {
+            (ids.containsKey(key(row)) ? updates : inserts).add(row);
+        }
+        if (!updates.isEmpty()) {
+            jdbc.getJdbcOperations().batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, r) -> {
+                ps.setString(1, r.type().trim());
+                ps.setString(2, r.muscle().trim());
+                ps.setString(3, r.equipment().trim());
+                ps.setString(4, r.difficulty().trim());
+                ps.setString(5, r.name().trim());
+            });
+            jdbc.update("DELETE FROM exercise_instructions WHERE exercise_id IN (:ids)",
+                    Map.of("ids", updates.stream().map(r -> ids.get(key(r))).toList()));
+        }
+        if (!inserts.isEmpty()) {
+            jdbc.getJdbcOperations().batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, r) -> {
+                ps.setString(1, r.name().trim());
+                ps.setString(2, r.type().trim());
+                ps.setString(3, r.muscle().trim());
+                ps.setString(4, r.equipment().trim());
+                ps.setString(5, r.difficulty().trim());
+            });
+            ids.putAll(idsByName(inserts));
+        }
+        jdbc.getJdbcOperations().batchUpdate(INSERT_INSTRUCTIONS_SQL, batch, batch.size(), (ps, r) -> {
+            InstructionsCodec.Encoded encoded = InstructionsCodec.encode(r.instructions().trim());
+            ps.setLong(1, ids.get(key(r)));
+            ps.setBytes(2, encoded.bytes());
+            ps.setBoolean(3, encoded.compressed());
+        });
+    }
+
+    // lower-cased name -> id, matching names case-insensitively like the MySQL collation
+    private Map<String, Long> idsByName(List<ExerciseRow> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.query("SELECT id, name FROM exercises WHERE name IN (:names)",
+                Map.of("names", rows.stream().map(r -> r.name().trim()).toList()),
+                rs -> { ids.putIfAbsent(rs.getString(2).toLowerCase(Locale.ROOT), rs.getLong(1)); });
+        return ids;
+    }
+
+    private static String key(ExerciseRow row) {
+        return row.name().trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.catalog;
+
+import com.example.demo.jfr.CacheLookupEvent;
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-memory name -> exercises index over the whole catalog (catalog.name-index.enabled=true).
+ * Names are matched case-insensitively like the MySQL collation does. The index is rebuilt every
+ * catalog.name-index.refresh, so edits made through the API show up with that delay; imports reload it
+ * right away (CatalogChangedEvent).
+ * The flag is read at runtime (not @ConditionalOnProperty, which the AOT image fixes at build time):
+ * while it is off the index never loads and lookups go to the database.
+ */
+@Component
+public class ExerciseNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ExerciseNameIndex.class);
+
+    private final ExerciseRepository repository;
+    private final boolean enabled;
+    private volatile Map<String, List<ExerciseEntity>> byName;
+
+    public ExerciseNameIndex(ExerciseRepository repository,
+                             @Value("${catalog.name-index.enabled:false}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${catalog.name-index.refresh:PT1M}")
+    @EventListener(CatalogChangedEvent.class)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            byName = repository.findAll().stream()
+                    .filter(e -> e.getName() != null)
+                    .sorted(Comparator.comparing(ExerciseEntity::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .collect(Collectors.groupingBy(e -> key(e.getName()), HashMap::new, Collectors.toUnmodifiableList()));
+            log.debug("Exercise name index loaded: {} names", byName.size());
+        } catch (RuntimeException e) {
+            log.warn("Exercise name index refresh failed, keeping the previous one", e);
+        }
+    }
+
+    /** @return false until the first load succeeded; callers then go to the database */
+    public boolean isLoaded() {
+        return byName != null;
+    }
+
+    public List<ExerciseEntity> find(String name) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        List<ExerciseEntity> found = byName.getOrDefault(key(name), List.of());
+        event.end("exercise-name-index", !found.isEmpty());
+        return found;
+    }
+
+    static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.catalog;
+
+/**
+ * One exercise as read from an import file. rowNumber is 1-based (header not counted) for error reports.
+ */
+public record ExerciseRow(long rowNumber, String name, String type, String muscle,
+                          String equipment, String difficulty, String instructions) {
+
+    // exercises columns are plain VARCHAR(255)
+    static final int MAX_LENGTH = 255;
+
+    /** @return a message describing what is wrong with the row, or null when it can be imported */
+    public String validate() {
+        String problem = check("name", name);
+        if (problem == null) problem = check("type", type);
+        if (problem == null) problem = check("muscle", muscle);
+        if (problem == null) problem = check("equipment", equipment);
+        if (problem == null) problem = check("difficulty", difficulty);
+        if (problem == null) problem = check("instructions", instructions);
+        return problem;
+    }
+
+    private static String check(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return field + " is required";
+        }
+        if (value.length() > MAX_LENGTH) {
+            return field + " is longer than " + MAX_LENGTH + " characters";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.catalog;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Streams exercises out of a CSV file (with a header row) or a JSON array, one row at a time.
+ * Nothing but the current row is held in memory, so file size doesn't matter.
+ *
+ * Expected columns/fields: name, type, muscle, equipment, difficulty, instructions.
+ */
+public abstract class ExerciseRowReader implements Closeable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final CsvMapper CSV = CsvMapper.builder()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+            .enable(CsvParser.Feature.INSERT_NULLS_FOR_MISSING_COLUMNS)
+            .build();
+
+    protected long rowNumber;
+
+    /** @return the next row, or null at the end of the input */
+    public abstract ExerciseRow next() throws IOException;
+
+    public static ExerciseRowReader open(InputStream in, ImportFormat format) throws IOException {
+        return format == ImportFormat.CSV ? new Csv(in) : new Json(in);
+    }
+
+    private static final class Csv extends ExerciseRowReader {
+        private final MappingIterator<Map<String, String>> rows;
+
+        Csv(InputStream in) throws IOException {
+            rows = CSV.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(in);
+        }
+
+        @Override
+        public ExerciseRow next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            Map<String, String> r = rows.nextValue();
+            return new ExerciseRow(++rowNumber, r.get("name"), r.get("type"), r.get("muscle"),
+                    r.get("equipment"), r.get("difficulty"), r.get("instructions"));
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+
+    private static final class Json extends ExerciseRowReader {
+        private final JsonParser parser;
+
+        Json(InputStream in) throws IOException {
+            parser = JSON.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of exercises");
+            }
+        }
+
+        @Override
+        public ExerciseRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            rowNumber++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new ExerciseRow(rowNumber, null, null, null, null, null, null);
+            }
+            JsonNode node = JSON.readTree(parser); // reads just this object
+            return new ExerciseRow(rowNumber, text(node, "name"), text(node, "type"), text(node, "muscle"),
+                    text(node, "equipment"), text(node, "difficulty"), text(node, "instructions"));
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText().trim();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
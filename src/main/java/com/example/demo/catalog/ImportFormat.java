@@ -0,0 +1,18 @@
+package com.example.demo.catalog;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, JSON;
+
+    /** Picks the format from a content type ("text/csv") or a file name ("catalog.csv"); JSON otherwise. */
+    public static ImportFormat detect(String contentTypeOrFileName) {
+        if (contentTypeOrFileName != null) {
+            String value = contentTypeOrFileName.toLowerCase(Locale.ROOT);
+            if (value.contains("csv")) {
+                return CSV;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a catalog import. errors is capped (see errorsTruncated) so a bad file can't blow up the response.
+ */
+public record ImportReport(long rowsRead, long inserted, long updated, long skipped,
+                           boolean aborted, long elapsedMillis, long rowsPerSecond,
+                           List<RowError> errors, boolean errorsTruncated) {
+
+    public record RowError(long row, String message) {}
+
+    /** Mutable tally used while the import runs. */
+    static final class Tally {
+        private final int maxErrors;
+        private final List<RowError> errors = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        long rowsRead;
+        long inserted;
+        long updated;
+        long skipped;
+        boolean aborted;
+        boolean errorsTruncated;
+
+        Tally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long row, String message) {
+            skipped++;
+            error(row, message);
+        }
+
+        void error(long row, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(row, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        ImportReport finish() {
+            long millis = elapsedMillis();
+            long rate = millis == 0 ? rowsRead : rowsRead * 1000 / millis;
+            return new ImportReport(rowsRead, inserted, updated, skipped, aborted, millis, rate,
+                    List.copyOf(errors), errorsTruncated);
+        }
+    }
+}
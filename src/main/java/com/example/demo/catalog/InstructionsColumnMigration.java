@@ -0,0 +1,266 @@
+package com.example.demo.catalog;
+
+import com.example.demo.jdbc.SqlDialect;
+import com.example.demo.model.InstructionsCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Moves the old exercises.instructions column into exercise_instructions, for databases created before
+ * the split. Off unless asked for, and done in two steps one release apart, so instances still running
+ * the old code during a rolling deploy keep working:
+ * 1. catalog.instructions.migration-enabled=true: lets the old column take NULLs (new instances no longer
+ *    write it) and copies it in committed chunks, skipping rows copied already. Next to each copy it keeps
+ *    a hash of the old value it copied (exercise_instructions_copied).
+ * 2. catalog.instructions.migration-drop-column=true, once no old instance is left: re-copies every
+ *    non-null old value that old instances wrote or edited since step 1 (no hash, or a different one),
+ *    replacing the exercise_instructions row, then drops the column and the hashes. Old values still equal
+ *    to what step 1 copied are left alone, so edits new instances made in exercise_instructions survive.
+ * Each step runs once per database: the instance that leases the step's schema_migration row does it,
+ * renewing the lease per chunk, and marks it finished; the others skip it. A failed step is logged and
+ * retried on the next start; it never stops the app from starting.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InstructionsColumnMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(InstructionsColumnMigration.class);
+
+    static final String COPY_STEP = "exercise-instructions-copy";
+    static final String DROP_STEP = "exercise-instructions-drop-column";
+
+    private static final String CREATE_COPIED_TABLE = """
+            CREATE TABLE IF NOT EXISTS exercise_instructions_copied (
+              exercise_id BIGINT NOT NULL PRIMARY KEY,
+              source_hash VARCHAR(64) NOT NULL)""";
+
+    private static final String CREATE_MIGRATION_TABLE = """
+            CREATE TABLE IF NOT EXISTS schema_migration (
+              name VARCHAR(100) NOT NULL PRIMARY KEY,
+              owner VARCHAR(36) NOT NULL,
+              locked_until TIMESTAMP NOT NULL,
+              finished_at TIMESTAMP NULL)""";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final boolean dropColumn;
+    private final int chunkSize;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    public InstructionsColumnMigration(JdbcTemplate jdbc,
+                                       @Value("${catalog.instructions.migration-enabled:false}") boolean enabled,
+                                       @Value("${catalog.instructions.migration-drop-column:false}") boolean dropColumn,
+                                       @Value("${catalog.instructions.migration-chunk:500}") int chunkSize,
+                                       @Value("${catalog.instructions.migration-lease:PT5M}") Duration lease) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        this.enabled = enabled;
+        this.dropColumn = dropColumn;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.lease = lease;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled && !dropColumn) {
+            return;
+        }
+        try {
+            jdbc.execute(CREATE_MIGRATION_TABLE);
+        } catch (DataAccessException e) {
+            log.error("Instructions migration skipped, cannot create schema_migration: {}", e.getMessage());
+            return;
+        }
+        if (enabled) {
+            step(COPY_STEP, () -> {
+                relaxNotNull();
+                jdbc.execute(CREATE_COPIED_TABLE);
+                return "copied the instructions of " + copy() + " exercises to exercise_instructions";
+            });
+        }
+        if (dropColumn) {
+            step(DROP_STEP, () -> {
+                jdbc.execute(CREATE_COPIED_TABLE);
+                long copied = recopyChanged();
+                jdbc.execute("ALTER TABLE exercises DROP COLUMN instructions");
+                jdbc.execute("DROP TABLE exercise_instructions_copied");
+                return "re-copied " + copied + " exercises written by old instances, dropped exercises.instructions";
+            });
+        }
+    }
+
+    private void step(String name, Supplier<String> work) {
+        if (!acquire(name)) {
+            log.info("Instructions migration step {} is finished or running on another instance", name);
+            return;
+        }
+        try {
+            String done = hasOldColumn() ? work.get() : "nothing to do, exercises.instructions is gone";
+            jdbc.update("UPDATE schema_migration SET finished_at = ? WHERE name = ? AND owner = ?",
+                    Timestamp.from(Instant.now()), name, owner);
+            log.info("Instructions migration step {}: {}", name, done);
+        } catch (RuntimeException e) {
+            release(name);
+            String hint = e instanceof BadSqlGrammarException
+                    ? " (exercise_instructions missing? start once with JPA_DDL_AUTO=update)" : "";
+            log.error("Instructions migration step {} failed{}; retried on the next start", name, hint, e);
+        }
+    }
+
+    private boolean acquire(String name) {
+        Instant now = Instant.now();
+        Timestamp until = Timestamp.from(now.plus(lease));
+        try {
+            jdbc.update("INSERT INTO schema_migration (name, owner, locked_until) VALUES (?, ?, ?)", name, owner, until);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // the row exists: take it over only if it's unfinished and its lease ran out
+            return jdbc.update("UPDATE schema_migration SET owner = ?, locked_until = ?"
+                            + " WHERE name = ? AND finished_at IS NULL AND locked_until < ?",
+                    owner, until, name, Timestamp.from(now)) == 1;
+        }
+    }
+
+    private void renew(String name) {
+        int renewed = jdbc.update("UPDATE schema_migration SET locked_until = ? WHERE name = ? AND owner = ?",
+                Timestamp.from(Instant.now().plus(lease)), name, owner);
+        if (renewed != 1) {
+            throw new IllegalStateException("lost the lease on " + name + " to another instance");
+        }
+    }
+
+    private void release(String name) {
+        try {
+            jdbc.update("UPDATE schema_migration SET locked_until = ? WHERE name = ? AND owner = ? AND finished_at IS NULL",
+                    Timestamp.from(Instant.now()), name, owner);
+        } catch (DataAccessException e) {
+            log.warn("Could not release {}; it is free again once the lease runs out", name, e);
+        }
+    }
+
+    private boolean hasOldColumn() {
+        try {
+            jdbc.queryForList("SELECT instructions FROM exercises WHERE 1 = 0");
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+
+    // new instances don't write the old column, so its NOT NULL would fail every new exercise
+    private void relaxNotNull() {
+        switch (SqlDialect.of(jdbc.getDataSource())) {
+            case MYSQL -> {
+                String type = jdbc.queryForObject("SELECT COLUMN_TYPE FROM information_schema.COLUMNS"
+                        + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'exercises' AND COLUMN_NAME = 'instructions'",
+                        String.class);
+                jdbc.execute("ALTER TABLE exercises MODIFY instructions " + type + " NULL");
+            }
+            case H2 -> jdbc.execute("ALTER TABLE exercises ALTER COLUMN instructions SET NULL");
+            case OTHER -> jdbc.execute("ALTER TABLE exercises ALTER COLUMN instructions DROP NOT NULL");
+        }
+    }
+
+    private long copy() {
+        long copied = 0;
+        long after = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT e.id, e.instructions FROM exercises e"
+                            + " WHERE e.id > ? AND e.instructions IS NOT NULL"
+                            + " AND NOT EXISTS (SELECT 1 FROM exercise_instructions i WHERE i.exercise_id = e.id)"
+                            + " ORDER BY e.id LIMIT " + chunkSize, after);
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            write(rows, false);
+            copied += rows.size();
+            after = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            renew(COPY_STEP);
+        }
+    }
+
+    // every non-null old value that isn't exactly what step 1 copied: written or edited by an old instance since
+    private long recopyChanged() {
+        long copied = 0;
+        long after = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT e.id, e.instructions, c.source_hash FROM exercises e"
+                            + " LEFT JOIN exercise_instructions_copied c ON c.exercise_id = e.id"
+                            + " WHERE e.id > ? AND e.instructions IS NOT NULL"
+                            + " ORDER BY e.id LIMIT " + chunkSize, after);
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            List<Map<String, Object>> changed = rows.stream()
+                    .filter(row -> !hash((String) row.get("instructions")).equals(row.get("source_hash")))
+                    .toList();
+            if (!changed.isEmpty()) {
+                write(changed, true);
+            }
+            copied += changed.size();
+            after = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            renew(DROP_STEP);
+        }
+    }
+
+    // one transaction per chunk: the instructions, and the hash of the old value they came from
+    private void write(List<Map<String, Object>> rows, boolean replace) {
+        tx.executeWithoutResult(status -> {
+            if (replace) {
+                jdbc.batchUpdate("DELETE FROM exercise_instructions WHERE exercise_id = ?", rows, rows.size(),
+                        (ps, row) -> ps.setLong(1, ((Number) row.get("id")).longValue()));
+                jdbc.batchUpdate("DELETE FROM exercise_instructions_copied WHERE exercise_id = ?", rows, rows.size(),
+                        (ps, row) -> ps.setLong(1, ((Number) row.get("id")).longValue()));
+            }
+            jdbc.batchUpdate("INSERT INTO exercise_instructions (exercise_id, content, compressed) VALUES (?, ?, ?)",
+                    rows, rows.size(), (ps, row) -> {
+                        InstructionsCodec.Encoded encoded = InstructionsCodec.encode((String) row.get("instructions"));
+                        ps.setLong(1, ((Number) row.get("id")).longValue());
+                        ps.setBytes(2, encoded.bytes());
+                        ps.setBoolean(3, encoded.compressed());
+                    });
+            jdbc.batchUpdate("INSERT INTO exercise_instructions_copied (exercise_id, source_hash) VALUES (?, ?)",
+                    rows, rows.size(), (ps, row) -> {
+                        ps.setLong(1, ((Number) row.get("id")).longValue());
+                        ps.setString(2, hash((String) row.get("instructions")));
+                    });
+        });
+    }
+
+    static String hash(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE has SHA-256
+        }
+    }
+}
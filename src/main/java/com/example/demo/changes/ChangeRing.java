@@ -0,0 +1,60 @@
+package com.example.demo.changes;
+
+import com.example.demo.workout.WorkoutChangedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of one user's recent change events, numbered 1, 2, 3, ...
+ * - Writers claim a sequence number with one getAndIncrement and store into its slot; no locks.
+ * - Readers (subscribers) each keep their own cursor and read slots by sequence number, so one append
+ *   fans out to every subscriber and each of them sees a bounded buffer of the last `capacity` events.
+ * - A slot holding a newer sequence than the one asked for means the reader fell a full lap behind.
+ */
+final class ChangeRing {
+
+    record Entry(long seq, WorkoutChangedEvent event) {}
+
+    /** Returned by get() when the requested event was already overwritten. */
+    static final Entry OVERWRITTEN = new Entry(-1, null);
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong(1);
+
+    ChangeRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1; // next power of two
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    long append(WorkoutChangedEvent event) {
+        long seq = next.getAndIncrement();
+        slots.set((int) (seq & mask), new Entry(seq, event));
+        return seq;
+    }
+
+    /** The entry with this sequence, null if it isn't written yet, OVERWRITTEN if it's gone. */
+    Entry get(long seq) {
+        Entry e = slots.get((int) (seq & mask));
+        if (e == null || e.seq() < seq) {
+            return null; // claimed but not stored yet, or not claimed at all
+        }
+        return e.seq() == seq ? e : OVERWRITTEN;
+    }
+
+    /** Highest sequence handed out so far (0 = none). */
+    long lastSeq() {
+        return next.get() - 1;
+    }
+
+    /** Oldest sequence that may still be in the ring. */
+    long oldestSeq() {
+        return Math.max(1, lastSeq() - mask);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
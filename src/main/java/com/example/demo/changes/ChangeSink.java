@@ -0,0 +1,16 @@
+package com.example.demo.changes;
+
+import java.io.IOException;
+
+/**
+ * Where a subscriber's events go; SseEmitter in production (see WorkoutStreamController).
+ * Calls for one subscriber never overlap, except heartbeat() which the transport must tolerate.
+ */
+interface ChangeSink {
+
+    void event(String id, String name, Object data) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void close();
+}
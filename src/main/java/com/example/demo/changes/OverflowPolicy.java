@@ -0,0 +1,11 @@
+package com.example.demo.changes;
+
+/**
+ * What happens to a subscriber that falls more than workout.stream.buffer-size events behind.
+ */
+public enum OverflowPolicy {
+    /** Skip to the oldest buffered event and send a "resync" event so the client reloads the plan. */
+    DROP_OLDEST,
+    /** Close the stream; the client reconnects with Last-Event-ID (and gets a "resync" if that is gone too). */
+    DISCONNECT
+}
@@ -0,0 +1,305 @@
+package com.example.demo.changes;
+
+import com.example.demo.workout.WorkoutChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-user fan-out of WorkoutChangedEvents to live subscribers (GET /api/workout/{userId}/stream).
+ * - Every user with subscribers has a Topic: a ChangeRing plus a copy-on-write array of subscribers.
+ *   Publishing is an append and a wake-up per subscriber, no locks on that path.
+ * - Each subscriber is drained by at most one pool thread at a time (work-in-progress counter), so a
+ *   slow client only delays itself. Falling a full ring behind triggers the OverflowPolicy.
+ * - Best effort: events come from @EventListener in this JVM only, so writes handled by another
+ *   instance never reach these subscribers. Every fresh subscriber therefore starts with a "resync"
+ *   (reason "connected"): load the plan, then apply the events; refetch whenever a resync comes.
+ * - Event ids are "<epoch>-<seq>"; Last-Event-ID resumes from the ring if the events are still there
+ *   and this is the same process, otherwise the client gets a "resync" event.
+ * - Topics without subscribers are kept for workout.stream.retain-ms (so reconnects can resume), then dropped.
+ */
+@Component
+public class WorkoutChangeHub {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutChangeHub.class);
+
+    private static final Subscriber[] NONE = new Subscriber[0];
+
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int bufferSize;
+    private final OverflowPolicy overflow;
+    private final long retainMillis;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter slowDisconnects;
+
+    @Autowired
+    public WorkoutChangeHub(@Value("${workout.stream.buffer-size:256}") int bufferSize,
+                            @Value("${workout.stream.overflow:drop-oldest}") String overflow,
+                            @Value("${workout.stream.retain-ms:300000}") long retainMillis,
+                            @Value("${workout.stream.threads:4}") int threads,
+                            MeterRegistry registry) {
+        this(bufferSize, OverflowPolicy.valueOf(overflow.trim().replace('-', '_').toUpperCase(Locale.ROOT)),
+                retainMillis, newPool(threads), registry);
+    }
+
+    WorkoutChangeHub(int bufferSize, OverflowPolicy overflow, long retainMillis, Executor executor,
+                     MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.retainMillis = retainMillis;
+        this.executor = executor;
+        this.ownedExecutor = executor instanceof ExecutorService es ? es : null;
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        this.published = meters.counter("workout.stream.events");
+        this.dropped = meters.counter("workout.stream.dropped");
+        this.slowDisconnects = meters.counter("workout.stream.slow_disconnects");
+        Gauge.builder("workout.stream.subscribers", subscriberCount, AtomicInteger::get).register(meters);
+    }
+
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "workout-stream-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Topic topic : topics.values()) {
+            for (Subscriber s : topic.subscribers.get()) {
+                s.sink.close();
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onWorkoutChanged(WorkoutChangedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        Topic topic = topics.get(event.userId());
+        if (topic == null) {
+            return; // nobody listening and nobody to resume
+        }
+        topic.ring.append(event);
+        topic.lastActive = System.currentTimeMillis();
+        published.increment();
+        for (Subscriber s : topic.subscribers.get()) {
+            signal(s);
+        }
+    }
+
+    /**
+     * Registers a subscriber for the user's changes. lastEventId is the Last-Event-ID header of a
+     * reconnect (null for a fresh stream, which starts with a "resync" and then the next change).
+     */
+    public Subscription subscribe(String userId, String lastEventId, ChangeSink sink) {
+        Subscriber[] created = new Subscriber[1];
+        topics.compute(userId, (key, topic) -> {
+            Topic t = topic != null ? topic : new Topic(new ChangeRing(bufferSize));
+            Subscriber s = new Subscriber(t, sink);
+            s.cursor = resumeCursor(t.ring, lastEventId, s);
+            t.add(s);
+            t.lastActive = System.currentTimeMillis();
+            created[0] = s;
+            return t;
+        });
+        subscriberCount.incrementAndGet();
+        Subscriber s = created[0];
+        signal(s); // replays what was missed, if anything
+        return () -> remove(s);
+    }
+
+    private long resumeCursor(ChangeRing ring, String lastEventId, Subscriber s) {
+        long next = ring.lastSeq() + 1;
+        if (lastEventId == null || lastEventId.isBlank()) {
+            s.resyncReason = "connected"; // whatever the client loaded before may already miss other instances' writes
+            return next;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash > 0 && lastEventId.substring(0, dash).equals(epoch)) {
+            try {
+                long resumeFrom = Long.parseLong(lastEventId.substring(dash + 1)) + 1;
+                if (resumeFrom >= ring.oldestSeq() && resumeFrom <= next) {
+                    return resumeFrom;
+                }
+            } catch (NumberFormatException ignored) {
+                // fall through to resync
+            }
+        }
+        s.resyncReason = "resume-unavailable"; // different process, or the events are gone
+        return next;
+    }
+
+    /** Sends a heartbeat comment to every subscriber and forgets idle topics. */
+    @Scheduled(fixedDelayString = "${workout.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Topic> entry : topics.entrySet()) {
+            for (Subscriber s : entry.getValue().subscribers.get()) {
+                try {
+                    s.sink.heartbeat();
+                } catch (IOException | RuntimeException e) {
+                    remove(s);
+                }
+            }
+            topics.computeIfPresent(entry.getKey(), (key, t) ->
+                    t.subscribers.get().length == 0 && now - t.lastActive >= retainMillis ? null : t);
+        }
+    }
+
+    public int subscribers() {
+        return subscriberCount.get();
+    }
+
+    int topics() {
+        return topics.size();
+    }
+
+    private void signal(Subscriber s) {
+        if (s.wip.getAndIncrement() == 0) {
+            executor.execute(() -> drainLoop(s));
+        }
+    }
+
+    private void drainLoop(Subscriber s) {
+        int missed = 1;
+        do {
+            drain(s);
+            missed = s.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drain(Subscriber s) {
+        ChangeRing ring = s.topic.ring;
+        try {
+            String reason = s.resyncReason;
+            if (reason != null && !s.closed.get()) {
+                s.resyncReason = null;
+                s.sink.event(eventId(s.cursor - 1), "resync", Map.of("reason", reason));
+            }
+            while (!s.closed.get() && s.cursor <= ring.lastSeq()) {
+                ChangeRing.Entry e = ring.get(s.cursor);
+                if (e == null) {
+                    return; // the writer that claimed this slot signals again once it's stored
+                }
+                if (e == ChangeRing.OVERWRITTEN) {
+                    if (overflow == OverflowPolicy.DISCONNECT) {
+                        slowDisconnects.increment();
+                        remove(s);
+                        return;
+                    }
+                    long oldest = ring.oldestSeq();
+                    dropped.increment(oldest - s.cursor);
+                    s.cursor = oldest;
+                    s.sink.event(eventId(oldest - 1), "resync", Map.of("reason", "overflow"));
+                    continue;
+                }
+                s.sink.event(eventId(e.seq()), e.event().type().name().toLowerCase(Locale.ROOT), e.event());
+                s.cursor = e.seq() + 1;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Dropping workout stream subscriber: {}", ex.toString());
+            remove(s);
+        }
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private void remove(Subscriber s) {
+        if (!s.closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (s.topic.remove(s)) {
+            subscriberCount.decrementAndGet();
+        }
+        s.topic.lastActive = System.currentTimeMillis();
+        s.sink.close();
+    }
+
+    /** Handle returned to the transport; cancel() when the connection ends. */
+    @FunctionalInterface
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final class Topic {
+        final ChangeRing ring;
+        final AtomicReference<Subscriber[]> subscribers = new AtomicReference<>(NONE);
+        volatile long lastActive;
+
+        Topic(ChangeRing ring) {
+            this.ring = ring;
+        }
+
+        void add(Subscriber s) {
+            subscribers.updateAndGet(current -> {
+                Subscriber[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = s;
+                return next;
+            });
+        }
+
+        boolean remove(Subscriber s) {
+            Subscriber[] before = subscribers.getAndUpdate(current -> {
+                int i = Arrays.asList(current).indexOf(s);
+                if (i < 0) {
+                    return current;
+                }
+                Subscriber[] next = new Subscriber[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                return next;
+            });
+            return Arrays.asList(before).contains(s);
+        }
+    }
+
+    private static final class Subscriber {
+        final Topic topic;
+        final ChangeSink sink;
+        final AtomicInteger wip = new AtomicInteger();
+        long cursor;                     // only touched by the (single) draining thread after subscribe
+        volatile String resyncReason;    // a "resync" to send before anything else, null if none
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Topic topic, ChangeSink sink) {
+            this.topic = topic;
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.changes;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Server-sent events for one user's workout changes, instead of polling
+ * GET /api/workout/{userId}/{planName}/exercises. Event names: created, updated, deleted, resync.
+ * Browsers reconnect on their own and send Last-Event-ID, which resumes the stream.
+ * Best effort, and marked so with X-Stream-Delivery: only changes handled by the instance serving the
+ * stream are pushed (see WorkoutChangeHub). A stream opens with "resync": fetch the plan then, and again
+ * on every later "resync".
+ */
+@RestController
+@RequestMapping("/api/workout")
+public class WorkoutStreamController {
+
+    static final String DELIVERY_HEADER = "X-Stream-Delivery";
+
+    private final WorkoutChangeHub hub;
+    private final long timeoutMillis;
+
+    public WorkoutStreamController(WorkoutChangeHub hub,
+                                   @Value("${workout.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.hub = hub;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @GetMapping(path = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String userId,
+                                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        WorkoutChangeHub.Subscription subscription = hub.subscribe(userId, lastEventId, new SseSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return ResponseEntity.ok().header(DELIVERY_HEADER, "best-effort").body(emitter);
+    }
+
+    private record SseSink(SseEmitter emitter) implements ChangeSink {
+
+        @Override
+        public void event(String id, String name, Object data) throws IOException {
+            emitter.send(SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
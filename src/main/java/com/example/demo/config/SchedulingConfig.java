@@ -0,0 +1,12 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled for background housekeeping (e.g. evicting idle rate limit buckets).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
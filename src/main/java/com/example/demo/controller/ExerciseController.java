@@ -2,6 +2,7 @@ package com.example.demo.controller;
 
 import com.example.demo.model.ExerciseEntity;
 import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.singleflight.SingleFlight;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,9 +25,13 @@ public class ExerciseController {
     }
 
     // Get exercise details by name
+    // @SingleFlight: many clients asking for the same popular exercise at once share one DB query.
+    // The shared result is an immutable list of detached copies: the leader's managed entities belong
+    // to its own persistence context and must not leak into the followers' threads.
+    @SingleFlight("exercises.byName")
     @GetMapping("/exercises/{name}")
-    List<ExerciseEntity> getExerciseByName(@PathVariable String name) {
-        return repository.findByName(name);
+    public List<ExerciseEntity> getExerciseByName(@PathVariable String name) {
+        return repository.findByName(name).stream().map(ExerciseEntity::detachedCopy).toList();
     }
 
     // Inserts a new row into exercises table
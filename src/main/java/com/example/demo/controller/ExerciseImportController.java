@@ -0,0 +1,44 @@
+package com.example.demo.controller;
+
+import com.example.demo.catalog.ExerciseImporter;
+import com.example.demo.catalog.ImportFormat;
+import com.example.demo.catalog.ImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class ExerciseImportController {
+
+    private final ExerciseImporter importer;
+
+    public ExerciseImportController(ExerciseImporter importer) {
+        this.importer = importer;
+    }
+
+    // Bulk import/refresh of the exercise catalog
+    // Body is the raw file: text/csv (with a header row) or a JSON array of exercises
+    // Streams the request body straight into the parser, so very large catalogs are fine
+    // Rows whose name already exists are updated, new names are inserted
+    @PostMapping(value = "/exercises/import", consumes = {"text/csv", "application/json"})
+    public ImportReport importCatalog(InputStream body,
+                                      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                      @RequestParam(required = false) Integer batchSize) throws IOException {
+        try {
+            return importer.importCatalog(body, ImportFormat.detect(contentType), batchSize);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            // the schema isn't ready for it (see ExerciseImporter)
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (JsonProcessingException e) {
+            // body isn't JSON/CSV at all (malformed rows further in are reported in the ImportReport)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed input: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.ExerciseInstructionsRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+public class ExerciseInstructionsController {
+
+    public record Instructions(Long exerciseId, String instructions) {}
+
+    private final ExerciseInstructionsRepository repository;
+
+    public ExerciseInstructionsController(ExerciseInstructionsRepository repository) {
+        this.repository = repository;
+    }
+
+    // Get an exercise's instructions, which the exercise lists and name lookups leave out
+    // 404 when the exercise doesn't exist or was saved without instructions
+    @GetMapping("/exercises/{id}/instructions")
+    public Instructions get(@PathVariable Long id) {
+        return repository.findById(id)
+                .map(i -> new Instructions(i.getExerciseId(), i.getText()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No instructions for exercise " + id));
+    }
+}
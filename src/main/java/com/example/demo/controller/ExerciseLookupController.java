@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.catalog.ExerciseBatchLookup;
+import com.example.demo.model.ExerciseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class ExerciseLookupController {
+
+    private final ExerciseBatchLookup lookup;
+
+    public ExerciseLookupController(ExerciseBatchLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    // Get exercise details for many names in one call, instead of one GET /exercises/{name} each
+    // Body is a JSON array of names; response maps each name (in request order) to its exercises
+    // Capped at catalog.batch-lookup.max-names names (400 above that)
+    @PostMapping("/exercises/lookup")
+    public Map<String, List<ExerciseEntity>> lookup(@RequestBody List<String> names) {
+        try {
+            return lookup.findByNames(names);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
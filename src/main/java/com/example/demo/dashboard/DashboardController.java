@@ -0,0 +1,26 @@
+package com.example.demo.dashboard;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboard;
+
+    public DashboardController(DashboardService dashboard) {
+        this.dashboard = dashboard;
+    }
+
+    // profile + plan names + today's exercises with their catalog details, in one call
+    // day defaults to today on the server ("Mon", "Tue", ...); clients in other time zones should pass it
+    @GetMapping("/{userId}")
+    public DashboardResponse get(@PathVariable String userId, @RequestParam(required = false) String day) {
+        String d = day != null ? day : LocalDate.now().getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+        return dashboard.load(userId, d);
+    }
+}
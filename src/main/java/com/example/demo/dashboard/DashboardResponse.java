@@ -0,0 +1,27 @@
+package com.example.demo.dashboard;
+
+import com.example.demo.model.ExerciseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the dashboard screen needs in one response.
+ * Branches that failed or ran out of time are null and listed in unavailable (branch -> "timeout" | "error"),
+ * so the client can still render the rest.
+ */
+public record DashboardResponse(
+        Profile profile,
+        List<String> plans,
+        String day,
+        List<TodayExercise> today,
+        Map<String, String> unavailable,
+        long elapsedMillis
+) {
+
+    // no password here, unlike the User entity
+    public record Profile(Long id, String name, String email) {}
+
+    // details is null when the exercise isn't in the catalog or the details lookup failed
+    public record TodayExercise(String plan, String name, int sets, int reps, ExerciseEntity details) {}
+}
@@ -0,0 +1,188 @@
+package com.example.demo.dashboard;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.replica.RoutingContext;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.user.UserRepository;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads the dashboard with concurrent repository calls instead of 1 + N sequential requests.
+ * - profile, plan names and today's workouts run in parallel on a bounded pool;
+ *   exercise details start as soon as today's workouts are known, as one IN query.
+ * - Every branch must finish within dashboard.branch-timeout-ms of the request start, so the
+ *   response takes as long as the slowest branch (capped), not the sum of all of them.
+ * - A failed, timed-out or rejected branch (pool and queue full) is reported, the rest is returned.
+ * - A timed-out branch is also stopped: its worker is interrupted, and its queries carry a
+ *   jakarta.persistence.query.timeout of the budget left, so the database cancels them as well
+ *   (JDBC drivers round that up to whole seconds).
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private final UserRepository users;
+    private final WorkoutRepository workouts;
+    private final ExerciseRepository exercises;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+    private final long branchTimeoutMillis;
+
+    public DashboardService(UserRepository users, WorkoutRepository workouts, ExerciseRepository exercises,
+                            EntityManager entityManager, PlatformTransactionManager txManager,
+                            @Value("${dashboard.threads:16}") int threads,
+                            @Value("${dashboard.queue-capacity:200}") int queueCapacity,
+                            @Value("${dashboard.branch-timeout-ms:500}") long branchTimeoutMillis) {
+        this.users = users;
+        this.workouts = workouts;
+        this.exercises = exercises;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.branchTimeoutMillis = branchTimeoutMillis;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "dashboard-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public DashboardResponse load(String userId, String day) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(branchTimeoutMillis);
+
+        CompletableFuture<DashboardResponse.Profile> profile = submit(() -> profile(userId), deadline);
+        CompletableFuture<List<String>> plans = submit(() -> workouts.findPlanNamesByUserId(userId), deadline);
+        CompletableFuture<List<Workout>> today = submit(() -> workouts.findByUserIdAndDay(userId, day), deadline);
+        // submitted as soon as today's query is done, from whatever thread that is, with the request's pin
+        boolean pinned = RoutingContext.isPinnedToPrimary();
+        CompletableFuture<Map<String, ExerciseEntity>> details = today.thenCompose(rows ->
+                submit(() -> RoutingContext.callAs(pinned, () -> details(rows)), deadline));
+
+        // deadlines are relative to the request start, so waiting on them one after another costs max(), not sum()
+        Map<String, String> unavailable = new LinkedHashMap<>();
+        DashboardResponse.Profile p = await("profile", profile, unavailable);
+        List<String> planNames = await("plans", plans, unavailable);
+        List<Workout> todayRows = await("today", today, unavailable);
+        Map<String, ExerciseEntity> byName = todayRows == null ? null : await("exerciseDetails", details, unavailable);
+
+        List<DashboardResponse.TodayExercise> todayExercises = todayRows == null ? null : todayRows.stream()
+                .map(w -> new DashboardResponse.TodayExercise(w.getWorkoutPlanName(), w.getExerciseName(), w.getSets(),
+                        w.getReps(), byName == null ? null : byName.get(w.getExerciseName())))
+                .toList();
+        return new DashboardResponse(p, planNames, day, todayExercises, unavailable,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private DashboardResponse.Profile profile(String userId) {
+        Long id;
+        try {
+            id = Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            return null; // workout user ids are free text; only numeric ones map to a users row
+        }
+        return users.findById(id)
+                .map(u -> new DashboardResponse.Profile(u.getId(), u.getName(), u.getEmail()))
+                .orElse(null);
+    }
+
+    private Map<String, ExerciseEntity> details(List<Workout> rows) {
+        Set<String> names = new LinkedHashSet<>();
+        rows.forEach(w -> names.add(w.getExerciseName()));
+        // same matching as findByName on a case-insensitive collation
+        Map<String, ExerciseEntity> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (!names.isEmpty()) {
+            for (ExerciseEntity e : exercises.findByNameIn(names)) {
+                byName.putIfAbsent(e.getName(), e);
+            }
+        }
+        return byName;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> branch, long deadline) {
+        // pool threads don't inherit the request's read-your-writes pin, so hand it over
+        Supplier<T> task = RoutingContext.propagate(branch);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(withQueryTimeout(deadline, task));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // orTimeout only completes the future; the worker has to be stopped separately
+        result.orTimeout(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .whenComplete((value, e) -> {
+                    if (e instanceof TimeoutException) {
+                        running.cancel(true);
+                    }
+                });
+        return result;
+    }
+
+    private <T> T withQueryTimeout(long deadline, Supplier<T> branch) throws TimeoutException {
+        long leftMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (leftMillis <= 0) {
+            throw new TimeoutException("branch budget spent in the queue");
+        }
+        // read-only like the repository methods themselves; the hint applies to every query of the transaction
+        return readOnlyTx.execute(status -> {
+            entityManager.setProperty(QUERY_TIMEOUT_HINT, Math.toIntExact(leftMillis));
+            return branch.get();
+        });
+    }
+
+    private <T> T await(String branch, CompletableFuture<T> future, Map<String, String> unavailable) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            unavailable.put(branch, cause instanceof TimeoutException ? "timeout" : "error");
+            log.warn("Dashboard branch {} unavailable: {}", branch, cause.toString());
+            return null;
+        }
+    }
+}
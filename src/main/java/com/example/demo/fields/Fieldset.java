@@ -0,0 +1,58 @@
+package com.example.demo.fields;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The list resources that support ?fields=, with their selectable fields in response order.
+ * Field names are the JSON names, which are also the JPA attribute names.
+ * Masked fields are never selected from the database; the mask is written in their place.
+ */
+public enum Fieldset {
+    // instructions are not a column of exercises any more (GET /exercises/{id}/instructions)
+    EXERCISE("ExerciseEntity", List.of("id", "name", "type", "muscle", "equipment", "difficulty"), Set.of()),
+    WORKOUT("Workout", List.of("id", "userId", "workoutPlanName", "exerciseName", "day", "sets", "reps", "version"),
+            Set.of()),
+    USER("User", List.of("id", "name", "email", "password"), Set.of("password"));
+
+    final String entity;
+    final List<String> fields;
+    final Set<String> masked;
+
+    Fieldset(String entity, List<String> fields, Set<String> masked) {
+        this.entity = entity;
+        this.fields = fields;
+        this.masked = masked;
+    }
+
+    /**
+     * "name, muscle" -> [id, name, muscle]: id is always included, order and duplicates don't matter
+     * (the result is in declaration order, so equal selections produce the same query).
+     * @throws IllegalArgumentException for an empty selection or an unknown field
+     */
+    public List<String> select(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String f : fields.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!this.fields.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected some of " + this.fields);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + this.fields);
+        }
+        List<String> selected = new ArrayList<>();
+        for (String name : this.fields) {
+            if (name.equals("id") || requested.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+}
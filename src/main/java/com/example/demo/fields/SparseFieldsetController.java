@@ -0,0 +1,54 @@
+package com.example.demo.fields;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ?fields= on the list endpoints, e.g. GET /exercises?fields=name,muscle for a picker.
+ * The mappings only match when the parameter is present, so the plain lists in ExerciseController,
+ * WorkoutController and UserController are unchanged. id is always included.
+ */
+@RestController
+public class SparseFieldsetController {
+
+    private final SparseFieldsetQuery query;
+
+    public SparseFieldsetController(SparseFieldsetQuery query) {
+        this.query = query;
+    }
+
+    @GetMapping(path = "/exercises", params = "fields")
+    public SparseRows exercises(@RequestParam String fields) {
+        return find(Fieldset.EXERCISE, fields);
+    }
+
+    @GetMapping(path = "/api/workout", params = "fields")
+    public SparseRows workouts(@RequestParam String fields) {
+        try {
+            return find(Fieldset.WORKOUT, fields);
+        } catch (RejectedExecutionException e) { // sharded storage: the cross-shard query pool is full
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @GetMapping(path = "/api/users", params = "fields")
+    public SparseRows users(@RequestParam String fields) {
+        return find(Fieldset.USER, fields);
+    }
+
+    private SparseRows find(Fieldset fieldset, String fields) {
+        List<String> columns;
+        try {
+            columns = fieldset.select(fields);
+        } catch (IllegalArgumentException e) { // unknown field: the caller's mistake, not a query failure
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return query.findAll(fieldset, columns);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.fields;
+
+import com.example.demo.shard.ShardedWorkoutRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Loads only the selected columns: "select e.id, e.name from ExerciseEntity e order by e.id" as a tuple
+ * query, so neither Hibernate nor the driver ever see the other columns and no entities are managed.
+ * The JPQL is built from whitelisted attribute names in a fixed order, so every distinct selection is
+ * one entry in Hibernate's query plan cache.
+ * With workout.sharding.enabled=true workouts are not in the main database: the WORKOUT fieldset goes to
+ * ShardedWorkoutRepository.findAllColumns instead, the same columns selected on every shard.
+ */
+@Repository
+public class SparseFieldsetQuery {
+
+    private final EntityManager em;
+    private final ObjectProvider<ShardedWorkoutRepository> sharded;
+
+    public SparseFieldsetQuery(EntityManager em, ObjectProvider<ShardedWorkoutRepository> sharded) {
+        this.em = em;
+        this.sharded = sharded;
+    }
+
+    @Transactional(readOnly = true)
+    public SparseRows findAll(Fieldset fieldset, List<String> fields) {
+        StringJoiner select = new StringJoiner(", ", "select ", " from " + fieldset.entity + " e order by e.id");
+        List<String> columns = new ArrayList<>();
+        boolean[] masked = new boolean[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            masked[i] = fieldset.masked.contains(fields.get(i));
+            if (!masked[i]) {
+                select.add("e." + fields.get(i));
+                columns.add(column(fields.get(i)));
+            }
+        }
+        ShardedWorkoutRepository shards = fieldset == Fieldset.WORKOUT ? sharded.getIfAvailable() : null;
+        if (shards != null) {
+            return new SparseRows(fields, masked, shards.findAllColumns(columns));
+        }
+        List<Tuple> tuples = em.createQuery(select.toString(), Tuple.class).getResultList();
+        List<Object[]> rows = new ArrayList<>(tuples.size());
+        for (Tuple t : tuples) {
+            rows.add(t.toArray());
+        }
+        return new SparseRows(fields, masked, rows);
+    }
+
+    // workoutPlanName -> workout_plan_name, the physical naming Spring Boot configures for Hibernate
+    static String column(String field) {
+        return field.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.fields;
+
+import com.example.demo.json.MaskedSerializer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Rows of a ?fields= query: column values in the order of `fields`, written as a JSON array of objects
+ * straight from the arrays (no per-row maps or entities). Masked fields have no column and get the mask.
+ */
+@JsonSerialize(using = SparseRows.Serializer.class)
+public record SparseRows(List<String> fields, boolean[] masked, List<Object[]> rows) {
+
+    public static final class Serializer extends StdSerializer<SparseRows> {
+
+        public Serializer() {
+            super(SparseRows.class);
+        }
+
+        @Override
+        public void serialize(SparseRows value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            List<String> fields = value.fields();
+            gen.writeStartArray();
+            for (Object[] row : value.rows()) {
+                gen.writeStartObject();
+                for (int i = 0, column = 0; i < fields.size(); i++) {
+                    gen.writeFieldName(fields.get(i));
+                    if (value.masked()[i]) {
+                        gen.writeString(MaskedSerializer.MASK);
+                    } else {
+                        provider.defaultSerializeValue(row[column++], gen);
+                    }
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
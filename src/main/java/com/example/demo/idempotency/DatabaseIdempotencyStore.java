@@ -0,0 +1,80 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.jfr.CacheLookupEvent;
+import com.example.demo.replica.RoutingContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * In-memory store backed by the idempotency_keys table.
+ * Hits are served from memory; the table is only read on a local miss (e.g. the retry hit another dyno),
+ * and always on the primary: a lagging replica could miss the stored response and run the request twice.
+ * Claims are pending rows inserted before the request runs, so only one instance executes a key; a claim
+ * left behind by an instance that died expires after idempotency.claim-timeout.
+ */
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final InMemoryIdempotencyStore memory;
+    private final IdempotencyRecordRepository repo;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public DatabaseIdempotencyStore(InMemoryIdempotencyStore memory, IdempotencyRecordRepository repo, Duration ttl,
+                                    Duration claimTimeout) {
+        this.memory = memory;
+        this.repo = repo;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Optional<StoredResponse> local = memory.find(key);
+        if (local.isPresent()) {
+            return local;
+        }
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Optional<StoredResponse> stored = RoutingContext.callAs(true, () -> repo.findById(key))
+                .filter(r -> !r.isPending() && r.getExpiresAt().isAfter(Instant.now()))
+                .map(r -> {
+                    StoredResponse response = r.toResponse();
+                    memory.put(key, response);
+                    return response;
+                });
+        event.end("idempotency.database", stored.isPresent());
+        return stored;
+    }
+
+    @Override
+    public void put(String key, StoredResponse response) {
+        memory.put(key, response);
+        // turns our pending claim into the stored response
+        repo.save(new IdempotencyRecord(key, response, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public boolean claim(String key, String requestHash) {
+        Instant now = Instant.now();
+        repo.deleteExpiredClaim(key, now);
+        try {
+            return repo.insertClaim(key, requestHash, now.plus(claimTimeout)) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false; // claimed (or answered) by someone else
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        repo.deleteClaim(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.sweep-interval:PT10M}")
+    public void deleteExpired() {
+        repo.deleteExpired(Instant.now());
+    }
+}
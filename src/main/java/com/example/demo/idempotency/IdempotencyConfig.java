@@ -0,0 +1,42 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires Idempotency-Key handling for the POST endpoints listed in idempotency.paths.
+ * idempotency.store=database additionally keeps responses in the idempotency_keys table.
+ * idempotency.enabled switches the filter registration at startup (not @ConditionalOnProperty, which the
+ * AOT image would have fixed at build time).
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties props, IdempotencyRecordRepository repo) {
+        InMemoryIdempotencyStore memory = new InMemoryIdempotencyStore(props.getMaxEntries(), props.getTtl());
+        if (props.getStore() == IdempotencyProperties.StoreType.DATABASE) {
+            return new DatabaseIdempotencyStore(memory, repo, props.getTtl(), props.getClaimTimeout());
+        }
+        return memory;
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyProperties props,
+            IdempotencyStore store, @Value("${ratelimit.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        // keys are per caller, identified the same way as for rate limiting
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, new ClientKeyResolver(trustForwardedFor), props.getWaitTimeout()));
+        registration.setUrlPatterns(props.getPaths());
+        registration.setEnabled(props.isEnabled());
+        // after rate limiting, so a shed request never claims a key
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
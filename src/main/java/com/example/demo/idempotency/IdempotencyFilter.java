@@ -0,0 +1,240 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key support for POST endpoints.
+ * - First request with a key runs normally; its response (anything below 500) is stored.
+ * - A retry with the same key gets the stored response back (header Idempotent-Replayed: true).
+ * - A duplicate that arrives while the first is still running waits for it instead of re-executing.
+ * - Same key with a different body -> 422, key still running after waitTimeout -> 409.
+ * - Before running, the key is claimed in the store, so a duplicate on another instance (database
+ *   store) waits for the claimer too; a failed first attempt releases the claim for the next retry.
+ * Keys are scoped by caller (ClientKeyResolver) and path, so one client's key can never replay another
+ * client's or another endpoint's response.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    // how often a duplicate checks on a key claimed by another instance
+    private static final long CLAIM_POLL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final ClientKeyResolver clientKeys;
+    private final long waitTimeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, ClientKeyResolver clientKeys, Duration waitTimeout) {
+        this.store = store;
+        this.clientKeys = clientKeys;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(HEADER);
+        return !"POST".equals(request.getMethod()) || key == null || key.isBlank();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String header = req.getHeader(HEADER).trim();
+        if (header.length() > MAX_KEY_LENGTH) {
+            res.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " is too long");
+            return;
+        }
+        // hashed: caller + path + key can be longer than the idem_key column
+        String key = sha256((clientKeys.resolve(req) + '\n' + req.getRequestURI() + '\n' + header)
+                .getBytes(StandardCharsets.UTF_8));
+        CachedBodyRequest request = new CachedBodyRequest(req);
+        String hash = sha256(request.body);
+        long claimDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+
+        while (true) {
+            Optional<StoredResponse> done = store.find(key);
+            if (done.isPresent()) {
+                replay(done.get(), hash, res);
+                return;
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                if (store.claim(key, hash)) {
+                    executeAndStore(key, hash, request, res, chain, mine);
+                    return;
+                }
+                // another instance is running it: step aside, then look again
+                inFlight.remove(key, mine);
+                mine.complete(null);
+                if (System.nanoTime() - claimDeadline >= 0) {
+                    res.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still in progress");
+                    return;
+                }
+                try {
+                    Thread.sleep(CLAIM_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException(e);
+                }
+                continue;
+            }
+
+            StoredResponse first;
+            try {
+                first = running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                res.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still in progress");
+                return;
+            } catch (ExecutionException e) {
+                first = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+            if (first != null) {
+                replay(first, hash, res);
+                return;
+            }
+            // the first attempt failed (5xx/exception) and stored nothing: loop and run it ourselves
+        }
+    }
+
+    private void executeAndStore(String key, String hash, HttpServletRequest request, HttpServletResponse res,
+                                 FilterChain chain, CompletableFuture<StoredResponse> mine)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(res);
+        StoredResponse stored = null;
+        boolean kept = false;
+        try {
+            chain.doFilter(request, wrapped);
+            if (wrapped.getStatus() < 500) {
+                stored = new StoredResponse(wrapped.getStatus(), wrapped.getContentType(),
+                        wrapped.getHeader(HttpHeaders.LOCATION), wrapped.getContentAsByteArray(), hash);
+                try {
+                    store.put(key, stored);
+                    kept = true;
+                } catch (RuntimeException e) {
+                    // losing the stored copy only costs us dedup for this key; don't fail the request
+                    log.warn("Could not store idempotent response for key {}", key, e);
+                }
+            }
+        } finally {
+            if (!kept) {
+                release(key);
+            }
+            inFlight.remove(key, mine);
+            mine.complete(stored);
+            wrapped.copyBodyToResponse();
+        }
+    }
+
+    // nothing stored (5xx, exception, store down): let the next retry run it
+    private void release(String key) {
+        try {
+            store.release(key);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency claim for key {}; it frees up when the claim expires", key, e);
+        }
+    }
+
+    private static void replay(StoredResponse stored, String hash, HttpServletResponse res) throws IOException {
+        if (stored.requestHash() != null && !stored.requestHash().equals(hash)) {
+            res.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), HEADER + " was already used with a different request body");
+            return;
+        }
+        res.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            res.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            res.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        res.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null && stored.body().length > 0) {
+            res.setContentLength(stored.body().length);
+            res.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Reads the (small JSON) body once so we can hash it and still hand it to the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) {
+                    // the whole body is in memory already: it is available now and then fully read
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings under "idempotency.*" (see application.properties).
+ */
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    public enum StoreType { MEMORY, DATABASE }
+
+    private boolean enabled = true;
+    private StoreType store = StoreType.MEMORY;
+    private Duration ttl = Duration.ofHours(24);
+    private int maxEntries = 10_000;
+    // how long a duplicate waits for the first request before giving up with 409
+    private Duration waitTimeout = Duration.ofSeconds(30);
+    // database store: how long a claim holds a key if its instance never finishes the request
+    private Duration claimTimeout = Duration.ofMinutes(2);
+    private List<String> paths = new ArrayList<>(List.of("/api/users", "/exercises", "/api/workout/add-exercise"));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public StoreType getStore() { return store; }
+    public void setStore(StoreType store) { this.store = store; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public Duration getWaitTimeout() { return waitTimeout; }
+    public void setWaitTimeout(Duration waitTimeout) { this.waitTimeout = waitTimeout; }
+
+    public Duration getClaimTimeout() { return claimTimeout; }
+    public void setClaimTimeout(Duration claimTimeout) { this.claimTimeout = claimTimeout; }
+
+    public List<String> getPaths() { return paths; }
+    public void setPaths(List<String> paths) { this.paths = paths; }
+}
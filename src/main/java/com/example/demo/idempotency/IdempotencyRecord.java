@@ -0,0 +1,78 @@
+package com.example.demo.idempotency;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Row in idempotency_keys. Only used when idempotency.store=database,
+ * so retries that land on another instance still get the stored response.
+ * A row with status 0 is a claim: the request is still running somewhere (until expires_at).
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "ix_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    public static final int PENDING = 0;
+
+    @Id
+    @Column(name = "idem_key", length = 320)
+    private String key;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    private String location;
+
+    @Lob
+    @Column(length = 16_777_215)
+    private byte[] body;
+
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, StoredResponse response, Instant expiresAt) {
+        this.key = key;
+        this.status = response.status();
+        this.contentType = response.contentType();
+        this.location = response.location();
+        this.body = response.body();
+        this.requestHash = response.requestHash();
+        this.expiresAt = expiresAt;
+    }
+
+    public StoredResponse toResponse() {
+        return new StoredResponse(status, contentType, location, body, requestHash);
+    }
+
+    public boolean isPending() { return status == PENDING; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public byte[] getBody() { return body; }
+    public void setBody(byte[] body) { this.body = body; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // bulk delete, so the sweep doesn't load every expired row first
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    // plain INSERT (not save(), which would merge into a row someone else holds): fails on a taken key.
+    // status 0 = IdempotencyRecord.PENDING
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idem_key, status, request_hash, expires_at)"
+            + " VALUES (:key, 0, :hash, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("key") String key, @Param("hash") String requestHash, @Param("expiresAt") Instant expiresAt);
+
+    // a claim whose instance died before finishing
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.status = 0 and r.expiresAt < :now")
+    int deleteExpiredClaim(@Param("key") String key, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.status = 0")
+    int deleteClaim(@Param("key") String key);
+}
@@ -0,0 +1,25 @@
+package com.example.demo.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Where finished responses are kept until their TTL runs out.
+ */
+public interface IdempotencyStore {
+
+    Optional<StoredResponse> find(String key);
+
+    void put(String key, StoredResponse response);
+
+    /**
+     * Reserves the key before the request runs; false if someone else holds it. Stores that live in one
+     * process don't need this (the filter's in-flight map already serialises duplicates there).
+     */
+    default boolean claim(String key, String requestHash) {
+        return true;
+    }
+
+    /** Gives up a claim that never got a response stored. */
+    default void release(String key) {
+    }
+}
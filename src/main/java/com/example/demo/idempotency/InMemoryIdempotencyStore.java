@@ -0,0 +1,71 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.jfr.CacheLookupEvent;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-evicted store kept on the heap.
+ * - Entries are kept in insertion order; since every entry gets the same TTL, the oldest entry is
+ *   always the first to expire, so expiry and the size cap both just trim from the head.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Entry(StoredResponse response, long expiresAtNanos) {}
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Optional<StoredResponse> found = lookup(key);
+        event.end("idempotency", found.isPresent());
+        return found;
+    }
+
+    private synchronized Optional<StoredResponse> lookup(String key) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (now - entry.expiresAtNanos() > 0) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.response());
+    }
+
+    @Override
+    public synchronized void put(String key, StoredResponse response) {
+        long now = System.nanoTime();
+        entries.remove(key); // re-insert at the tail so order stays = expiry order
+        entries.put(key, new Entry(response, now + ttlNanos));
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> head = it.next();
+            if (entries.size() > maxEntries || now - head.getValue().expiresAtNanos() > 0) {
+                it.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.idempotency;
+
+/**
+ * What we remember about the first response for an Idempotency-Key, so retries get the same answer.
+ * requestHash lets us spot a client reusing a key for a different request body.
+ */
+public record StoredResponse(int status, String contentType, String location, byte[] body, String requestHash) {}
@@ -0,0 +1,37 @@
+package com.example.demo.jdbc;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Locale;
+
+/**
+ * The databases we write vendor-specific SQL for (native upserts, bulk inserts).
+ * Everything else gets the portable code path.
+ */
+public enum SqlDialect {
+    MYSQL, H2, OTHER;
+
+    /** Asks the driver which database this is; opens one connection. */
+    public static SqlDialect of(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return fromProductName(product);
+        } catch (MetaDataAccessException e) {
+            return OTHER;
+        }
+    }
+
+    static SqlDialect fromProductName(String product) {
+        String name = product == null ? "" : product.toLowerCase(Locale.ROOT);
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (name.equals("h2")) {
+            return H2;
+        }
+        return OTHER;
+    }
+}
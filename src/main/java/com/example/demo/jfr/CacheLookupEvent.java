@@ -0,0 +1,34 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup in one of the in-process caches (idempotency store, exercise name index).
+ * Usage: begin(), look up, then end(cache, hit) which commits if the event is being recorded.
+ */
+@Name("com.example.demo.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Demo", "Cache"})
+@Description("A lookup in an in-process cache")
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Hit")
+    boolean hit;
+
+    public void end(String cache, boolean hit) {
+        if (shouldCommit()) {
+            this.cache = cache;
+            this.hit = hit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.jfr;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Custom JFR events (category "Demo"): one per request, repository call and cache lookup. They cost
+ * next to nothing unless a recording enables them, either POST /api/admin/jfr/start or a recording
+ * started with -XX:StartFlightRecording / jcmd JFR.start (enabled by default there too).
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public FilterRegistrationBean<JfrRequestFilter> jfrRequestFilter() {
+        FilterRegistrationBean<JfrRequestFilter> registration = new FilterRegistrationBean<>(new JfrRequestFilter());
+        registration.addUrlPatterns("/*");
+        // right after first-request timing, so the event covers rate limiting and the rest of the chain
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
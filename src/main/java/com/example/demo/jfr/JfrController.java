@@ -0,0 +1,73 @@
+package com.example.demo.jfr;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * On-demand profiling, e.g. record two minutes of a load test and open it in JDK Mission Control:
+ * POST /api/admin/jfr/start?durationSeconds=120, run the load, then
+ * curl -X POST -H "X-Admin-Token: $ADMIN_TOKEN" -o app.jfr /api/admin/jfr/stop
+ * Every request needs the admin token (AdminTokenFilter); without admin.token set these endpoints are off.
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class JfrController {
+
+    private final JfrRecordingService service;
+
+    public JfrController(JfrRecordingService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public JfrRecordingService.Status status() {
+        return service.status();
+    }
+
+    // 409 while another recording runs; duration and size are capped by jfr.max-duration-ms / jfr.max-size-mb
+    @PostMapping("/start")
+    @ResponseStatus(HttpStatus.CREATED)
+    public JfrRecordingService.Status start(@RequestParam(defaultValue = "60") long durationSeconds,
+                                            @RequestParam(defaultValue = "100") long maxSizeMb,
+                                            @RequestParam(defaultValue = "default") String settings,
+                                            @RequestParam(defaultValue = "0") long thresholdMs) {
+        try {
+            return service.start(Duration.ofSeconds(durationSeconds), maxSizeMb * 1024 * 1024, settings, thresholdMs);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // stops the running recording and streams it; with none running, the last finished one
+    @PostMapping("/stop")
+    public ResponseEntity<Resource> stop() {
+        return download(service.stop()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No recording")));
+    }
+
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> recording() {
+        return download(service.lastRecording()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No finished recording")));
+    }
+
+    private static ResponseEntity<Resource> download(Path file) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One on-demand JFR recording at a time, bounded in duration and size so a forgotten recording
+ * stops by itself. The recording is written to a temp file when it stops (on POST /stop or when
+ * the duration runs out); the last finished file is kept until the next recording starts.
+ * The JVM's system properties and environment variables (passwords, API keys) are left out of the file.
+ */
+@Service
+public class JfrRecordingService {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    // events the stock settings enable that would copy the process's secrets into the recording
+    static final String[] SENSITIVE_EVENTS = {"jdk.InitialSystemProperty", "jdk.InitialEnvironmentVariable"};
+
+    public record Status(String state, Instant startedAt, Duration duration, long maxSizeBytes,
+                         String settings, long thresholdMs, long lastRecordingBytes) {}
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private Instant startedAt;
+    private String settings;
+    private long thresholdMs;
+    private Path file;
+    private Path lastFile;
+
+    public JfrRecordingService(@Value("${jfr.max-duration-ms:600000}") long maxDurationMs,
+                               @Value("${jfr.max-size-mb:200}") long maxSizeMb) {
+        this.maxDuration = Duration.ofMillis(maxDurationMs);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * @param settings   "default" (~1% overhead, fine in production) or "profile" (more detail, more overhead)
+     * @param thresholdMs only record our events that took at least this long; 0 records all of them
+     * @throws IllegalStateException    if a recording is already running
+     * @throws IllegalArgumentException for unknown settings
+     */
+    public synchronized Status start(Duration duration, long sizeBytes, String settings, long thresholdMs) {
+        finishIfStopped();
+        if (recording != null) {
+            throw new IllegalStateException("A recording is already running since " + startedAt);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+        Duration bounded = duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0
+                ? maxDuration : duration;
+        long boundedSize = sizeBytes <= 0 || sizeBytes > maxSizeBytes ? maxSizeBytes : sizeBytes;
+
+        deleteLast();
+        Recording r = new Recording(withoutSensitiveEvents(configuration));
+        try {
+            Path target = Files.createTempFile("demo-recording-", ".jfr");
+            Duration threshold = Duration.ofMillis(Math.max(0, thresholdMs));
+            r.enable(RequestEvent.class).withThreshold(threshold);
+            r.enable(RepositoryCallEvent.class).withThreshold(threshold);
+            r.enable(CacheLookupEvent.class).withThreshold(threshold);
+            r.setName("demo-on-demand");
+            r.setToDisk(true);
+            r.setDuration(bounded);
+            r.setMaxSize(boundedSize);
+            r.setDestination(target);
+            r.start();
+            this.file = target;
+        } catch (IOException e) {
+            r.close();
+            throw new UncheckedIOException(e);
+        }
+        this.recording = r;
+        this.startedAt = Instant.now();
+        this.settings = settings;
+        this.thresholdMs = Math.max(0, thresholdMs);
+        log.info("JFR recording started: settings={}, duration={}, maxSize={} bytes, threshold={} ms",
+                settings, bounded, boundedSize, this.thresholdMs);
+        return status();
+    }
+
+    /** Stops the running recording (if any) and returns the file of the last finished one. */
+    public synchronized Optional<Path> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop(); // writes the destination file
+            log.info("JFR recording stopped after {}", Duration.between(startedAt, Instant.now()));
+        }
+        finishIfStopped();
+        return lastRecording();
+    }
+
+    public synchronized Optional<Path> lastRecording() {
+        finishIfStopped();
+        return Optional.ofNullable(lastFile).filter(Files::isRegularFile);
+    }
+
+    public synchronized Status status() {
+        finishIfStopped();
+        long lastBytes = lastRecording().map(p -> {
+            try {
+                return Files.size(p);
+            } catch (IOException e) {
+                return 0L;
+            }
+        }).orElse(0L);
+        if (recording == null) {
+            return new Status("NONE", null, null, 0, null, 0, lastBytes);
+        }
+        return new Status(recording.getState().name(), startedAt, recording.getDuration(), recording.getMaxSize(),
+                settings, thresholdMs, lastBytes);
+    }
+
+    static Map<String, String> withoutSensitiveEvents(Configuration configuration) {
+        Map<String, String> settings = new HashMap<>(configuration.getSettings());
+        for (String event : SENSITIVE_EVENTS) {
+            settings.put(event + "#enabled", "false");
+        }
+        return settings;
+    }
+
+    // a recording whose duration ran out stops by itself; pick up its file
+    private void finishIfStopped() {
+        if (recording == null) {
+            return;
+        }
+        RecordingState state = recording.getState();
+        if (state == RecordingState.STOPPED || state == RecordingState.CLOSED) {
+            recording.close();
+            recording = null;
+            lastFile = file;
+            file = null;
+        }
+    }
+
+    private void deleteLast() {
+        if (lastFile != null) {
+            try {
+                Files.deleteIfExists(lastFile);
+            } catch (IOException e) {
+                log.warn("Could not delete {}", lastFile, e);
+            }
+            lastFile = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            lastFile = file;
+        }
+        deleteLast();
+    }
+}
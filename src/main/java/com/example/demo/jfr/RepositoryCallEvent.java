@@ -0,0 +1,28 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One repository method call, e.g. WorkoutRepository.findByUserIdAndWorkoutPlanNameAndDay. */
+@Name("com.example.demo.RepositoryCall")
+@Label("Repository Call")
+@Category({"Demo", "Persistence"})
+@Description("A repository method call with the number of rows it returned")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Query")
+    @Description("Repository.method")
+    String query;
+
+    @Label("Rows")
+    @Description("Elements of a collection/page result, 1 for a single entity or value, 0 for empty, -1 for streams")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,89 @@
+package com.example.demo.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+/**
+ * Emits a RepositoryCallEvent around every Spring Data repository method and every public method of
+ * our own @Repository classes (set log, sparse fieldsets). The query name is "Repository.method" of the
+ * application interface (WorkoutRepository.findAll, not CrudRepository.findAll).
+ */
+@Aspect
+@Component
+public class RepositoryJfrAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " || (execution(public * *(..)) && @within(org.springframework.stereotype.Repository))")
+    public Object record(ProceedingJoinPoint pjp) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return pjp.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = pjp.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = repositoryName(pjp.getThis()) + "." + pjp.getSignature().getName();
+                event.rows = failed ? 0 : rows(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private String repositoryName(Object proxy) {
+        return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> i : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (Repository.class.isAssignableFrom(i) && !i.getName().startsWith("org.springframework.")) {
+                    return i.getSimpleName();
+                }
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        });
+    }
+
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> c) {
+            return c.size();
+        }
+        if (result instanceof Slice<?> s) {
+            return s.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> o) {
+            return o.isPresent() ? 1 : 0;
+        }
+        if (result instanceof BaseStream<?, ?>) {
+            return -1; // consumed after the call returns
+        }
+        if (result instanceof Iterable<?> it) {
+            long n = 0;
+            for (Object ignored : it) {
+                n++;
+            }
+            return n;
+        }
+        return 1;
+    }
+}
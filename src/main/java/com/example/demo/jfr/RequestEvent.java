@@ -0,0 +1,30 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One HTTP request, from the first filter to the response being written. */
+@Name("com.example.demo.Request")
+@Label("HTTP Request")
+@Category({"Demo", "HTTP"})
+@Description("An HTTP request handled by the app")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Route")
+    @Description("The matched mapping, e.g. /api/workout/{userId}/{planName}/exercises")
+    String route;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,69 @@
+package com.example.demo.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * JSON fast path.
+ * - Blackbird: Jackson uses generated lambdas instead of reflection to read/write bean properties
+ *   (Boot registers every Module bean with the auto-configured ObjectMapper).
+ * - List endpoints for exercises, workouts and users are written by StreamingListHttpMessageConverter.
+ * - Binary formats on request: Accept application/cbor, application/x-jackson-smile or application/x-protobuf.
+ *   Their converters go after the JSON ones, so JSON stays the answer for Accept: *&#47;* or no Accept.
+ *   CBOR and Smile mappers come from Boot's builder (same modules and settings as the JSON one).
+ */
+@Configuration
+public class JsonConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public JsonConfig(ObjectMapper objectMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.objectMapper = objectMapper;
+        this.builders = builders;
+    }
+
+    @Bean
+    public static Module blackbirdModule() { // static: the ObjectMapper this class injects is built from it
+        return new BlackbirdModule();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new StreamingListHttpMessageConverter(objectMapper));
+
+        // MVC registers its own CBOR/Smile converters when the libraries are present, with plain mappers
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+        ObjectMapper cbor = mapper(new CBORFactory());
+        converters.add(new StreamingListHttpMessageConverter(cbor.getFactory(), MediaType.APPLICATION_CBOR));
+        converters.add(new MappingJackson2CborHttpMessageConverter(cbor));
+        ObjectMapper smile = mapper(new SmileFactory());
+        converters.add(new StreamingListHttpMessageConverter(smile.getFactory(), APPLICATION_SMILE));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smile));
+        converters.add(new ProtobufHttpMessageConverter(mapper(new ProtobufFactory())));
+    }
+
+    private ObjectMapper mapper(JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = builders.getIfAvailable(Jackson2ObjectMapperBuilder::new);
+        return builder.factory(factory).build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for one list element: writes the object's JSON straight to the generator,
+ * with no reflection and no intermediate copy. Must produce the same JSON as Jackson's default mapping.
+ */
+@FunctionalInterface
+public interface JsonRowWriter<T> {
+
+    void write(JsonGenerator gen, T row) throws IOException;
+
+    /** writeNumberField only takes primitives; this writes null for a missing id. */
+    static void writeNumberField(JsonGenerator gen, String name, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, value);
+        }
+    }
+}
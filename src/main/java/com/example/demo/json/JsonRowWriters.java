@@ -0,0 +1,69 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.user.User;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutController;
+
+import java.util.Map;
+
+/**
+ * The element types whose lists are written by StreamingListHttpMessageConverter.
+ * Field names and order match what Jackson produces for these classes (declaration order).
+ */
+public final class JsonRowWriters {
+
+    public static final JsonRowWriter<ExerciseEntity> EXERCISE = (gen, e) -> {
+        gen.writeStartObject();
+        JsonRowWriter.writeNumberField(gen, "id", e.getId());
+        gen.writeStringField("name", e.getName());
+        gen.writeStringField("type", e.getType());
+        gen.writeStringField("muscle", e.getMuscle());
+        gen.writeStringField("equipment", e.getEquipment());
+        gen.writeStringField("difficulty", e.getDifficulty());
+        if (e.getInstructions() != null) { // @JsonInclude(NON_NULL); only set on exercises from a request body
+            gen.writeStringField("instructions", e.getInstructions());
+        }
+        gen.writeEndObject();
+    };
+
+    public static final JsonRowWriter<Workout> WORKOUT = (gen, w) -> {
+        gen.writeStartObject();
+        JsonRowWriter.writeNumberField(gen, "id", w.getId());
+        gen.writeStringField("userId", w.getUserId());
+        gen.writeStringField("workoutPlanName", w.getWorkoutPlanName());
+        gen.writeStringField("exerciseName", w.getExerciseName());
+        gen.writeStringField("day", w.getDay());
+        gen.writeNumberField("sets", w.getSets());
+        gen.writeNumberField("reps", w.getReps());
+        gen.writeNumberField("version", w.getVersion());
+        gen.writeEndObject();
+    };
+
+    public static final JsonRowWriter<WorkoutController.WorkoutExerciseDTO> WORKOUT_EXERCISE = (gen, dto) -> {
+        gen.writeStartObject();
+        gen.writeStringField("name", dto.name());
+        gen.writeNumberField("sets", dto.sets());
+        gen.writeNumberField("reps", dto.reps());
+        gen.writeEndObject();
+    };
+
+    // password is always masked, same as MaskedSerializer on the entity
+    public static final JsonRowWriter<User> USER = (gen, u) -> {
+        gen.writeStartObject();
+        JsonRowWriter.writeNumberField(gen, "id", u.getId());
+        gen.writeStringField("name", u.getName());
+        gen.writeStringField("email", u.getEmail());
+        gen.writeStringField("password", MaskedSerializer.MASK);
+        gen.writeEndObject();
+    };
+
+    static final Map<Class<?>, JsonRowWriter<?>> BY_TYPE = Map.of(
+            ExerciseEntity.class, EXERCISE,
+            Workout.class, WORKOUT,
+            WorkoutController.WorkoutExerciseDTO.class, WORKOUT_EXERCISE,
+            User.class, USER);
+
+    private JsonRowWriters() {
+    }
+}
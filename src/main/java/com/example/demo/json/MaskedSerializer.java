@@ -0,0 +1,25 @@
+package com.example.demo.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a fixed mask instead of the value: @JsonSerialize(using = MaskedSerializer.class) on a secret field.
+ * The entity can then be returned as is, without copying it just to blank out the field.
+ */
+public class MaskedSerializer extends StdSerializer<Object> {
+
+    public static final String MASK = "********";
+
+    public MaskedSerializer() {
+        super(Object.class);
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeString(MASK);
+    }
+}
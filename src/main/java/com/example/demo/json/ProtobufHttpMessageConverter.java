@@ -0,0 +1,123 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.user.User;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutController;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes exercises, workouts, day exercises and users (single or as lists) as Protobuf messages of
+ * proto/demo.proto, for Accept: application/x-protobuf. Uses jackson-dataformat-protobuf, so the objects
+ * the controllers return are serialized as they are; no generated classes and no protoc step.
+ * Lists become the XxxList wrapper message (protobuf has no top-level arrays). Write-only.
+ */
+public class ProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    static final String SCHEMA = "proto/demo.proto";
+
+    static final Map<Class<?>, String> MESSAGES = Map.of(
+            ExerciseEntity.class, "Exercise",
+            Workout.class, "Workout",
+            WorkoutController.WorkoutExerciseDTO.class, "WorkoutExercise",
+            User.class, "User");
+
+    /** The repeated field of the XxxList messages. */
+    record Items(Collection<?> items) {}
+
+    private final Map<String, ObjectWriter> writers = new HashMap<>();
+
+    /** mapper must be built on a ProtobufFactory. */
+    public ProtobufHttpMessageConverter(ObjectMapper mapper) {
+        super(APPLICATION_PROTOBUF);
+        ProtobufSchema schema;
+        try (InputStream in = new ClassPathResource(SCHEMA).getInputStream()) {
+            schema = ProtobufSchemaLoader.std.parse(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + SCHEMA, e);
+        }
+        // properties that aren't in the schema (added to an entity later) are skipped instead of failing
+        ObjectWriter base = mapper.writer().with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        for (String message : MESSAGES.values()) {
+            writers.put(message, base.with(schema.withRootType(message)));
+            writers.put(message + "List", base.with(schema.withRootType(message + "List")));
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return MESSAGES.containsKey(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return messageFor(type, clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        String message = messageFor(type, value.getClass());
+        if (value instanceof Collection<?> rows) {
+            writers.get(message + "List").writeValue(StreamUtils.nonClosing(outputMessage.getBody()), new Items(rows));
+        } else {
+            writers.get(message).writeValue(StreamUtils.nonClosing(outputMessage.getBody()), value);
+        }
+    }
+
+    /** Message name for a supported object, or the element message name for a supported collection; else null. */
+    static String messageFor(Type type, Class<?> clazz) {
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return type instanceof ParameterizedType p && p.getActualTypeArguments().length == 1
+                    && p.getActualTypeArguments()[0] instanceof Class<?> element ? MESSAGES.get(element) : null;
+        }
+        return MESSAGES.get(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Writes List&lt;ExerciseEntity&gt;, List&lt;Workout&gt;, List&lt;User&gt; ... responses as a JSON array with a
+ * JsonGenerator and the hand-written JsonRowWriters: rows go straight to the response stream, with no
+ * bean introspection and no per-row wrapper objects. Other types fall through to the Jackson converter.
+ * Needs the declared generic return type (e.g. List&lt;Workout&gt;) to pick the writer.
+ * The same writers produce CBOR or Smile when given that format's JsonFactory and media type.
+ */
+public class StreamingListHttpMessageConverter extends AbstractGenericHttpMessageConverter<Collection<?>> {
+
+    private final JsonFactory factory;
+
+    public StreamingListHttpMessageConverter(ObjectMapper mapper) {
+        this(mapper.getFactory(), MediaType.APPLICATION_JSON);
+    }
+
+    public StreamingListHttpMessageConverter(JsonFactory factory, MediaType mediaType) {
+        super(mediaType);
+        this.factory = factory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false; // without the element type we can't pick a writer
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && writerFor(type) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Collection<?> rows, Type type, HttpOutputMessage outputMessage) throws IOException {
+        JsonRowWriter<Object> writer = (JsonRowWriter<Object>) writerFor(type);
+        try (JsonGenerator gen = factory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            for (Object row : rows) {
+                writer.write(gen, row);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    static JsonRowWriter<?> writerFor(Type type) {
+        if (type instanceof ParameterizedType p && p.getActualTypeArguments().length == 1
+                && p.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return JsonRowWriters.BY_TYPE.get(element);
+        }
+        return null;
+    }
+
+    @Override
+    protected Collection<?> readInternal(Class<? extends Collection<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+    }
+
+    @Override
+    public Collection<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+    }
+}
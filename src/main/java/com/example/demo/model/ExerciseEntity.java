@@ -1,12 +1,24 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
-
+import jakarta.persistence.Transient;
+
+/**
+ * The hot catalog fields. The instructions text lives in ExerciseInstructions (exercise_instructions),
+ * loaded only when asked for: GET /exercises/{id}/instructions. The inverse one-to-one below is only
+ * really lazy because the build enhances entity bytecode (hibernate { enhancement } in build.gradle.kts);
+ * without it Hibernate would fetch it with every exercise.
+ */
 @Entity
 @Table(name = "exercises")
 public class ExerciseEntity {
@@ -30,9 +42,15 @@ public class ExerciseEntity {
     @Column(nullable = false)
     private String difficulty;
 
-    @Column(nullable = false)
+    // request/response field only: set from POST/PUT bodies and written through to `details`,
+    // left null (and out of the JSON) for exercises read from the database
+    @Transient
     private String instructions;
 
+    @JsonIgnore
+    @OneToOne(mappedBy = "exercise", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private ExerciseInstructions details;
+
     public ExerciseEntity() {}
 
     public ExerciseEntity(String name) {
@@ -58,8 +76,36 @@ public class ExerciseEntity {
     public String getDifficulty() { return difficulty; }
     public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public String getInstructions() { return instructions; }
-    public void setInstructions(String instructions) { this.instructions = instructions; }
+
+    // null keeps the stored instructions, so a PUT of what GET returned doesn't wipe them
+    public void setInstructions(String instructions) {
+        this.instructions = instructions;
+        if (instructions == null) {
+            return;
+        }
+        if (details == null) {
+            details = new ExerciseInstructions(this, instructions);
+        } else {
+            details.setText(instructions);
+        }
+    }
+
+    /**
+     * A plain copy of the catalog fields, not attached to any persistence context, so it can be
+     * handed to other threads (single-flight followers) without touching the owner's session.
+     */
+    public ExerciseEntity detachedCopy() {
+        ExerciseEntity copy = new ExerciseEntity(name);
+        copy.id = id;
+        copy.type = type;
+        copy.muscle = muscle;
+        copy.equipment = equipment;
+        copy.difficulty = difficulty;
+        copy.instructions = instructions;
+        return copy;
+    }
 
     // Need a function for getting exercise details by name
 
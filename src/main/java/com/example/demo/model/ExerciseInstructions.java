@@ -0,0 +1,58 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+
+/**
+ * The cold part of an exercise: its instructions text, in its own table so the exercises rows
+ * (read by every list, name lookup and cache) stay small. Shares the exercise's id as primary key.
+ */
+@Entity
+@Table(name = "exercise_instructions")
+public class ExerciseInstructions {
+
+    @Id
+    private Long exerciseId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exercise_id")
+    private ExerciseEntity exercise;
+
+    // see InstructionsCodec
+    @Lob
+    @Column(nullable = false, length = 65535)
+    private byte[] content;
+
+    @Column(nullable = false)
+    private boolean compressed;
+
+    protected ExerciseInstructions() {}
+
+    public ExerciseInstructions(ExerciseEntity exercise, String text) {
+        this.exercise = exercise;
+        setText(text);
+    }
+
+    public Long getExerciseId() { return exerciseId; }
+
+    public String getText() { return InstructionsCodec.decode(content, compressed); }
+
+    public void setText(String text) {
+        InstructionsCodec.Encoded encoded = InstructionsCodec.encode(text);
+        this.content = encoded.bytes();
+        this.compressed = encoded.compressed();
+    }
+
+    /** Stored size in bytes, after compression. */
+    public int getStoredSize() { return content.length; }
+
+    public boolean isCompressed() { return compressed; }
+}
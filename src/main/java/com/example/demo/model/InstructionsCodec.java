@@ -0,0 +1,68 @@
+package com.example.demo.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage format of exercise_instructions.content: UTF-8, deflated when that saves space.
+ * Short texts stay plain (deflate has a fixed overhead); the compressed flag says which one a row is.
+ * Used by the entity and by the JDBC writers (catalog import, column migration) alike.
+ */
+public final class InstructionsCodec {
+
+    /** Texts shorter than this (in UTF-8 bytes) are never compressed. */
+    static final int MIN_COMPRESS_BYTES = 128;
+
+    public record Encoded(byte[] bytes, boolean compressed) {}
+
+    public static Encoded encode(String text) {
+        byte[] plain = text.getBytes(StandardCharsets.UTF_8);
+        if (plain.length < MIN_COMPRESS_BYTES) {
+            return new Encoded(plain, false);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] deflated = out.toByteArray();
+            return deflated.length < plain.length ? new Encoded(deflated, true) : new Encoded(plain, false);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decode(byte[] bytes, boolean compressed) {
+        if (!compressed) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated instructions content");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt instructions content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private InstructionsCodec() {
+    }
+}
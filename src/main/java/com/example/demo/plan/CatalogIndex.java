@@ -0,0 +1,137 @@
+package com.example.demo.plan;
+
+import com.example.demo.catalog.CatalogChangedEvent;
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.support.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read-only, primitive-indexed copy of the exercise catalog for the plan generator.
+ * Exercise i is described by names[i], muscle[i], equipment[i] and difficulty[i]; muscles and
+ * equipment are dictionary ids, so filtering and scoring never touch entities or Strings.
+ * The snapshot is immutable and swapped as a whole on refresh.
+ * Loading never happens on a request thread: the first snapshot is built in the background once the
+ * application is ready, later ones by the scheduled refresh or right after a catalog import.
+ * Until then requests get a 503.
+ */
+@Component
+public class CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndex.class);
+
+    static final String[] DIFFICULTIES = {"beginner", "intermediate", "expert"};
+
+    private final ExerciseRepository exercises;
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    public CatalogIndex(ExerciseRepository exercises) {
+        this.exercises = exercises;
+    }
+
+    record Snapshot(String[] names, int[] muscle, int[] equipment, byte[] difficulty,
+                    int[][] byMuscle, StringDictionary muscles, StringDictionary equipments) {
+
+        int size() {
+            return names.length;
+        }
+    }
+
+    Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            preload(); // e.g. the startup load failed; try again, but don't make this request wait for it
+            throw new PlanUnavailableException("The exercise catalog is still loading, try again shortly");
+        }
+        return current;
+    }
+
+    /** Builds the first snapshot on a background thread, once; readiness doesn't wait for it. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (snapshot != null || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                refresh();
+            } finally {
+                loading.set(false);
+            }
+        }, "plan-catalog-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Reloads the catalog; picks up imports and edits made since the last load. Keeps the old one on failure. */
+    @Scheduled(fixedDelayString = "${plan.catalog-refresh:PT5M}", initialDelayString = "${plan.catalog-refresh:PT5M}")
+    @EventListener(CatalogChangedEvent.class)
+    public void refresh() {
+        try {
+            snapshot = load();
+        } catch (RuntimeException e) {
+            log.warn("Plan catalog index load failed, keeping the previous one", e);
+        }
+    }
+
+    private Snapshot load() {
+        List<ExerciseEntity> rows = exercises.findAll();
+        int n = rows.size();
+        String[] names = new String[n];
+        int[] muscle = new int[n];
+        int[] equipment = new int[n];
+        byte[] difficulty = new byte[n];
+        StringDictionary muscles = new StringDictionary();
+        StringDictionary equipments = new StringDictionary();
+
+        for (int i = 0; i < n; i++) {
+            ExerciseEntity e = rows.get(i);
+            names[i] = e.getName();
+            muscle[i] = muscles.idOf(normalize(e.getMuscle()));
+            equipment[i] = equipments.idOf(normalize(e.getEquipment()));
+            difficulty[i] = (byte) difficultyLevel(e.getDifficulty());
+        }
+
+        // exercise indexes per muscle id, so candidates for a muscle are one array lookup
+        int[] counts = new int[muscles.size()];
+        for (int m : muscle) {
+            counts[m]++;
+        }
+        int[][] byMuscle = new int[muscles.size()][];
+        for (int m = 0; m < byMuscle.length; m++) {
+            byMuscle[m] = new int[counts[m]];
+            counts[m] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            byMuscle[muscle[i]][counts[muscle[i]]++] = i;
+        }
+
+        log.debug("Plan catalog index loaded: {} exercises, {} muscles", n, muscles.size());
+        return new Snapshot(names, muscle, equipment, difficulty, byMuscle, muscles, equipments);
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** beginner = 0, intermediate = 1, expert = 2; unknown values count as intermediate. */
+    static int difficultyLevel(String difficulty) {
+        String d = normalize(difficulty);
+        for (int i = 0; i < DIFFICULTIES.length; i++) {
+            if (DIFFICULTIES[i].equals(d)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+}
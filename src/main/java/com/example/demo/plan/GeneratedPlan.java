@@ -0,0 +1,22 @@
+package com.example.demo.plan;
+
+import com.example.demo.workout.Workout;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the plan generator. The workouts are not saved; the client can store them through
+ * POST /api/workout/add-exercise.
+ * exhaustive is false when the time budget ran out and the best plan found so far was returned.
+ */
+public record GeneratedPlan(
+        String userId,
+        String planName,
+        List<Workout> workouts,
+        Map<String, Integer> setsPerMuscle,
+        List<String> skippedMuscles,
+        boolean exhaustive,
+        long nodesSearched,
+        long elapsedMillis
+) {}
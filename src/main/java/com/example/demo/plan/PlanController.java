@@ -0,0 +1,29 @@
+package com.example.demo.plan;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/plans")
+public class PlanController {
+
+    private final PlanGenerator generator;
+
+    public PlanController(PlanGenerator generator) {
+        this.generator = generator;
+    }
+
+    // recommends a weekly plan from the exercise catalog; nothing is saved
+    @PostMapping("/generate")
+    public GeneratedPlan generate(@Valid @RequestBody PlanRequest request) {
+        try {
+            return generator.generate(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (PlanUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.demo.plan;
+
+import com.example.demo.workout.Workout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds a weekly plan from the catalog.
+ * 1. Every training day gets a set of target muscles (a bitmask over at most 12 targets); the day's
+ *    exercise slots are split evenly between its muscles.
+ * 2. A branch-and-bound search over those day masks runs on a ForkJoinPool: the first days are
+ *    forked into parallel tasks, deeper levels are searched depth-first inside each task.
+ *    Cost = uncovered muscles (huge) + squared deviation from an even slot split per muscle
+ *    - a bonus for training a muscle twice a week. A branch is pruned when its lower bound
+ *    can no longer beat the best plan found by any task.
+ * 3. Rest days are a hard constraint, including the wrap-around into the next week.
+ * 4. A greedy plan is computed first, so there is usually an answer when the deadline hits; if there is
+ *    none, the request fails with PlanUnavailableException (503), not as infeasible (400).
+ * 5. Slots are then filled with the muscle's candidates in preference order, rotating through
+ *    them over the week.
+ */
+@Service
+public class PlanGenerator {
+
+    static final String[] WEEKDAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    static final int MAX_TARGET_MUSCLES = 12;
+    static final int MAX_EXERCISES_PER_DAY = 10;
+    private static final int[] SETS = {3, 4, 5};   // by difficulty level
+    private static final int[] REPS = {12, 10, 6};
+    private static final Set<String> BODY_WEIGHT = Set.of("", "body_only", "body only", "none");
+
+    private static final long UNCOVERED = 1L << 40;
+    private static final long FREQUENCY_BONUS = 4;  // worth 2 slots of imbalance per extra weekly session
+    private static final int SPLIT_DEPTH = 1;       // days expanded as parallel tasks (one task per first-day mask)
+    private static final int DEADLINE_CHECK_MASK = 0xFF;
+
+    private final CatalogIndex catalog;
+    private final ForkJoinPool pool;
+    private final long defaultBudgetMillis;
+    private final long maxBudgetMillis;
+
+    public PlanGenerator(CatalogIndex catalog,
+                         @Value("${plan.parallelism:0}") int parallelism,
+                         @Value("${plan.budget-ms:80}") long defaultBudgetMillis,
+                         @Value("${plan.max-budget-ms:500}") long maxBudgetMillis) {
+        this.catalog = catalog;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.defaultBudgetMillis = defaultBudgetMillis;
+        this.maxBudgetMillis = maxBudgetMillis;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public GeneratedPlan generate(PlanRequest request) {
+        long start = System.nanoTime();
+        long budget = Math.min(request.budgetMillis() == null ? defaultBudgetMillis : request.budgetMillis(), maxBudgetMillis);
+        long deadline = start + budget * 1_000_000;
+
+        CatalogIndex.Snapshot s = catalog.snapshot();
+        int level = request.difficulty() == null ? 1 : CatalogIndex.difficultyLevel(request.difficulty());
+        boolean[] equipmentAllowed = equipmentFilter(s, request.equipment());
+
+        // resolve target muscles to candidate exercise lists (best match first)
+        List<String> targetNames = new ArrayList<>();
+        List<int[]> targetCandidates = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(request.muscles().stream().map(CatalogIndex::normalize).toList())) {
+            int muscle = s.muscles().find(name);
+            int[] candidates = muscle < 0 ? new int[0] : candidates(s, s.byMuscle()[muscle], equipmentAllowed, level);
+            if (candidates.length == 0) {
+                skipped.add(name);
+            } else {
+                targetNames.add(name);
+                targetCandidates.add(candidates);
+            }
+        }
+        if (targetNames.isEmpty()) {
+            throw new IllegalArgumentException("No exercises in the catalog match the requested muscles, equipment and difficulty");
+        }
+        if (targetNames.size() > MAX_TARGET_MUSCLES) {
+            throw new IllegalArgumentException("At most " + MAX_TARGET_MUSCLES + " target muscles are supported");
+        }
+
+        int perDay = request.exercisesPerDay() == null ? 4 : request.exercisesPerDay();
+        int restDays = request.restDays() == null ? 1 : request.restDays();
+        Search search = new Search(targetNames.size(), request.daysPerWeek(), perDay, restDays, deadline);
+
+        int[] greedy = search.greedy();
+        if (greedy != null) {
+            search.offer(search.leafCost(greedy), greedy);
+        }
+        pool.invoke(search.root());
+
+        int[] masks = search.bestMasks();
+        if (masks == null && search.timedOut) {
+            // the greedy start found nothing and the search didn't get to finish: unknown, not infeasible
+            throw new PlanUnavailableException("No plan found within " + budget + " ms; retry with a larger budgetMillis");
+        }
+        if (masks == null) {
+            throw new IllegalArgumentException("No plan satisfies " + restDays + " rest day(s) per muscle with "
+                    + targetNames.size() + " muscle(s) over " + request.daysPerWeek() + " day(s)");
+        }
+
+        String planName = request.planName() == null || request.planName().isBlank() ? "Generated plan" : request.planName();
+        List<Workout> workouts = new ArrayList<>();
+        Map<String, Integer> setsPerMuscle = new LinkedHashMap<>();
+        int[] cursor = new int[targetNames.size()];
+        for (int day = 0; day < masks.length; day++) {
+            Set<String> usedToday = new HashSet<>();
+            for (int j = 0; j < targetNames.size(); j++) {
+                int[] candidates = targetCandidates.get(j);
+                for (int slot = 0; slot < search.maskSlots[masks[day]][j]; slot++) {
+                    int exercise = candidates[cursor[j]++ % candidates.length];
+                    if (!usedToday.add(s.names()[exercise])) {
+                        continue; // fewer candidates than slots; (user, plan, exercise, day) must stay unique
+                    }
+                    int difficulty = s.difficulty()[exercise];
+                    workouts.add(new Workout(request.userId(), planName, s.names()[exercise],
+                            WEEKDAYS[search.weekday[day]], SETS[difficulty], REPS[difficulty]));
+                    setsPerMuscle.merge(targetNames.get(j), SETS[difficulty], Integer::sum);
+                }
+            }
+        }
+
+        return new GeneratedPlan(request.userId(), planName, workouts, setsPerMuscle, skipped,
+                !search.timedOut, search.nodes.sum(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean[] equipmentFilter(CatalogIndex.Snapshot s, List<String> equipment) {
+        boolean[] allowed = new boolean[s.equipments().size()];
+        boolean any = equipment == null || equipment.isEmpty();
+        for (int e = 0; e < allowed.length; e++) {
+            allowed[e] = any || BODY_WEIGHT.contains(s.equipments().valueOf(e));
+        }
+        if (!any) {
+            for (String name : equipment) {
+                int e = s.equipments().find(CatalogIndex.normalize(name));
+                if (e >= 0) {
+                    allowed[e] = true;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    /** Exercises of one muscle the user can do, exact difficulty first, then the next easier level. */
+    private static int[] candidates(CatalogIndex.Snapshot s, int[] exercises, boolean[] equipmentAllowed, int level) {
+        int[] result = new int[exercises.length];
+        int n = 0;
+        for (int wanted = level; wanted >= 0; wanted--) {
+            for (int i : exercises) {
+                if (s.difficulty()[i] == wanted && equipmentAllowed[s.equipment()[i]]) {
+                    result[n++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /** Branch-and-bound state shared by all tasks of one request. */
+    private static final class Search {
+        final int k;          // target muscles
+        final int days;
+        final int perDay;
+        final int restDays;
+        final long deadline;
+        final int[] weekday;  // training day -> index into WEEKDAYS, spread over the week
+        final int[] masks;    // candidate muscle sets per day, most muscles first
+        final int[][] maskSlots; // mask -> slots per target muscle
+        final long totalScaled;
+
+        final AtomicLong bestCost = new AtomicLong(Long.MAX_VALUE);
+        private int[] best;
+        final LongAdder nodes = new LongAdder();
+        volatile boolean timedOut;
+
+        Search(int k, int days, int perDay, int restDays, long deadline) {
+            this.k = k;
+            this.days = days;
+            this.perDay = perDay;
+            this.restDays = restDays;
+            this.deadline = deadline;
+            this.totalScaled = (long) days * perDay;
+
+            weekday = new int[days];
+            for (int d = 0; d < days; d++) {
+                weekday[d] = d * 7 / days;
+            }
+
+            int maxPerDay = Math.min(perDay, k);
+            maskSlots = new int[1 << k][];
+            List<Integer> order = new ArrayList<>();
+            for (int mask = 1; mask < 1 << k; mask++) {
+                int muscles = Integer.bitCount(mask);
+                if (muscles > maxPerDay) {
+                    continue;
+                }
+                int[] slots = new int[k];
+                int rank = 0;
+                for (int j = 0; j < k; j++) {
+                    if ((mask & 1 << j) != 0) {
+                        slots[j] = perDay / muscles + (rank++ < perDay % muscles ? 1 : 0);
+                    }
+                }
+                maskSlots[mask] = slots;
+                order.add(mask);
+            }
+            order.sort((a, b) -> Integer.bitCount(b) - Integer.bitCount(a));
+            masks = order.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        Node root() {
+            int[] first = new int[k];
+            int[] last = new int[k];
+            Arrays.fill(first, -1);
+            Arrays.fill(last, -1);
+            return new Node(this, 0, new int[days], new int[k], new int[k], first, last);
+        }
+
+        boolean feasible(int mask, int day, int[] last) {
+            for (int j = 0; j < k; j++) {
+                if ((mask & 1 << j) != 0 && last[j] >= 0 && weekday[day] - last[j] - 1 < restDays) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Lower bound on the final cost of any plan that extends this partial one. */
+        long bound(int[] slots, int[] freq, int remainingDays) {
+            long cost = 0;
+            int uncovered = 0;
+            for (int j = 0; j < k; j++) {
+                long deviation = (long) k * slots[j] - totalScaled;
+                if (deviation > 0 || remainingDays == 0) {
+                    cost += deviation * deviation;
+                }
+                if (freq[j] == 0) {
+                    uncovered++;
+                }
+                cost -= FREQUENCY_BONUS * k * k * Math.min(freq[j] + remainingDays, 2);
+            }
+            int coverable = remainingDays * Math.min(perDay, k);
+            if (uncovered > coverable) {
+                cost += UNCOVERED * (uncovered - coverable);
+            }
+            return cost;
+        }
+
+        /** Full cost of a complete plan, or Long.MAX_VALUE if the rest days don't hold across the week boundary. */
+        long leafCost(int[] planMasks) {
+            int[] slots = new int[k];
+            int[] freq = new int[k];
+            int[] first = new int[k];
+            int[] last = new int[k];
+            Arrays.fill(first, -1);
+            for (int d = 0; d < days; d++) {
+                for (int j = 0; j < k; j++) {
+                    if ((planMasks[d] & 1 << j) != 0) {
+                        slots[j] += maskSlots[planMasks[d]][j];
+                        freq[j]++;
+                        if (first[j] < 0) {
+                            first[j] = weekday[d];
+                        }
+                        last[j] = weekday[d];
+                    }
+                }
+            }
+            return wrapsAround(freq, first, last) ? bound(slots, freq, 0) : Long.MAX_VALUE;
+        }
+
+        boolean wrapsAround(int[] freq, int[] first, int[] last) {
+            for (int j = 0; j < k; j++) {
+                if (freq[j] > 1 && first[j] + 7 - last[j] - 1 < restDays) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** One pass, always taking the mask with the lowest bound. May return null if it paints itself into a corner. */
+        int[] greedy() {
+            int[] plan = new int[days];
+            int[] slots = new int[k];
+            int[] freq = new int[k];
+            int[] last = new int[k];
+            Arrays.fill(last, -1);
+            for (int d = 0; d < days; d++) {
+                int chosen = 0;
+                long chosenBound = Long.MAX_VALUE;
+                for (int mask : masks) {
+                    if (!feasible(mask, d, last)) {
+                        continue;
+                    }
+                    add(mask, slots, freq, 1);
+                    long b = bound(slots, freq, days - d - 1);
+                    add(mask, slots, freq, -1);
+                    if (b < chosenBound) {
+                        chosenBound = b;
+                        chosen = mask;
+                    }
+                }
+                if (chosen == 0) {
+                    return null;
+                }
+                add(chosen, slots, freq, 1);
+                for (int j = 0; j < k; j++) {
+                    if ((chosen & 1 << j) != 0) {
+                        last[j] = weekday[d];
+                    }
+                }
+                plan[d] = chosen;
+            }
+            return plan;
+        }
+
+        void add(int mask, int[] slots, int[] freq, int sign) {
+            for (int j = 0; j < k; j++) {
+                if ((mask & 1 << j) != 0) {
+                    slots[j] += sign * maskSlots[mask][j];
+                    freq[j] += sign;
+                }
+            }
+        }
+
+        synchronized void offer(long cost, int[] planMasks) {
+            if (cost < bestCost.get()) {
+                best = planMasks.clone();
+                bestCost.set(cost);
+            }
+        }
+
+        synchronized int[] bestMasks() {
+            return best;
+        }
+    }
+
+    /**
+     * One subtree of the search. Above SPLIT_DEPTH each feasible child becomes its own task;
+     * below it the subtree is searched depth-first with in-place updates and undo.
+     */
+    private static final class Node extends RecursiveAction {
+        private final Search search;
+        private final int day;
+        private final int[] plan;
+        private final int[] slots;
+        private final int[] freq;
+        private final int[] first;
+        private final int[] last;
+        private long visited;
+
+        Node(Search search, int day, int[] plan, int[] slots, int[] freq, int[] first, int[] last) {
+            this.search = search;
+            this.day = day;
+            this.plan = plan;
+            this.slots = slots;
+            this.freq = freq;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (day < SPLIT_DEPTH && day < search.days) {
+                List<Node> children = new ArrayList<>();
+                for (int mask : search.masks) {
+                    if (!search.feasible(mask, day, last)) {
+                        continue;
+                    }
+                    Node child = new Node(search, day + 1, plan.clone(), slots.clone(), freq.clone(), first.clone(), last.clone());
+                    child.apply(mask, day);
+                    if (search.bound(child.slots, child.freq, search.days - day - 1) < search.bestCost.get()) {
+                        children.add(child);
+                    }
+                }
+                search.nodes.add(children.size());
+                invokeAll(children);
+            } else {
+                dfs(day, new int[search.days][search.k], new int[search.days][search.k]);
+                search.nodes.add(visited);
+            }
+        }
+
+        private void apply(int mask, int d) {
+            plan[d] = mask;
+            search.add(mask, slots, freq, 1);
+            for (int j = 0; j < search.k; j++) {
+                if ((mask & 1 << j) != 0) {
+                    if (first[j] < 0) {
+                        first[j] = search.weekday[d];
+                    }
+                    last[j] = search.weekday[d];
+                }
+            }
+        }
+
+        private void dfs(int d, int[][] savedFirst, int[][] savedLast) {
+            if ((++visited & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > search.deadline) {
+                search.timedOut = true;
+            }
+            if (search.timedOut) {
+                return;
+            }
+            if (d == search.days) {
+                if (search.wrapsAround(freq, first, last)) {
+                    search.offer(search.bound(slots, freq, 0), plan);
+                }
+                return;
+            }
+            for (int mask : search.masks) {
+                if (!search.feasible(mask, d, last)) {
+                    continue;
+                }
+                System.arraycopy(first, 0, savedFirst[d], 0, search.k);
+                System.arraycopy(last, 0, savedLast[d], 0, search.k);
+                apply(mask, d);
+                if (search.bound(slots, freq, search.days - d - 1) < search.bestCost.get()) {
+                    dfs(d + 1, savedFirst, savedLast);
+                }
+                search.add(mask, slots, freq, -1);
+                System.arraycopy(savedFirst[d], 0, first, 0, search.k);
+                System.arraycopy(savedLast[d], 0, last, 0, search.k);
+                if (search.timedOut) {
+                    return;
+                }
+            }
+        }
+    }
+}
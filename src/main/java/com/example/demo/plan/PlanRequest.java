@@ -0,0 +1,27 @@
+package com.example.demo.plan;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Input for the plan generator. Only userId, muscles and daysPerWeek are required.
+ * - equipment: what the user has; empty means "anything". Body-weight exercises are always allowed.
+ * - difficulty: beginner | intermediate | expert (default intermediate); easier exercises are allowed too.
+ * - restDays: minimum full days between two sessions of the same muscle (default 1).
+ * - budgetMillis: search time budget; the best plan found so far is returned when it runs out.
+ */
+public record PlanRequest(
+        @NotBlank String userId,
+        String planName,
+        @NotEmpty List<String> muscles,
+        List<String> equipment,
+        String difficulty,
+        @Min(1) @Max(7) int daysPerWeek,
+        @Min(1) @Max(PlanGenerator.MAX_EXERCISES_PER_DAY) Integer exercisesPerDay,
+        @Min(0) @Max(6) Integer restDays,
+        @Min(1) Long budgetMillis
+) {}
@@ -0,0 +1,13 @@
+package com.example.demo.plan;
+
+/**
+ * No plan right now, through no fault of the request: the catalog isn't loaded yet, or the time budget
+ * ran out before the search found any plan. PlanController answers 503; retrying (with a larger
+ * budgetMillis) can succeed, unlike a request that is infeasible (400).
+ */
+public class PlanUnavailableException extends RuntimeException {
+
+    public PlanUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instance-wide concurrency limit that adapts to observed latency (Gradient style, AIMD on errors).
+ * - baseline RTT = slow moving average of request latency, recent RTT = fast moving average.
+ * - gradient = baseline * tolerance / recent, clamped to [0.5, 1]: when latency climbs the limit shrinks,
+ *   when it is flat the limit grows by a small queue allowance (sqrt(limit)).
+ * - a window with a failed request (5xx / exception) cuts the limit by 10%.
+ * Nothing on the request path takes a lock: acquire/release are CAS on inFlight, release adds its RTT to
+ * striped LongAdders, and once sample-window requests have been released, the releasing thread that wins
+ * a CAS on `updating` recalculates the limit from the window's average RTT. Others just add to the next
+ * window. A sample that races with the reset may be dropped or land in the next window; the averages absorb that.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final double RECENT_WEIGHT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int sampleWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // the current window
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder sampleNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    // only touched by the thread holding `updating`
+    private double baselineRtt;
+    private double recentRtt;
+
+    public AdaptiveConcurrencyLimiter(RateLimitProperties.Concurrency settings) {
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxLimit();
+        this.smoothing = settings.getSmoothing();
+        this.rttTolerance = settings.getRttTolerance();
+        this.sampleWindow = Math.max(1, settings.getSampleWindow());
+        this.limit = settings.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            failures.increment();
+        } else {
+            sampleNanos.add(rttNanos);
+        }
+        samples.increment();
+        if (samples.sum() >= sampleWindow && updating.compareAndSet(false, true)) {
+            try {
+                update();
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update() {
+        long count = samples.sumThenReset();
+        long failed = failures.sumThenReset();
+        long nanos = sampleNanos.sumThenReset();
+        long succeeded = count - failed;
+        double current = limit;
+        if (failed > 0) {
+            limit = clamp(current * 0.9);
+            return;
+        }
+        if (succeeded <= 0) {
+            return;
+        }
+        double rtt = (double) nanos / succeeded;
+        if (baselineRtt == 0) {
+            baselineRtt = rtt;
+            recentRtt = rtt;
+            return;
+        }
+        baselineRtt += (rtt - baselineRtt) * BASELINE_WEIGHT;
+        recentRtt += (rtt - recentRtt) * RECENT_WEIGHT;
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baselineRtt / recentRtt));
+        double target = current * gradient + Math.sqrt(current);
+        limit = clamp(current * (1 - smoothing) + target * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
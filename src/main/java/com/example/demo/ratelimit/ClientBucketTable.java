@@ -0,0 +1,70 @@
+package com.example.demo.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client token buckets, split over a fixed number of stripes.
+ * - Each stripe is its own map, so the idle sweep walks one small map at a time.
+ * - Memory is bounded: idle buckets are swept, and a full stripe hands out a shared
+ *   per-route overflow bucket instead of growing.
+ */
+public class ClientBucketTable {
+
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+    private final ConcurrentHashMap<String, TokenBucket> overflow = new ConcurrentHashMap<>();
+    private final int maxPerStripe;
+    private final long idleNanos;
+
+    @SuppressWarnings("unchecked")
+    public ClientBucketTable(int stripeCount, int maxPerStripe, long idleNanos) {
+        this.stripes = new ConcurrentHashMap[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxPerStripe = maxPerStripe;
+        this.idleNanos = idleNanos;
+    }
+
+    public TokenBucket bucketFor(RateLimitProperties.Route route, String clientKey, long nowNanos) {
+        String key = route.id() + '|' + clientKey;
+        ConcurrentHashMap<String, TokenBucket> stripe = stripes[(key.hashCode() & 0x7fffffff) % stripes.length];
+
+        TokenBucket bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxPerStripe) {
+            evictIdle(stripe, nowNanos);
+            if (stripe.size() >= maxPerStripe) {
+                // table is full of active clients: share one bucket rather than grow without bound
+                return overflow.computeIfAbsent(route.id(),
+                        id -> new TokenBucket(route.getCapacity(), route.getRefillPerSecond(), nowNanos));
+            }
+        }
+        return stripe.computeIfAbsent(key,
+                k -> new TokenBucket(route.getCapacity(), route.getRefillPerSecond(), nowNanos));
+    }
+
+    /** Drops buckets that have not been used for idleTimeout. */
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval:PT30S}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            evictIdle(stripe, now);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    private void evictIdle(ConcurrentHashMap<String, TokenBucket> stripe, long nowNanos) {
+        stripe.values().removeIf(b -> nowNanos - b.lastSeenNanos() > idleNanos);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * Works out "who is calling" for per-client state. Only uses what the client can't make up:
+ * - the authenticated principal, when the request has one (a client-sent user id header doesn't count);
+ * - otherwise the client IP: the connection address, or, when trusted, the last X-Forwarded-For entry.
+ *   That is the one our proxy appended (Heroku's router does); anything left of it came from the client.
+ */
+public class ClientKeyResolver {
+
+    /** Sent by the frontend; only a hint, never used as a key (anyone can send any value). */
+    public static final String USER_HEADER = "X-User-Id";
+
+    private final boolean trustForwardedFor;
+
+    public ClientKeyResolver(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    public String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String last = forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+                if (!last.isEmpty()) {
+                    return last;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires the rate limiting filter. Turn it off with ratelimit.enabled=false.
+ * The filter is registered here (not as a @Component) so @WebMvcTest slices don't pick it up.
+ * The enabled flags are applied to the registration at startup rather than through @ConditionalOnProperty,
+ * which the AOT image (Dockerfile, heroku.yml) would have fixed at build time.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public ClientKeyResolver clientKeyResolver(RateLimitProperties props) {
+        return new ClientKeyResolver(props.isTrustForwardedFor());
+    }
+
+    @Bean
+    public ClientBucketTable clientBucketTable(RateLimitProperties props, MeterRegistry registry) {
+        ClientBucketTable table = new ClientBucketTable(
+                props.getStripes(), props.getMaxClientsPerStripe(), props.getIdleTimeout().toNanos());
+        Gauge.builder("ratelimit.clients", table, ClientBucketTable::size).register(registry);
+        return table;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(RateLimitProperties props, MeterRegistry registry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(props.getConcurrency());
+        Gauge.builder("ratelimit.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("ratelimit.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RateLimitProperties props, ClientBucketTable buckets,
+            AdaptiveConcurrencyLimiter limiter, ClientKeyResolver clientKeys, MeterRegistry registry) {
+        RateLimitFilter filter = new RateLimitFilter(props.getRoutes(), buckets,
+                props.getConcurrency().isEnabled() ? limiter : null, clientKeys, registry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(props.isEnabled());
+        registration.addUrlPatterns("/*");
+        // run before everything else so a rejected request costs as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load shedding in front of every controller.
+ * 1. Per-client token bucket for the first matching route -> 429 + Retry-After when empty.
+ * 2. Adaptive instance-wide concurrency limit -> 503 + Retry-After when the server is saturated.
+ * Actuator endpoints are never limited so health checks keep working under load.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RateLimitProperties.Route> routes;
+    private final ClientBucketTable buckets;
+    private final AdaptiveConcurrencyLimiter limiter; // null when concurrency limiting is off
+    private final ClientKeyResolver clientKeys;
+    private final MeterRegistry registry;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public RateLimitFilter(List<RateLimitProperties.Route> routes, ClientBucketTable buckets,
+                           AdaptiveConcurrencyLimiter limiter, ClientKeyResolver clientKeys,
+                           MeterRegistry registry) {
+        this.routes = List.copyOf(routes);
+        this.buckets = buckets;
+        this.limiter = limiter;
+        this.clientKeys = clientKeys;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitProperties.Route route = match(request);
+        if (route != null) {
+            long now = System.nanoTime();
+            long waitNanos = buckets.bucketFor(route, clientKeys.resolve(request), now).tryAcquire(now);
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "rate");
+                return;
+            }
+        }
+
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "concurrency");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private RateLimitProperties.Route match(HttpServletRequest request) {
+        String path = path(request);
+        for (RateLimitProperties.Route route : routes) {
+            String method = route.getMethod();
+            if ((method == null || method.isBlank() || method.equalsIgnoreCase(request.getMethod()))
+                    && matcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long waitNanos, String reason)
+            throws IOException {
+        registry.counter("ratelimit.rejected", "reason", reason).increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase() + "\"}");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
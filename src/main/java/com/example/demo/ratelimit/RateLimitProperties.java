@@ -0,0 +1,104 @@
+package com.example.demo.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings under "ratelimit.*" (see application.properties).
+ * - routes: per-route token buckets, first matching route wins. Requests matching no route are only
+ *   subject to the adaptive concurrency limit.
+ * - concurrency: one adaptive limit for the whole instance, protects the DB pool from overload.
+ */
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // only turn on behind a proxy that appends to X-Forwarded-For (Heroku router does); its last entry is used
+    private boolean trustForwardedFor = false;
+
+    private int stripes = 16;
+    private int maxClientsPerStripe = 10_000;
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    private List<Route> routes = new ArrayList<>();
+    private Concurrency concurrency = new Concurrency();
+
+    public static class Route {
+        private String method;   // null/blank = any method
+        private String pattern;  // Ant-style, e.g. /api/users/**
+        private int capacity = 20;
+        private double refillPerSecond = 10;
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+
+        String id() {
+            return (method == null || method.isBlank() ? "*" : method) + " " + pattern;
+        }
+    }
+
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        private double smoothing = 0.2;     // how fast the limit follows the gradient (0..1)
+        private double rttTolerance = 1.5;  // latency may grow this much over the baseline before we back off
+        private int sampleWindow = 10;      // released requests per limit recalculation
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+        public double getSmoothing() { return smoothing; }
+        public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+        public double getRttTolerance() { return rttTolerance; }
+        public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+
+        public int getSampleWindow() { return sampleWindow; }
+        public void setSampleWindow(int sampleWindow) { this.sampleWindow = sampleWindow; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public boolean isTrustForwardedFor() { return trustForwardedFor; }
+    public void setTrustForwardedFor(boolean trustForwardedFor) { this.trustForwardedFor = trustForwardedFor; }
+
+    public int getStripes() { return stripes; }
+    public void setStripes(int stripes) { this.stripes = stripes; }
+
+    public int getMaxClientsPerStripe() { return maxClientsPerStripe; }
+    public void setMaxClientsPerStripe(int maxClientsPerStripe) { this.maxClientsPerStripe = maxClientsPerStripe; }
+
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public List<Route> getRoutes() { return routes; }
+    public void setRoutes(List<Route> routes) { this.routes = routes; }
+
+    public Concurrency getConcurrency() { return concurrency; }
+    public void setConcurrency(Concurrency concurrency) { this.concurrency = concurrency; }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket for one client on one route.
+ * - Implemented as GCRA ("theoretical arrival time"): the whole state is one AtomicLong, so acquiring is a single CAS.
+ * - capacity = burst size, refillPerSecond = sustained rate.
+ * - Times are System.nanoTime() values passed in by the caller (makes it easy to test).
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos; // time it takes to earn one token
+    private final long burstNanos;    // capacity expressed as time
+    private final AtomicLong theoreticalArrival;
+    private volatile long lastSeenNanos;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be >= 1 and refillPerSecond > 0");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.lastSeenNanos = nowNanos;
+    }
+
+    /**
+     * Tries to take one token.
+     * @return 0 if the request may go through, otherwise how many nanos until a token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        lastSeenNanos = nowNanos;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long lastSeenNanos() {
+        return lastSeenNanos;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out primary or replica connections.
+ * - Read-only transactions (@Transactional(readOnly = true), which includes Spring Data's findAll/findById)
+ *   go to a healthy replica, round robin. Everything else goes to the primary.
+ * - A caller pinned by RoutingContext (recent writer) always gets the primary.
+ * - A replica that fails to hand out a connection is marked down and the primary is used instead;
+ *   checkHealth() brings it back once it answers again. No healthy replica = primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection before
+ * the read-only flag is bound to the thread, the proxy delays that until the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final int healthCheckTimeoutSeconds;
+
+    private final Counter toPrimary;
+    private final Counter toReplica;
+    private final Counter fallbacks;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, int healthCheckTimeoutSeconds,
+                                        MeterRegistry registry) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.healthCheckTimeoutSeconds = Math.max(1, healthCheckTimeoutSeconds);
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        this.toPrimary = meters.counter("datasource.routing.connections", "target", "primary");
+        this.toReplica = meters.counter("datasource.routing.connections", "target", "replica");
+        this.fallbacks = meters.counter("datasource.routing.fallbacks");
+        meters.gauge("datasource.routing.replicas.healthy", this, ReadReplicaRoutingDataSource::healthyReplicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(username, password);
+    }
+
+    private Connection connect(String username, String password) throws SQLException {
+        if (routeToReplica()) {
+            Replica replica = pickReplica();
+            if (replica != null) {
+                try {
+                    Connection con = open(replica.dataSource, username, password);
+                    toReplica.increment();
+                    return con;
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            fallbacks.increment();
+        }
+        toPrimary.increment();
+        return open(primary, username, password);
+    }
+
+    private boolean routeToReplica() {
+        return !replicas.isEmpty()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !RoutingContext.isPinnedToPrimary();
+    }
+
+    private Replica pickReplica() {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.healthy) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    private static Connection open(DataSource ds, String username, String password) throws SQLException {
+        return username == null ? ds.getConnection() : ds.getConnection(username, password);
+    }
+
+    /** Probes every replica once. */
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval:PT10S}")
+    public void checkHealth() {
+        for (Replica r : replicas) {
+            try (Connection con = r.dataSource.getConnection()) {
+                if (con.isValid(healthCheckTimeoutSeconds)) {
+                    r.markUp();
+                } else {
+                    r.markDown(null);
+                }
+            } catch (SQLException e) {
+                r.markDown(e);
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (Replica r : replicas) {
+            if (r.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public int replicaCount() {
+        return replicas.size();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica r : replicas) {
+            closeQuietly(r.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    private static void closeQuietly(DataSource ds) {
+        if (ds instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Closing {} failed", ds, e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markDown(SQLException cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Read replica {} is down, reads fall back to the primary: {}", name,
+                        cause != null ? cause.getMessage() : "connection not valid");
+            }
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Read replica {} is back", name);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.replica;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes for replica routing.
+ * - A successful POST/PUT/PATCH/DELETE records the caller as a recent writer. The caller is the
+ *   authenticated principal, else the client IP (ClientKeyResolver); never the client-sent X-User-Id.
+ * - Requests from a recent writer are pinned to the primary for the rest of the window.
+ * - RecentWriters lives in this process only: with several instances, a read that lands on another
+ *   instance than the write isn't pinned. Fine for one dyno; more need sticky sessions or a shared store.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final RecentWriters writers;
+    private final ClientKeyResolver clientKeys;
+
+    public ReadYourWritesFilter(RecentWriters writers, ClientKeyResolver clientKeys) {
+        this.writers = writers;
+        this.clientKeys = clientKeys;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = clientKeys.resolve(request);
+        boolean write = isWrite(request.getMethod());
+        if (write || writers.wroteRecently(key, System.nanoTime())) {
+            // a write request reads its own changes too (e.g. find then save), keep it on one node
+            RoutingContext.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+            if (write && response.getStatus() < 400) {
+                writers.recordWrite(key, System.nanoTime());
+            }
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.replica;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each caller last wrote, for the read-your-writes window.
+ * Entries older than the window are useless, sweep() drops them.
+ */
+public class RecentWriters {
+
+    private final ConcurrentHashMap<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public RecentWriters(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    public void recordWrite(String key, long nowNanos) {
+        lastWrite.put(key, nowNanos);
+    }
+
+    public boolean wroteRecently(String key, long nowNanos) {
+        Long at = lastWrite.get(key);
+        return at != null && nowNanos - at < windowNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval:PT10S}")
+    public void sweep() {
+        sweep(System.nanoTime());
+    }
+
+    public void sweep(long nowNanos) {
+        lastWrite.values().removeIf(at -> nowNanos - at >= windowNanos);
+    }
+
+    public int size() {
+        return lastWrite.size();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.replica;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-replica routing, off unless datasource.routing.enabled=true.
+ * Replaces Boot's DataSource with LazyConnectionDataSourceProxy -> ReadReplicaRoutingDataSource, which
+ * owns the primary pool (spring.datasource.* / spring.datasource.hikari.*) and one pool per replica.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+            DataSourceProperties primaryProps, ReplicaRoutingProperties props, Environment env, MeterRegistry registry) {
+        HikariDataSource primary = primaryProps.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < props.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica r = props.getReplicas().get(i);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(r.getUrl())
+                    .username(r.getUsername())
+                    .password(r.getPassword())
+                    .driverClassName(r.getDriverClassName())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(r.getMaxPoolSize());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadReplicaRoutingDataSource(primary, replicas,
+                (int) props.getHealthCheckTimeout().toSeconds(), registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public RecentWriters recentWriters(ReplicaRoutingProperties props, MeterRegistry registry) {
+        RecentWriters writers = new RecentWriters(props.getReadYourWritesWindow().toNanos());
+        Gauge.builder("datasource.routing.recent_writers", writers, RecentWriters::size).register(registry);
+        return writers;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(RecentWriters writers,
+            @Value("${ratelimit.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        // same caller identity as rate limiting, whether or not that is switched on
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(writers, new ClientKeyResolver(trustForwardedFor)));
+        registration.addUrlPatterns("/*");
+        // after rate limiting, before anything that touches the database (idempotency is at +20)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        return registration;
+    }
+}
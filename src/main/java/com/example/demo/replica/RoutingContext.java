@@ -0,0 +1,53 @@
+package com.example.demo.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing hint set by ReadYourWritesFilter: when pinned, read-only work goes to the primary
+ * too, because this caller wrote something recently and a replica may not have it yet.
+ * Work handed to another thread must carry the pin along: see {@link #propagate} and {@link #callAs}.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /** Runs the task with the given pin state on the current thread, then restores the thread's own. */
+    public static <T> T callAs(boolean pinned, Supplier<T> task) {
+        Boolean previous = PINNED.get();
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        }
+    }
+
+    /** Wraps the task so it runs with the calling thread's pin state, wherever it is executed. */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        boolean pinned = isPinnedToPrimary();
+        return () -> callAs(pinned, task);
+    }
+}
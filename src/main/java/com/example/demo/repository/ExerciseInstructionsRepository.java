@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ExerciseInstructions;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// the cold half of the catalog, keyed by exercise id; read one at a time on demand
+public interface ExerciseInstructionsRepository extends JpaRepository<ExerciseInstructions, Long> {
+}
@@ -2,9 +2,11 @@ package com.example.demo.repository;
 
 import com.example.demo.model.ExerciseEntity;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 // JpaRepository gives you CRUD operations automatically
 public interface ExerciseRepository extends JpaRepository<ExerciseEntity, Long> {
@@ -12,5 +14,10 @@ public interface ExerciseRepository extends JpaRepository<ExerciseEntity, Long>
     // Custom CRUD operations interface definition here
 
     // custom finding exercise details by name, so defining here. this gets translated to something like SELECT..from..WHERE name = ""
+    @Transactional(readOnly = true)
     List<ExerciseEntity> findByName(String name);
+
+    // batch version: one SELECT..WHERE name IN (...) instead of one query per name
+    @Transactional(readOnly = true)
+    List<ExerciseEntity> findByNameIn(Collection<String> names);
 }
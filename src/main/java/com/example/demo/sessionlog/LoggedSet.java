@@ -0,0 +1,19 @@
+package com.example.demo.sessionlog;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.Instant;
+
+/**
+ * One set in POST /api/sessions/{userId}/sets. performedAt defaults to the time the request arrives.
+ */
+public record LoggedSet(
+        @NotBlank String exerciseName,
+        @NotNull @PositiveOrZero Double weightKg,
+        @Min(1) @Max(1000) int reps,
+        Instant performedAt
+) {}
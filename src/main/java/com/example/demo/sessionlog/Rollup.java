@@ -0,0 +1,26 @@
+package com.example.demo.sessionlog;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * A row of set_log_daily / set_log_weekly: totals for one user, exercise and bucket
+ * (the UTC day, or the Monday that starts the ISO week).
+ */
+public record Rollup(LocalDate bucket, String exerciseName, int sets, long reps, double volume, double maxWeight) {
+
+    public enum Granularity {
+        DAY("set_log_daily"), WEEK("set_log_weekly");
+
+        final String table;
+
+        Granularity(String table) {
+            this.table = table;
+        }
+
+        LocalDate bucketOf(LocalDate day) {
+            return this == DAY ? day : day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    }
+}
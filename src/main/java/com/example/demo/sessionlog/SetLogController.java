@@ -0,0 +1,96 @@
+package com.example.demo.sessionlog;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * What users actually performed, as opposed to the plan in /api/workout.
+ * Times are ISO-8601 instants; day and week buckets are UTC (weeks start on Monday).
+ */
+@RestController
+@RequestMapping("/api/sessions")
+public class SetLogController {
+
+    private final SetLogWriter writer;
+    private final SetLogRepository repository;
+    private final int maxSetsPerRequest;
+    private final int maxRows;
+
+    public SetLogController(SetLogWriter writer, SetLogRepository repository,
+                            @Value("${session-log.max-sets-per-request:500}") int maxSetsPerRequest,
+                            @Value("${session-log.max-rows:5000}") int maxRows) {
+        this.writer = writer;
+        this.repository = repository;
+        this.maxSetsPerRequest = maxSetsPerRequest;
+        this.maxRows = maxRows;
+    }
+
+    // appends the sets; 201 once they (and their rollups) are committed
+    @PostMapping("/{userId}/sets")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void log(@PathVariable String userId, @RequestBody List<@Valid LoggedSet> sets) {
+        if (sets.isEmpty() || sets.size() > maxSetsPerRequest) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + maxSetsPerRequest + " sets per request, got " + sets.size());
+        }
+        Instant now = Instant.now();
+        List<SetRecord> records = sets.stream()
+                .map(s -> new SetRecord(null, userId, s.exerciseName(), s.performedAt() != null ? s.performedAt() : now,
+                        s.weightKg(), s.reps()))
+                .toList();
+        try {
+            writer.append(records);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    // raw sets in [from, to), default the last 7 days; ?exercise= narrows it to one exercise
+    @GetMapping("/{userId}/sets")
+    public List<SetRecord> sets(@PathVariable String userId,
+                                @RequestParam(required = false) Instant from,
+                                @RequestParam(required = false) Instant to,
+                                @RequestParam(required = false) String exercise,
+                                @RequestParam(required = false) Integer limit) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        int rows = limit == null ? maxRows : Math.max(1, Math.min(limit, maxRows));
+        return repository.findSets(userId, start, end, exercise, rows);
+    }
+
+    // totals per day or week (?granularity=day|week) and exercise, from the rollups; default the last 12 weeks
+    @GetMapping("/{userId}/history")
+    public List<Rollup> history(@PathVariable String userId,
+                                @RequestParam(defaultValue = "week") String granularity,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(required = false) String exercise) {
+        Rollup.Granularity g;
+        try {
+            g = Rollup.Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be day or week");
+        }
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        LocalDate start = from != null ? from : end.minusWeeks(12);
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        return repository.history(userId, g, start, end, exercise);
+    }
+}
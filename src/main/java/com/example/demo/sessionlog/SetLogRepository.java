@@ -0,0 +1,69 @@
+package com.example.demo.sessionlog;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads of the set log. Raw rows are found through (user_id, performed_at), which on MySQL also prunes
+ * the query to the partitions of the requested months; history charts read the rollup tables only.
+ * All ranges are half-open: from inclusive, to exclusive.
+ */
+@Repository
+public class SetLogRepository {
+
+    private final SetLogSchema schema;
+    private final JdbcTemplate jdbc;
+
+    public SetLogRepository(SetLogSchema schema, DataSource dataSource) {
+        this.schema = schema;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    /** The user's sets in [from, to), oldest first, optionally for one exercise; at most limit rows. */
+    public List<SetRecord> findSets(String userId, Instant from, Instant to, String exerciseName, int limit) {
+        schema.ensure();
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, user_id, exercise_name, performed_at, weight_kg, reps FROM set_log
+                WHERE user_id = ? AND performed_at >= ? AND performed_at < ?""");
+        List<Object> args = new ArrayList<>(List.of(userId, utc(from), utc(to)));
+        if (exerciseName != null) {
+            sql.append(" AND exercise_name = ?");
+            args.add(exerciseName);
+        }
+        sql.append(" ORDER BY performed_at, id LIMIT ?");
+        args.add(limit);
+        return jdbc.query(sql.toString(), (rs, i) -> new SetRecord(rs.getLong("id"), rs.getString("user_id"),
+                rs.getString("exercise_name"), rs.getObject("performed_at", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                rs.getDouble("weight_kg"), rs.getInt("reps")), args.toArray());
+    }
+
+    /** Daily or weekly totals per exercise for buckets in [from, to), oldest first. */
+    public List<Rollup> history(String userId, Rollup.Granularity granularity, LocalDate from, LocalDate to,
+                                String exerciseName) {
+        schema.ensure();
+        StringBuilder sql = new StringBuilder("SELECT bucket, exercise_name, sets, reps, volume, max_weight FROM ")
+                .append(granularity.table)
+                .append(" WHERE user_id = ? AND bucket >= ? AND bucket < ?");
+        List<Object> args = new ArrayList<>(List.of(userId, granularity.bucketOf(from), to));
+        if (exerciseName != null) {
+            sql.append(" AND exercise_name = ?");
+            args.add(exerciseName);
+        }
+        sql.append(" ORDER BY bucket, exercise_name");
+        return jdbc.query(sql.toString(), (rs, i) -> new Rollup(rs.getObject("bucket", LocalDate.class),
+                rs.getString("exercise_name"), rs.getInt("sets"), rs.getLong("reps"), rs.getDouble("volume"),
+                rs.getDouble("max_weight")), args.toArray());
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
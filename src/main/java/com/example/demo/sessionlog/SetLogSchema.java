@@ -0,0 +1,198 @@
+package com.example.demo.sessionlog;
+
+import com.example.demo.jdbc.SqlDialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Tables of the set log; created with plain DDL on first use (Hibernate can't declare partitions).
+ * - set_log: the raw, append-only rows. On MySQL it is RANGE-partitioned by month of performed_at
+ *   (p202610 holds October 2026, p_start everything older than the first partition, p_future the rest),
+ *   so range queries only touch the months they ask for and old months are dropped as a whole.
+ *   Partitions for the next session-log.partition-months-ahead months are added by maintainPartitions().
+ * - set_log_daily / set_log_weekly: rollups keyed by (user_id, bucket, exercise_name), kept by the writer.
+ *   They are never dropped, so history charts outlive session-log.retention-months of raw rows.
+ * Other databases get the same tables without partitions.
+ */
+@Component
+public class SetLogSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(SetLogSchema.class);
+
+    static final String TABLE = "set_log";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Clock clock;
+    private volatile SqlDialect dialect;
+
+    public SetLogSchema(DataSource dataSource,
+                        @Value("${session-log.partition-months-ahead:3}") int monthsAhead,
+                        @Value("${session-log.retention-months:0}") int retentionMonths) {
+        this(dataSource, monthsAhead, retentionMonths, Clock.systemUTC());
+    }
+
+    SetLogSchema(DataSource dataSource, int monthsAhead, int retentionMonths, Clock clock) {
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = retentionMonths;
+        this.clock = clock;
+    }
+
+    /** Creates the tables if needed (once per process) and returns the dialect the SQL should be written for. */
+    public SqlDialect ensure() {
+        SqlDialect d = dialect;
+        if (d == null) {
+            synchronized (this) {
+                d = dialect;
+                if (d == null) {
+                    d = SqlDialect.of(dataSource);
+                    create(d);
+                    dialect = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    private void create(SqlDialect d) {
+        if (d == SqlDialect.MYSQL) {
+            YearMonth current = YearMonth.now(clock);
+            List<YearMonth> months = new ArrayList<>();
+            for (int i = 0; i <= monthsAhead; i++) {
+                months.add(current.plusMonths(i));
+            }
+            StringJoiner partitions = new StringJoiner(",\n  ", "(\n  ", ")");
+            partitions.add("PARTITION p_start VALUES LESS THAN (TO_DAYS('" + current.atDay(1) + "'))");
+            months.forEach(m -> partitions.add(partitionClause(m)));
+            partitions.add("PARTITION p_future VALUES LESS THAN MAXVALUE");
+            // the partitioning column has to be part of every unique key, hence (id, performed_at)
+            jdbc.execute("""
+                    CREATE TABLE IF NOT EXISTS set_log (
+                      id BIGINT NOT NULL AUTO_INCREMENT,
+                      user_id VARCHAR(255) NOT NULL,
+                      exercise_name VARCHAR(255) NOT NULL,
+                      performed_at DATETIME(3) NOT NULL,
+                      weight_kg DOUBLE NOT NULL,
+                      reps INT NOT NULL,
+                      PRIMARY KEY (id, performed_at),
+                      KEY idx_set_log_user_time (user_id, performed_at)
+                    ) PARTITION BY RANGE (TO_DAYS(performed_at)) """ + partitions);
+        } else {
+            jdbc.execute("""
+                    CREATE TABLE IF NOT EXISTS set_log (
+                      id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                      user_id VARCHAR(255) NOT NULL,
+                      exercise_name VARCHAR(255) NOT NULL,
+                      performed_at TIMESTAMP(3) NOT NULL,
+                      weight_kg DOUBLE PRECISION NOT NULL,
+                      reps INT NOT NULL)""");
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_set_log_user_time ON set_log (user_id, performed_at)");
+        }
+        for (Rollup.Granularity g : Rollup.Granularity.values()) {
+            jdbc.execute("""
+                    CREATE TABLE IF NOT EXISTS %s (
+                      user_id VARCHAR(255) NOT NULL,
+                      bucket DATE NOT NULL,
+                      exercise_name VARCHAR(255) NOT NULL,
+                      sets INT NOT NULL,
+                      reps BIGINT NOT NULL,
+                      volume DOUBLE PRECISION NOT NULL,
+                      max_weight DOUBLE PRECISION NOT NULL,
+                      PRIMARY KEY (user_id, bucket, exercise_name))""".formatted(g.table));
+        }
+    }
+
+    /** Adds the coming months' partitions and drops months past the retention (MySQL only). */
+    @Scheduled(fixedDelayString = "${session-log.maintenance-interval:PT6H}")
+    public void maintainPartitions() {
+        try {
+            if (ensure() != SqlDialect.MYSQL) {
+                return;
+            }
+            List<String> existing = jdbc.queryForList("""
+                    SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'set_log' AND PARTITION_NAME IS NOT NULL""",
+                    String.class);
+            YearMonth current = YearMonth.now(clock);
+            List<YearMonth> add = monthsToAdd(existing, current, monthsAhead);
+            if (!add.isEmpty()) {
+                StringJoiner into = new StringJoiner(", ", "(", ")");
+                add.forEach(m -> into.add(partitionClause(m)));
+                into.add("PARTITION p_future VALUES LESS THAN MAXVALUE");
+                jdbc.execute("ALTER TABLE set_log REORGANIZE PARTITION p_future INTO " + into);
+                log.info("Added set_log partitions for {}", add);
+            }
+            List<String> drop = partitionsToDrop(existing, current, retentionMonths);
+            if (!drop.isEmpty()) {
+                jdbc.execute("ALTER TABLE set_log DROP PARTITION " + String.join(", ", drop));
+                log.info("Dropped set_log partitions {} (retention {} months)", drop, retentionMonths);
+            }
+        } catch (DataAccessException e) {
+            log.warn("set_log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /** Months after the newest monthly partition, up to current + ahead. */
+    static List<YearMonth> monthsToAdd(Collection<String> existing, YearMonth current, int ahead) {
+        YearMonth newest = null;
+        for (String name : existing) {
+            YearMonth month = monthOf(name);
+            if (month != null && (newest == null || month.isAfter(newest))) {
+                newest = month;
+            }
+        }
+        List<YearMonth> add = new ArrayList<>();
+        YearMonth next = newest == null ? current : newest.plusMonths(1);
+        for (YearMonth last = current.plusMonths(ahead); !next.isAfter(last); next = next.plusMonths(1)) {
+            add.add(next);
+        }
+        return add;
+    }
+
+    /** Monthly partitions that ended more than retentionMonths before the current month; none if 0. */
+    static List<String> partitionsToDrop(Collection<String> existing, YearMonth current, int retentionMonths) {
+        List<String> drop = new ArrayList<>();
+        if (retentionMonths <= 0) {
+            return drop;
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String name : existing) {
+            YearMonth month = monthOf(name);
+            if (month != null && month.isBefore(oldestKept)) {
+                drop.add(name);
+            }
+        }
+        return drop;
+    }
+
+    private static String partitionClause(YearMonth month) {
+        return "PARTITION " + PARTITION_NAME.format(month) + " VALUES LESS THAN (TO_DAYS('"
+                + month.plusMonths(1).atDay(1) + "'))";
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        if (partitionName == null || !partitionName.matches("p\\d{6}")) {
+            return null; // p_start, p_future
+        }
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)), Integer.parseInt(partitionName.substring(5)));
+    }
+}
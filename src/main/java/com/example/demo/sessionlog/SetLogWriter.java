@@ -0,0 +1,251 @@
+package com.example.demo.sessionlog;
+
+import com.example.demo.jdbc.SqlDialect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write path of the set log: group commit.
+ * - append() queues the caller's sets and blocks until they are committed, so a 2xx means durable.
+ * - One flusher thread takes everything queued (up to session-log.batch-size rows) and writes it in a
+ *   single transaction: one JDBC batch of INSERTs into set_log (multi-row with rewriteBatchedStatements on
+ *   MySQL), then one upsert per touched (user, day/week, exercise) that adds the batch's totals to the
+ *   rollups. Under load many requests share a commit; when idle a request is written right away.
+ * - If a shared batch fails, its requests are retried one by one, so a bad request only fails itself.
+ * - A full queue (session-log.queue-capacity requests) rejects instead of piling up threads.
+ */
+@Component
+public class SetLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SetLogWriter.class);
+
+    private static final String INSERT = """
+            INSERT INTO set_log (user_id, exercise_name, performed_at, weight_kg, reps) VALUES (?, ?, ?, ?, ?)""";
+
+    private static final String MYSQL_ROLLUP = """
+            INSERT INTO %s (user_id, bucket, exercise_name, sets, reps, volume, max_weight)
+            VALUES (?, ?, ?, ?, ?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE sets = sets + new.sets, reps = reps + new.reps,
+              volume = volume + new.volume, max_weight = GREATEST(max_weight, new.max_weight)""";
+
+    private static final String H2_ROLLUP = """
+            MERGE INTO %s t
+            USING (SELECT CAST(? AS VARCHAR(255)) AS user_id, CAST(? AS DATE) AS bucket,
+                          CAST(? AS VARCHAR(255)) AS exercise_name, CAST(? AS INT) AS sets, CAST(? AS BIGINT) AS reps,
+                          CAST(? AS DOUBLE PRECISION) AS volume, CAST(? AS DOUBLE PRECISION) AS max_weight) s
+            ON t.user_id = s.user_id AND t.bucket = s.bucket AND t.exercise_name = s.exercise_name
+            WHEN MATCHED THEN UPDATE SET sets = t.sets + s.sets, reps = t.reps + s.reps, volume = t.volume + s.volume,
+                 max_weight = GREATEST(t.max_weight, s.max_weight)
+            WHEN NOT MATCHED THEN INSERT (user_id, bucket, exercise_name, sets, reps, volume, max_weight)
+                 VALUES (s.user_id, s.bucket, s.exercise_name, s.sets, s.reps, s.volume, s.max_weight)""";
+
+    private static final String PORTABLE_ROLLUP_UPDATE = """
+            UPDATE %s SET sets = sets + ?, reps = reps + ?, volume = volume + ?,
+              max_weight = CASE WHEN max_weight < ? THEN ? ELSE max_weight END
+            WHERE user_id = ? AND bucket = ? AND exercise_name = ?""";
+
+    private static final String PORTABLE_ROLLUP_INSERT = """
+            INSERT INTO %s (user_id, bucket, exercise_name, sets, reps, volume, max_weight) VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final Pending STOP = new Pending(List.of());
+
+    private final SetLogSchema schema;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+    private final Thread flusher;
+    private final DistributionSummary batchRows;
+    private final Timer flushTimer;
+
+    @Autowired
+    public SetLogWriter(SetLogSchema schema, DataSource dataSource, PlatformTransactionManager txManager,
+                        @Value("${session-log.batch-size:1000}") int batchSize,
+                        @Value("${session-log.queue-capacity:2000}") int queueCapacity,
+                        MeterRegistry registry) {
+        this.schema = schema;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        this.batchRows = DistributionSummary.builder("sessionlog.batch.rows").register(meters);
+        this.flushTimer = Timer.builder("sessionlog.flush").register(meters);
+        meters.gauge("sessionlog.queue", queue, BlockingQueue::size);
+        this.flusher = new Thread(this::run, "set-log-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    private static final class Pending {
+        final List<SetRecord> records;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(List<SetRecord> records) {
+            this.records = records;
+        }
+    }
+
+    private record Key(String userId, LocalDate bucket, String exerciseName) {
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::userId)
+                .thenComparing(Key::bucket).thenComparing(Key::exerciseName);
+    }
+
+    private static final class Totals {
+        int sets;
+        long reps;
+        double volume;
+        double maxWeight;
+    }
+
+    /**
+     * Writes the sets and returns once they are committed, together with their rollup increments.
+     * @throws RejectedExecutionException when the write queue is full
+     */
+    public void append(List<SetRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Pending pending = new Pending(List.copyOf(records));
+        if (!flusher.isAlive() || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Set log write queue is full");
+        }
+        try {
+            pending.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the set log commit", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        queue.put(STOP); // everything queued before it is still written
+        flusher.join(10_000);
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (true) {
+                Pending first = queue.take();
+                if (first == STOP) {
+                    return;
+                }
+                batch.add(first);
+                int rows = first.records.size();
+                Pending next;
+                while (rows < batchSize && (next = queue.peek()) != null && next != STOP) {
+                    batch.add(queue.poll());
+                    rows += next.records.size();
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RejectedExecutionException closed = new RejectedExecutionException("Set log writer stopped");
+            batch.forEach(p -> p.done.completeExceptionally(closed));
+            queue.forEach(p -> p.done.completeExceptionally(closed));
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            write(batch);
+            batch.forEach(p -> p.done.complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).done.completeExceptionally(e);
+                return;
+            }
+            log.debug("Set log batch of {} requests failed ({}), writing them one by one", batch.size(), e.toString());
+            for (Pending p : batch) {
+                try {
+                    write(List.of(p));
+                    p.done.complete(null);
+                } catch (RuntimeException single) {
+                    p.done.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        SqlDialect dialect = schema.ensure();
+        List<Object[]> rows = new ArrayList<>();
+        Map<Rollup.Granularity, Map<Key, Totals>> rollups = new EnumMap<>(Rollup.Granularity.class);
+        for (Pending p : batch) {
+            for (SetRecord r : p.records) {
+                rows.add(new Object[]{r.userId(), r.exerciseName(),
+                        LocalDateTime.ofInstant(r.performedAt(), ZoneOffset.UTC), r.weightKg(), r.reps()});
+                LocalDate day = LocalDateTime.ofInstant(r.performedAt(), ZoneOffset.UTC).toLocalDate();
+                for (Rollup.Granularity g : Rollup.Granularity.values()) {
+                    // sorted keys: concurrent writers (other instances) lock rollup rows in the same order
+                    Totals t = rollups.computeIfAbsent(g, k -> new TreeMap<>(Key.ORDER))
+                            .computeIfAbsent(new Key(r.userId(), g.bucketOf(day), r.exerciseName()), k -> new Totals());
+                    t.sets++;
+                    t.reps += r.reps();
+                    t.volume += r.volume();
+                    t.maxWeight = Math.max(t.maxWeight, r.weightKg());
+                }
+            }
+        }
+        long start = System.nanoTime();
+        tx.executeWithoutResult(status -> {
+            jdbc.batchUpdate(INSERT, rows);
+            rollups.forEach((g, totals) -> upsertRollups(dialect, g, totals));
+        });
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchRows.record(rows.size());
+    }
+
+    private void upsertRollups(SqlDialect dialect, Rollup.Granularity g, Map<Key, Totals> totals) {
+        if (dialect == SqlDialect.OTHER) {
+            totals.forEach((k, t) -> {
+                int updated = jdbc.update(PORTABLE_ROLLUP_UPDATE.formatted(g.table), t.sets, t.reps, t.volume,
+                        t.maxWeight, t.maxWeight, k.userId(), k.bucket(), k.exerciseName());
+                if (updated == 0) {
+                    jdbc.update(PORTABLE_ROLLUP_INSERT.formatted(g.table), k.userId(), k.bucket(), k.exerciseName(),
+                            t.sets, t.reps, t.volume, t.maxWeight);
+                }
+            });
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(totals.size());
+        totals.forEach((k, t) -> args.add(new Object[]{k.userId(), k.bucket(), k.exerciseName(),
+                t.sets, t.reps, t.volume, t.maxWeight}));
+        jdbc.batchUpdate((dialect == SqlDialect.MYSQL ? MYSQL_ROLLUP : H2_ROLLUP).formatted(g.table), args);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.sessionlog;
+
+import java.time.Instant;
+
+/**
+ * One performed set: who, which exercise, when, how heavy and how many reps.
+ * id is null until the row is in set_log.
+ */
+public record SetRecord(Long id, String userId, String exerciseName, Instant performedAt, double weightKg, int reps) {
+
+    /** weight x reps, the quantity the rollups sum up. */
+    public double volume() {
+        return weightKg * reps;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hashing ring: every shard gets virtualNodes points on a 64-bit ring, a user belongs to the
+ * first point at or after hash(userId). Adding a shard only moves the users that land on its new points
+ * (about 1/n of them) instead of rehashing everybody like hash % n would; those users' rows still have to
+ * be moved to it, which is why ShardedWorkoutRepository refuses to start on a changed ring.
+ * The ring is two sorted parallel arrays, a lookup is one hash and a binary search.
+ */
+public class ConsistentHashShardResolver implements ShardResolver {
+
+    private final long[] points;
+    private final int[] owners;
+    private final int shardCount;
+    private final String fingerprint;
+
+    /** Shard names (not indexes) are hashed, so reordering the list doesn't move users around. */
+    public ConsistentHashShardResolver(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be >= 1");
+        }
+        this.shardCount = shardNames.size();
+        this.fingerprint = "consistent-hash;virtual-nodes=" + virtualNodes + ";shards=" + String.join(",", shardNames);
+        int n = shardCount * virtualNodes;
+        long[] keyed = new long[n];
+        int[] owner = new int[n];
+        Integer[] order = new Integer[n];
+        for (int s = 0, i = 0; s < shardCount; s++) {
+            for (int v = 0; v < virtualNodes; v++, i++) {
+                keyed[i] = hash(shardNames.get(s) + "#" + v);
+                owner[i] = s;
+                order[i] = i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        this.points = new long[n];
+        this.owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = keyed[order[i]];
+            owners[i] = owner[order[i]];
+        }
+    }
+
+    @Override
+    public int shardFor(String userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required to pick a shard");
+        }
+        int i = Arrays.binarySearch(points, hash(userId));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i]; // past the last point wraps around to the first
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    /** FNV-1a over the UTF-8 bytes plus a murmur3 finalizer, so similar ids spread over the whole ring. */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.shard;
+
+/**
+ * Maps a user to the shard (index into workout.sharding.shards) that owns all of their workout rows.
+ */
+public interface ShardResolver {
+
+    int shardFor(String userId);
+
+    int shardCount();
+
+    /**
+     * Identifies the mapping itself (shards, their order, hashing parameters): two resolvers with the same
+     * fingerprint send every user to the same shard index. ShardedWorkoutRepository.checkRing() stores it.
+     */
+    String fingerprint();
+}
@@ -0,0 +1,532 @@
+package com.example.demo.shard;
+
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutRepository;
+import com.example.demo.workout.WorkoutUpsert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * WorkoutRepository over N databases, each holding a disjoint set of users; ShardingConfig makes it
+ * the primary WorkoutRepository when workout.sharding.enabled=true.
+ * - Everything keyed by userId goes to the one shard the ShardResolver picks.
+ * - Ids handed out are global: localId * MAX_SHARDS + shard index, so findById/deleteById know where to
+ *   go and ordering by global id matches ordering by local id within every shard.
+ * - findAll/count run on all shards in parallel (bounded pool) and merge. Offset pages cost
+ *   offset + size rows per shard; findAllAfter (keyset) only ever reads size rows per shard.
+ * - A scatter that doesn't fit the pool's queue throws RejectedExecutionException (callers answer 503).
+ *   Every shard statement carries a JDBC query timeout of scatter-timeout (rounded up to seconds), so a
+ *   timed-out scatter's queries are cancelled by the database, not just abandoned.
+ * - save() is optimistic on the version like JPA.
+ * - checkRing() (called by ShardingConfig at startup) pins the resolver's fingerprint in every shard's
+ *   shard_ring table: a changed shard list would silently hide remapped users' rows, so it fails instead.
+ * Plain JDBC per shard, no JPA: one EntityManagerFactory per shard isn't worth it for one table.
+ */
+// the main database's transactions mean nothing to the shards: don't let WorkoutRepository's
+// @Transactional methods open one around these calls
+@Transactional(propagation = Propagation.SUPPORTS)
+public class ShardedWorkoutRepository implements WorkoutRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedWorkoutRepository.class);
+
+    public static final int MAX_SHARDS = 64;
+
+    private static final String COLUMNS = "id, user_id, workout_plan_name, exercise_name, day, sets, reps, version";
+    private static final List<String> COLUMN_NAMES = List.of(COLUMNS.split(", "));
+    private static final String KEY = "user_id = :userId AND workout_plan_name = :plan AND exercise_name = :exercise AND day = :day";
+
+    private static final String UPDATE_BY_KEY =
+            "UPDATE workout SET sets = :sets, reps = :reps, version = version + 1 WHERE " + KEY;
+    private static final String INSERT = """
+            INSERT INTO workout (user_id, workout_plan_name, exercise_name, day, sets, reps, version)
+            VALUES (:userId, :plan, :exercise, :day, :sets, :reps, 0)""";
+    private static final String SELECT_KEY = "SELECT id, version FROM workout WHERE " + KEY;
+    private static final String UPDATE_BY_ID = "UPDATE workout SET user_id = :userId, workout_plan_name = :plan,"
+            + " exercise_name = :exercise, day = :day, sets = :sets, reps = :reps, version = version + 1"
+            + " WHERE id = :id AND version = :version";
+
+    private static final String CREATE_RING_TABLE = """
+            CREATE TABLE IF NOT EXISTS shard_ring (
+              shard_index INT NOT NULL PRIMARY KEY,
+              fingerprint VARCHAR(2000) NOT NULL)""";
+
+    private final List<Shard> shards;
+    private final ShardResolver resolver;
+    private final ExecutorService executor;
+    private final long scatterTimeoutMillis;
+    private final int maxAttempts;
+
+    public ShardedWorkoutRepository(List<DataSource> dataSources, ShardResolver resolver, int scatterThreads,
+                                    long scatterTimeoutMillis, int maxAttempts) {
+        if (dataSources.size() != resolver.shardCount()) {
+            throw new IllegalArgumentException(dataSources.size() + " datasources for " + resolver.shardCount() + " shards");
+        }
+        if (dataSources.size() > MAX_SHARDS) {
+            throw new IllegalArgumentException("at most " + MAX_SHARDS + " shards are supported");
+        }
+        this.shards = new ArrayList<>();
+        int queryTimeoutSeconds = (int) Math.max(1, (scatterTimeoutMillis + 999) / 1000);
+        for (int i = 0; i < dataSources.size(); i++) {
+            shards.add(new Shard(i, dataSources.get(i), queryTimeoutSeconds));
+        }
+        this.resolver = resolver;
+        this.scatterTimeoutMillis = scatterTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        AtomicInteger count = new AtomicInteger();
+        int threads = Math.max(1, scatterThreads);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * MAX_SHARDS), r -> {
+                    Thread t = new Thread(r, "shard-scatter-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // ---- single-shard operations (same names as WorkoutRepository) ----
+
+    @Override
+    public List<Workout> findByUserIdAndWorkoutPlanNameAndDay(String userId, String workoutPlanName, String day) {
+        return shardOf(userId).query("SELECT " + COLUMNS + " FROM workout"
+                        + " WHERE user_id = :userId AND workout_plan_name = :plan AND day = :day ORDER BY id",
+                new MapSqlParameterSource("userId", userId).addValue("plan", workoutPlanName).addValue("day", day));
+    }
+
+    @Override
+    public Optional<Workout> findByUserIdAndWorkoutPlanNameAndExerciseName(String userId, String workoutPlanName,
+                                                                           String exerciseName) {
+        List<Workout> rows = shardOf(userId).query("SELECT " + COLUMNS + " FROM workout"
+                        + " WHERE user_id = :userId AND workout_plan_name = :plan AND exercise_name = :exercise ORDER BY id",
+                new MapSqlParameterSource("userId", userId).addValue("plan", workoutPlanName).addValue("exercise", exerciseName));
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<Workout> findByUserIdAndWorkoutPlanName(String userId, String workoutPlanName) {
+        return shardOf(userId).query("SELECT " + COLUMNS + " FROM workout"
+                        + " WHERE user_id = :userId AND workout_plan_name = :plan ORDER BY id",
+                new MapSqlParameterSource("userId", userId).addValue("plan", workoutPlanName));
+    }
+
+    @Override
+    public boolean existsByUserIdAndWorkoutPlanName(String userId, String workoutPlanName) {
+        Integer hit = shardOf(userId).jdbc.query(
+                "SELECT 1 FROM workout WHERE user_id = :userId AND workout_plan_name = :plan LIMIT 1",
+                new MapSqlParameterSource("userId", userId).addValue("plan", workoutPlanName),
+                rs -> rs.next() ? 1 : null);
+        return hit != null;
+    }
+
+    @Override
+    public void deleteByUserIdAndWorkoutPlanName(String userId, String workoutPlanName) {
+        shardOf(userId).jdbc.update("DELETE FROM workout WHERE user_id = :userId AND workout_plan_name = :plan",
+                new MapSqlParameterSource("userId", userId).addValue("plan", workoutPlanName));
+    }
+
+    @Override
+    public List<Workout> findByUserIdAndDay(String userId, String day) {
+        return shardOf(userId).query("SELECT " + COLUMNS + " FROM workout"
+                        + " WHERE user_id = :userId AND day = :day ORDER BY id",
+                new MapSqlParameterSource("userId", userId).addValue("day", day));
+    }
+
+    @Override
+    public List<String> findPlanNamesByUserId(String userId) {
+        return shardOf(userId).jdbc.queryForList(
+                "SELECT DISTINCT workout_plan_name FROM workout WHERE user_id = :userId ORDER BY workout_plan_name",
+                new MapSqlParameterSource("userId", userId), String.class);
+    }
+
+    /**
+     * Same contract as WorkoutUpsert, done portably: UPDATE by key, INSERT if nothing matched, and retry
+     * the whole thing when a concurrent first insert wins the unique key.
+     */
+    @Override
+    public WorkoutUpsert.Result upsert(Workout w) {
+        Shard shard = shardOf(w.getUserId());
+        MapSqlParameterSource params = params(w);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return shard.tx.execute(status -> {
+                    boolean updated = shard.jdbc.update(UPDATE_BY_KEY, params) > 0;
+                    if (!updated) {
+                        shard.jdbc.update(INSERT, params);
+                    }
+                    long[] row = shard.jdbc.queryForObject(SELECT_KEY, params,
+                            (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("version")});
+                    return new WorkoutUpsert.Result(updated ? WorkoutUpsert.Outcome.UPDATED : WorkoutUpsert.Outcome.INSERTED,
+                            globalId(shard.index, row[0]), row[1]);
+                });
+            } catch (DataIntegrityViolationException | TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Sharded upsert attempt {} on shard {} failed ({}), retrying",
+                        attempt, shard.index, e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /** Inserts rows without an id on their user's shard; updates the others if their version still matches. */
+    @Override
+    public <S extends Workout> S save(S w) {
+        Shard shard = shardOf(w.getUserId());
+        MapSqlParameterSource params = params(w);
+        if (w.getId() == null) {
+            KeyHolder keys = new GeneratedKeyHolder();
+            shard.jdbc.update(INSERT, params, keys, new String[]{"id"});
+            w.setId(globalId(shard.index, keys.getKey().longValue()));
+            w.setVersion(0);
+            return w;
+        }
+        if (shardOfId(w.getId()) != shard) {
+            throw new IllegalArgumentException("workout " + w.getId() + " cannot move to another user's shard");
+        }
+        params.addValue("id", localId(w.getId())).addValue("version", w.getVersion());
+        if (shard.jdbc.update(UPDATE_BY_ID, params) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Workout.class, w.getId());
+        }
+        w.setVersion(w.getVersion() + 1);
+        return w;
+    }
+
+    @Override
+    public <S extends Workout> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(w -> saved.add(save(w)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Workout> findById(Long id) {
+        Shard shard = shardOfId(id);
+        List<Workout> rows = shard.query("SELECT " + COLUMNS + " FROM workout WHERE id = :id",
+                new MapSqlParameterSource("id", localId(id)));
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Workout> findAllById(Iterable<Long> ids) {
+        List<Workout> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Shard shard = shardOfId(id);
+        shard.jdbc.update("DELETE FROM workout WHERE id = :id", new MapSqlParameterSource("id", localId(id)));
+    }
+
+    @Override
+    public void delete(Workout entity) {
+        if (entity.getId() != null) {
+            deleteById(entity.getId());
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Workout> entities) {
+        entities.forEach(this::delete);
+    }
+
+    // ---- cross-shard operations ----
+
+    @Override
+    public List<Workout> findAll() {
+        return merge(scatter(shard -> shard.query("SELECT " + COLUMNS + " FROM workout ORDER BY id",
+                new MapSqlParameterSource())));
+    }
+
+    /** Only unsorted or "id ascending" is supported. */
+    @Override
+    public List<Workout> findAll(Sort sort) {
+        checkSort(sort);
+        return findAll();
+    }
+
+    /** Page of all workouts ordered by id. Only unsorted or "id ascending" pageables are supported. */
+    @Override
+    public Page<Workout> findAll(Pageable pageable) {
+        checkSort(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll());
+        }
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<List<Workout>> perShard = scatter(shard -> shard.query(
+                "SELECT " + COLUMNS + " FROM workout ORDER BY id LIMIT :limit", params));
+        List<Workout> merged = merge(perShard);
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, count());
+    }
+
+    /**
+     * Only the given workout columns of every row, ordered by id (?fields= on GET /api/workout).
+     * @param columns column names out of id, user_id, workout_plan_name, exercise_name, day, sets, reps,
+     *                version; id must be one of them and comes back as the global id
+     */
+    public List<Object[]> findAllColumns(List<String> columns) {
+        for (String column : columns) {
+            if (!COLUMN_NAMES.contains(column)) {
+                throw new IllegalArgumentException("not a workout column: " + column);
+            }
+        }
+        int id = columns.indexOf("id");
+        if (id < 0) {
+            throw new IllegalArgumentException("id must be selected to merge the shards");
+        }
+        String sql = "SELECT " + String.join(", ", columns) + " FROM workout ORDER BY id";
+        List<List<Object[]>> perShard = scatter(shard -> shard.jdbc.query(sql, new MapSqlParameterSource(), (rs, n) -> {
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = i == id ? globalId(shard.index, rs.getLong(i + 1)) : rs.getObject(i + 1);
+            }
+            return row;
+        }));
+        List<Object[]> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(Comparator.comparingLong(row -> (Long) row[id]));
+        return merged;
+    }
+
+    /** Keyset page: up to limit workouts with a global id greater than afterId (>= 0), ordered by id. */
+    public List<Workout> findAllAfter(long afterId, int limit) {
+        if (afterId < 0) {
+            throw new IllegalArgumentException("afterId must be >= 0");
+        }
+        List<List<Workout>> perShard = scatter(shard -> shard.query(
+                "SELECT " + COLUMNS + " FROM workout WHERE id > :after ORDER BY id LIMIT :limit",
+                // global = local * MAX_SHARDS + index, so global > afterId <=> local > floor((afterId - index) / MAX_SHARDS)
+                new MapSqlParameterSource("after", Math.floorDiv(afterId - shard.index, MAX_SHARDS))
+                        .addValue("limit", limit)));
+        List<Workout> merged = merge(perShard);
+        return merged.size() <= limit ? merged : new ArrayList<>(merged.subList(0, limit));
+    }
+
+    @Override
+    public List<Workout> findTop1000ByIdGreaterThanOrderByIdAsc(Long id) {
+        return findAllAfter(id, 1000);
+    }
+
+    @Override
+    public long count() {
+        List<Long> counts = scatter(shard -> shard.jdbc.queryForObject(
+                "SELECT COUNT(*) FROM workout", new MapSqlParameterSource(), Long.class));
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteAll() {
+        scatter(shard -> shard.jdbc.update("DELETE FROM workout", new MapSqlParameterSource()));
+    }
+
+    public int shardFor(String userId) {
+        return resolver.shardFor(userId);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Records the resolver's fingerprint and this shard's index on every shard the first time, and
+     * afterwards fails if any shard was set up for a different ring or position.
+     * @throws IllegalStateException if the ring changed; the rows would have to be moved first
+     */
+    public void checkRing() {
+        String fingerprint = resolver.fingerprint();
+        for (Shard shard : shards) {
+            JdbcTemplate jdbc = shard.jdbc.getJdbcTemplate();
+            jdbc.execute(CREATE_RING_TABLE);
+            List<Map<String, Object>> rows = jdbc.queryForList("SELECT shard_index, fingerprint FROM shard_ring");
+            if (rows.isEmpty()) {
+                try {
+                    jdbc.update("INSERT INTO shard_ring (shard_index, fingerprint) VALUES (?, ?)", shard.index, fingerprint);
+                    log.info("Shard {} pinned to ring {}", shard.index, fingerprint);
+                    continue;
+                } catch (DataIntegrityViolationException e) {
+                    // another instance pinned it first
+                    rows = jdbc.queryForList("SELECT shard_index, fingerprint FROM shard_ring");
+                }
+            }
+            for (Map<String, Object> row : rows) {
+                int index = ((Number) row.get("shard_index")).intValue();
+                if (index != shard.index || !fingerprint.equals(row.get("fingerprint"))) {
+                    throw new IllegalStateException("Shard " + shard.index + " was set up as shard " + index
+                            + " of ring '" + row.get("fingerprint") + "', configured ring is '" + fingerprint
+                            + "'. Users would be remapped without their rows: move them, then update shard_ring.");
+                }
+            }
+        }
+    }
+
+    /** The pool of one shard, for jobs that work on a user's rows in bulk (ids there are local). */
+    public DataSource shardDataSource(int shard) {
+        return shards.get(shard).dataSource;
+    }
+
+    public static long globalId(int shard, long localId) {
+        return localId * MAX_SHARDS + shard;
+    }
+
+    public static int shardOfGlobalId(long id) {
+        return (int) Math.floorMod(id, (long) MAX_SHARDS);
+    }
+
+    static long localId(long globalId) {
+        return Math.floorDiv(globalId, MAX_SHARDS);
+    }
+
+    private Shard shardOf(String userId) {
+        return shards.get(resolver.shardFor(userId));
+    }
+
+    private Shard shardOfId(long id) {
+        int index = shardOfGlobalId(id);
+        if (index >= shards.size()) {
+            throw new IllegalArgumentException("id " + id + " does not belong to any shard");
+        }
+        return shards.get(index);
+    }
+
+    private static MapSqlParameterSource params(Workout w) {
+        return new MapSqlParameterSource()
+                .addValue("userId", w.getUserId())
+                .addValue("plan", w.getWorkoutPlanName())
+                .addValue("exercise", w.getExerciseName())
+                .addValue("day", w.getDay())
+                .addValue("sets", w.getSets())
+                .addValue("reps", w.getReps());
+    }
+
+    private static void checkSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("id") || order.isDescending()) {
+                throw new IllegalArgumentException("cross-shard paging only supports sorting by id ascending");
+            }
+        }
+    }
+
+    private static List<Workout> merge(List<List<Workout>> perShard) {
+        List<Workout> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(Comparator.comparing(Workout::getId));
+        return merged;
+    }
+
+    private <T> List<T> scatter(Function<Shard, T> query) {
+        // Futures from submit(), not CompletableFuture: cancel(true) has to interrupt the worker
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        try {
+            for (Shard shard : shards) {
+                futures.add(executor.submit(() -> query.apply(shard)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(scatterTimeoutMillis);
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> f : futures) {
+                results.add(f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("cross-shard query took longer than " + scatterTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("interrupted while waiting for shards");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // no-op for finished shards; stops the others after a timeout, a failure or a rejected submit
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (Shard shard : shards) {
+            if (shard.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Closing shard {} failed", shard.index, e);
+                }
+            }
+        }
+    }
+
+    private static final class Shard {
+        final int index;
+        final DataSource dataSource;
+        final NamedParameterJdbcTemplate jdbc;
+        final TransactionTemplate tx;
+        final RowMapper<Workout> rows;
+
+        Shard(int index, DataSource dataSource, int queryTimeoutSeconds) {
+            this.index = index;
+            this.dataSource = dataSource;
+            JdbcTemplate plain = new JdbcTemplate(dataSource);
+            plain.setQueryTimeout(queryTimeoutSeconds);
+            this.jdbc = new NamedParameterJdbcTemplate(plain);
+            this.tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.rows = (rs, i) -> {
+                Workout w = new Workout(rs.getString("user_id"), rs.getString("workout_plan_name"),
+                        rs.getString("exercise_name"), rs.getString("day"), rs.getInt("sets"), rs.getInt("reps"));
+                w.setId(globalId(index, rs.getLong("id")));
+                w.setVersion(rs.getLong("version"));
+                return w;
+            };
+        }
+
+        List<Workout> query(String sql, MapSqlParameterSource params) {
+            return jdbc.query(sql, params, rows);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded workout storage, off unless workout.sharding.enabled=true. When on, ShardedWorkoutRepository
+ * is the primary WorkoutRepository, so every caller reads and writes the shards instead of the main
+ * database's workout table (the JPA repository still exists but is no longer injected).
+ * The shard pools are owned by ShardedWorkoutRepository, not beans, so they never compete with the
+ * main DataSource for JPA / auto-configuration.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "workout.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardResolver shardResolver(ShardingProperties props) {
+        return new ConsistentHashShardResolver(
+                props.getShards().stream().map(ShardingProperties.Shard::getName).toList(), props.getVirtualNodes());
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ShardedWorkoutRepository shardedWorkoutRepository(ShardingProperties props, ShardResolver resolver,
+                                                             @Value("${workout.upsert.max-attempts:5}") int maxAttempts) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (ShardingProperties.Shard shard : props.getShards()) {
+            HikariDataSource ds = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            ds.setPoolName("shard-" + shard.getName());
+            ds.setMaximumPoolSize(shard.getMaxPoolSize());
+            dataSources.add(ds);
+        }
+        ShardedWorkoutRepository repository = new ShardedWorkoutRepository(dataSources, resolver,
+                props.getScatterThreads(), props.getScatterTimeout().toMillis(), maxAttempts);
+        try {
+            repository.checkRing();
+        } catch (RuntimeException e) {
+            repository.close();
+            throw e;
+        }
+        return repository;
+    }
+}
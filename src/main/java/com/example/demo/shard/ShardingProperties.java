@@ -0,0 +1,68 @@
+package com.example.demo.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings under "workout.sharding.*" (see application.properties).
+ * Every shard needs the workout table (same DDL as the main database).
+ * The shard list (names, order) and virtual-nodes decide which shard owns a user, and the position in the
+ * list is baked into workout ids. Changing either remaps users whose rows stay where they were, so each
+ * shard records the ring it was started with (shard_ring) and the app refuses to start on a different one.
+ * There is no rebalancing: adding a shard means moving the remapped users' rows first, then updating
+ * shard_ring on every shard by hand.
+ */
+@ConfigurationProperties(prefix = "workout.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private int virtualNodes = 128;
+    private int scatterThreads = 8;
+    private Duration scatterTimeout = Duration.ofSeconds(5);
+    private List<Shard> shards = new ArrayList<>();
+
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maxPoolSize = 10;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public String getDriverClassName() { return driverClassName; }
+        public void setDriverClassName(String driverClassName) { this.driverClassName = driverClassName; }
+
+        public int getMaxPoolSize() { return maxPoolSize; }
+        public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getVirtualNodes() { return virtualNodes; }
+    public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+
+    public int getScatterThreads() { return scatterThreads; }
+    public void setScatterThreads(int scatterThreads) { this.scatterThreads = scatterThreads; }
+
+    public Duration getScatterTimeout() { return scatterTimeout; }
+    public void setScatterTimeout(Duration scatterTimeout) { this.scatterTimeout = scatterTimeout; }
+
+    public List<Shard> getShards() { return shards; }
+    public void setShards(List<Shard> shards) { this.shards = shards; }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only method whose concurrent identical calls should be collapsed into one.
+ * - Calls are "identical" when they hit the same method with equal arguments.
+ * - The first caller (leader) runs the method, everyone else waits for and shares its result.
+ * - A follower that waits longer than {@link #timeoutMillis()} stops waiting and runs the call itself.
+ *
+ * Only put this on methods without side effects: the result object is handed to every waiting caller,
+ * on their own threads. Return immutable values, DTOs or detached copies, never managed JPA entities
+ * (they belong to the leader's persistence context and may lazy-load through it).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /** Name used for the key and the metric tag. Defaults to the method signature. */
+    String value() default "";
+
+    /** How long a follower waits on the in-flight call before falling back to its own call. */
+    long timeoutMillis() default 2000;
+}
@@ -0,0 +1,35 @@
+package com.example.demo.singleflight;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes every {@link SingleFlight} method through the {@link SingleFlightGroup}.
+ * Can be switched off with singleflight.enabled=false, checked per call so it also works in the AOT image.
+ */
+@Aspect
+@Component
+public class SingleFlightAspect {
+
+    private final SingleFlightGroup group;
+    private final boolean enabled;
+
+    public SingleFlightAspect(SingleFlightGroup group, @Value("${singleflight.enabled:true}") boolean enabled) {
+        this.group = group;
+        this.enabled = enabled;
+    }
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint pjp, SingleFlight singleFlight) throws Throwable {
+        if (!enabled) {
+            return pjp.proceed();
+        }
+        String name = singleFlight.value().isEmpty()
+                ? pjp.getSignature().toShortString()
+                : singleFlight.value();
+        return group.execute(name, pjp.getArgs(), singleFlight.timeoutMillis(), pjp::proceed);
+    }
+}
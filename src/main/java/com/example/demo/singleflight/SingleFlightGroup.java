@@ -0,0 +1,86 @@
+package com.example.demo.singleflight;
+
+import com.example.demo.replica.RoutingContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps track of in-flight calls so identical concurrent calls share one execution.
+ * - The map only holds calls that are running right now; finished calls are removed, so nothing is cached.
+ * - Callers pinned to the primary (RoutingContext, read-your-writes) only share with each other: a
+ *   leader reading from a replica might not see the write a pinned follower just made.
+ * - Metrics: "singleflight.calls" counter tagged with name + outcome (leader, collapsed, timeout).
+ */
+@Component
+public class SingleFlightGroup {
+
+    /** The work to run; matches ProceedingJoinPoint::proceed so the aspect can pass it straight in. */
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    private record Key(String name, List<Object> args, boolean pinnedToPrimary) {}
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public SingleFlightGroup(MeterRegistry registry) {
+        this.registry = registry;
+        registry.gaugeMapSize("singleflight.in_flight", Tags.empty(), inFlight);
+    }
+
+    public Object execute(String name, Object[] args, long timeoutMillis, Call call) throws Throwable {
+        // Arrays.asList (not List.of) because controller args can be null
+        Key key = new Key(name, Arrays.asList(args.clone()), RoutingContext.isPinnedToPrimary());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing == null) {
+            // we are the leader: run it and publish the outcome to whoever joined meanwhile
+            count(name, "leader");
+            try {
+                Object result = call.run();
+                mine.complete(result);
+                return result;
+            } catch (Throwable t) {
+                mine.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+
+        count(name, "collapsed");
+        try {
+            return existing.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            // leader is too slow; don't make this caller pay for it, just run our own call
+            count(name, "timeout");
+            return call.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /** Number of distinct calls running right now. */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void count(String name, String outcome) {
+        registry.counter("singleflight.calls", "name", name, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.sqlstats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What one HTTP request did against the database. Bound to the request thread by SqlStatsFilter;
+ * statements run on other threads (e.g. the dashboard pool) are not attributed to the request.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    private static final int MAX_SLOW = 10;
+
+    public record Repeated(String sql, int count) {}
+
+    public record Slow(String sql, long millis) {}
+
+    private int statements;
+    private long rows;
+    private long dbNanos;
+    private final Map<String, Integer> bySql = new HashMap<>();
+    private final List<Slow> slow = new ArrayList<>();
+
+    static SqlStats start() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** The stats of the request running on this thread, or null. */
+    static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    void statement(String sql, long nanos, long slowNanos) {
+        statements++;
+        dbNanos += nanos;
+        String key = SqlText.normalize(sql);
+        bySql.merge(key, 1, Integer::sum);
+        if (nanos >= slowNanos && slow.size() < MAX_SLOW) {
+            slow.add(new Slow(key, nanos / 1_000_000));
+        }
+    }
+
+    void rows(long n) {
+        rows += n;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long dbMillis() {
+        return dbNanos / 1_000_000;
+    }
+
+    long dbNanos() {
+        return dbNanos;
+    }
+
+    /** Statements (after normalizing literals) that ran at least threshold times: the N+1 suspects. */
+    public List<Repeated> repeated(int threshold) {
+        List<Repeated> out = new ArrayList<>();
+        bySql.forEach((sql, count) -> {
+            if (count >= threshold) {
+                out.add(new Repeated(sql, count));
+            }
+        });
+        out.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        return out;
+    }
+
+    public List<Slow> slow() {
+        return slow;
+    }
+}
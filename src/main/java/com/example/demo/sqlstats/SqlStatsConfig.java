@@ -0,0 +1,45 @@
+package com.example.demo.sqlstats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL statement accounting, replacing spring.jpa.show-sql. The "dataSource" bean (Boot's, or the
+ * replica routing proxy) is wrapped in SqlStatsDataSource; the other DataSource beans sit behind it.
+ * Switch it on/off at runtime with PUT /api/admin/sql-stats.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlStatsSettings.class)
+public class SqlStatsConfig {
+
+    // static: post-processors are created before the other beans of this class
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourceWrapper(ObjectProvider<SqlStatsSettings> settings) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && beanName.equals("dataSource") && !(bean instanceof SqlStatsDataSource)) {
+                    return new SqlStatsDataSource(ds, settings.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatsFilter> sqlStatsFilter(SqlStatsSettings settings, MeterRegistry registry) {
+        FilterRegistrationBean<SqlStatsFilter> registration = new FilterRegistrationBean<>(new SqlStatsFilter(settings, registry));
+        registration.addUrlPatterns("/*");
+        // inside rate limiting / read-your-writes, outside everything that runs queries
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+}
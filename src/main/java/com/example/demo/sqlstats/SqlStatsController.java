@@ -0,0 +1,56 @@
+package com.example.demo.sqlstats;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runtime switches for SQL accounting, e.g. turn statement logging on for a minute:
+ * PUT /api/admin/sql-stats {"logStatements": true}
+ * Behind the admin token like the rest of /api/admin (see AdminTokenFilter).
+ */
+@RestController
+@RequestMapping("/api/admin/sql-stats")
+public class SqlStatsController {
+
+    /** Fields left out (null) keep their current value. */
+    public record Update(Boolean enabled, Boolean logStatements, Boolean headers, Integer repeatThreshold,
+                         Long slowQueryMs) {}
+
+    public record State(boolean enabled, boolean logStatements, boolean headers, int repeatThreshold,
+                        long slowQueryMs) {}
+
+    private final SqlStatsSettings settings;
+
+    public SqlStatsController(SqlStatsSettings settings) {
+        this.settings = settings;
+    }
+
+    @GetMapping
+    public State get() {
+        return new State(settings.isEnabled(), settings.isLogStatements(), settings.isHeaders(),
+                settings.getRepeatThreshold(), settings.getSlowQueryMs());
+    }
+
+    @PutMapping
+    public State update(@RequestBody Update update) {
+        if (update.enabled() != null) {
+            settings.setEnabled(update.enabled());
+        }
+        if (update.logStatements() != null) {
+            settings.setLogStatements(update.logStatements());
+        }
+        if (update.headers() != null) {
+            settings.setHeaders(update.headers());
+        }
+        if (update.repeatThreshold() != null) {
+            settings.setRepeatThreshold(Math.max(2, update.repeatThreshold()));
+        }
+        if (update.slowQueryMs() != null) {
+            settings.setSlowQueryMs(Math.max(0, update.slowQueryMs()));
+        }
+        return get();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.sqlstats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the application DataSource so every JDBC statement is counted and timed into the current
+ * request's SqlStats (and optionally logged). Connections are only wrapped while sql.stats.enabled is
+ * on, so switching it off at runtime takes the proxies out of the path for every new connection.
+ */
+public class SqlStatsDataSource extends DelegatingDataSource {
+
+    static final Logger SQL_LOG = LoggerFactory.getLogger("sql.stats");
+
+    private final SqlStatsSettings settings;
+
+    public SqlStatsDataSource(DataSource target, SqlStatsSettings settings) {
+        super(target);
+        this.settings = settings;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection target) {
+        if (!settings.isEnabled()) {
+            return target;
+        }
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement/prepareCall(sql, ...) know their SQL up front, createStatement doesn't
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return proxy(method.getReturnType(), statement, new StatementHandler(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = SqlStatsDataSource.invoke(target, method, args);
+                return result instanceof ResultSet rs && name.equals("getResultSet") ? countRows(rs) : result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result = SqlStatsDataSource.invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+
+            SqlStats stats = SqlStats.current();
+            if (stats != null) {
+                stats.statement(sql, nanos, settings.getSlowQueryMs() * 1_000_000);
+                stats.rows(updateCount(result));
+            }
+            if (settings.isLogStatements()) {
+                SQL_LOG.info("{} us: {}", nanos / 1000, sql);
+            }
+            return result instanceof ResultSet rs ? countRows(rs) : result;
+        }
+    }
+
+    private static Object countRows(ResultSet target) {
+        SqlStats stats = SqlStats.current();
+        if (stats == null) {
+            return target;
+        }
+        return proxy(ResultSet.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                stats.rows(1);
+            }
+            return result;
+        });
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Integer n) {
+            return Math.max(0, n);
+        }
+        if (result instanceof Long n) {
+            return Math.max(0, n);
+        }
+        long sum = 0;
+        if (result instanceof int[] counts) {
+            for (int n : counts) {
+                sum += Math.max(0, n);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long n : counts) {
+                sum += Math.max(0, n);
+            }
+        }
+        return sum;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlStatsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "SqlStats[" + target + "]";
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
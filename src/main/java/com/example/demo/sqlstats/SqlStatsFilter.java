@@ -0,0 +1,144 @@
+package com.example.demo.sqlstats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request SQL accounting.
+ * - X-SQL-Count / X-SQL-Rows / X-SQL-Time-Ms headers, set just before the response commits (so
+ *   statements run while the body is written, e.g. lazy loading during serialization, are only in
+ *   the metrics and the log, not in the headers).
+ * - sql.request.statements / sql.request.rows summaries and sql.request.db_time timer.
+ * - N+1 suspects (same statement >= sql.stats.repeat-threshold times) and slow statements are logged
+ *   through the async "sql.stats" logger and counted (sql.n_plus_one, sql.slow).
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final SqlStatsSettings settings;
+    private final DistributionSummary statements;
+    private final DistributionSummary rows;
+    private final Timer dbTime;
+    private final Counter nPlusOne;
+    private final Counter slow;
+
+    public SqlStatsFilter(SqlStatsSettings settings, MeterRegistry registry) {
+        this.settings = settings;
+        this.statements = DistributionSummary.builder("sql.request.statements").register(registry);
+        this.rows = DistributionSummary.builder("sql.request.rows").register(registry);
+        this.dbTime = Timer.builder("sql.request.db_time").register(registry);
+        this.nPlusOne = registry.counter("sql.n_plus_one");
+        this.slow = registry.counter("sql.slow");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!settings.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        SqlStats stats = SqlStats.start();
+        HeaderOnCommit withHeaders = settings.isHeaders() ? new HeaderOnCommit(response, stats) : null;
+        try {
+            chain.doFilter(request, withHeaders != null ? withHeaders : response);
+            if (withHeaders != null) {
+                withHeaders.addHeaders(); // responses without a body (204) never asked for the stream
+            }
+        } finally {
+            SqlStats.end();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStats stats) {
+        if (stats.statements() == 0) {
+            return;
+        }
+        statements.record(stats.statements());
+        rows.record(stats.rows());
+        dbTime.record(stats.dbNanos(), TimeUnit.NANOSECONDS);
+
+        List<SqlStats.Repeated> repeated = stats.repeated(settings.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            nPlusOne.increment();
+            SqlStatsDataSource.SQL_LOG.warn("Possible N+1 in {} {}: {} statements, repeated: {}",
+                    request.getMethod(), request.getRequestURI(), stats.statements(), repeated);
+        }
+        if (!stats.slow().isEmpty()) {
+            slow.increment(stats.slow().size());
+            SqlStatsDataSource.SQL_LOG.warn("Slow SQL in {} {} (over {} ms): {}",
+                    request.getMethod(), request.getRequestURI(), settings.getSlowQueryMs(), stats.slow());
+        }
+    }
+
+    /** Adds the X-SQL-* headers the moment the body starts (or the response is otherwise committed). */
+    private static final class HeaderOnCommit extends HttpServletResponseWrapper {
+        private final SqlStats stats;
+        private boolean written;
+
+        HeaderOnCommit(HttpServletResponse response, SqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        private void addHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader("X-SQL-Count", Integer.toString(stats.statements()));
+            setHeader("X-SQL-Rows", Long.toString(stats.rows()));
+            setHeader("X-SQL-Time-Ms", Long.toString(stats.dbMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.sqlstats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings under "sql.stats.*" (see application.properties). The fields are volatile because
+ * PUT /api/admin/sql-stats changes them at runtime.
+ */
+@ConfigurationProperties(prefix = "sql.stats")
+public class SqlStatsSettings {
+
+    private volatile boolean enabled = true;
+    // the old spring.jpa.show-sql, but through the async "sql.stats" logger
+    private volatile boolean logStatements = false;
+    // X-SQL-* response headers: query counts and timings are for developers, not for every client
+    private volatile boolean headers = false;
+    // the same statement this many times in one request is reported as N+1
+    private volatile int repeatThreshold = 5;
+    private volatile long slowQueryMs = 200;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public boolean isLogStatements() { return logStatements; }
+    public void setLogStatements(boolean logStatements) { this.logStatements = logStatements; }
+
+    public boolean isHeaders() { return headers; }
+    public void setHeaders(boolean headers) { this.headers = headers; }
+
+    public int getRepeatThreshold() { return repeatThreshold; }
+    public void setRepeatThreshold(int repeatThreshold) { this.repeatThreshold = repeatThreshold; }
+
+    public long getSlowQueryMs() { return slowQueryMs; }
+    public void setSlowQueryMs(long slowQueryMs) { this.slowQueryMs = slowQueryMs; }
+}
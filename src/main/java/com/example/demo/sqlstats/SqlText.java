@@ -0,0 +1,48 @@
+package com.example.demo.sqlstats;
+
+/**
+ * Turns literals into '?' so "where id=1" and "where id=2" count as the same statement.
+ * Hibernate already binds parameters; this is for plain JDBC strings.
+ */
+final class SqlText {
+
+    private static final int MAX_LENGTH = 500;
+
+    private SqlText() {
+    }
+
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < sql.length() && out.length() < MAX_LENGTH; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                int end = i + 1;
+                while (end < sql.length() && sql.charAt(end) != '\'') {
+                    end++;
+                }
+                out.append('?');
+                i = end;
+                space = false;
+            } else if (Character.isDigit(c) && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)) && sql.charAt(i - 1) != '_')) {
+                while (i + 1 < sql.length() && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                out.append('?');
+                space = false;
+            } else if (Character.isWhitespace(c)) {
+                if (!space && out.length() > 0) {
+                    out.append(' ');
+                }
+                space = true;
+            } else {
+                out.append(c);
+                space = false;
+            }
+        }
+        return out.toString().trim();
+    }
+}
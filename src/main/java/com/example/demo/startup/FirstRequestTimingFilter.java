@@ -0,0 +1,51 @@
+package com.example.demo.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long after JVM launch the first HTTP response was finished ("time to first request").
+ * Logged once and published as the application.first_request.time gauge, next to Boot's own
+ * application.started.time / application.ready.time.
+ */
+public class FirstRequestTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestTimingFilter.class);
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private final AtomicLong firstRequestMillis = new AtomicLong();
+
+    public FirstRequestTimingFilter(MeterRegistry registry) {
+        TimeGauge.builder("application.first_request.time", firstRequestMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until the first HTTP request was served")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!recorded.get() && recorded.compareAndSet(false, true)) {
+                long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                firstRequestMillis.set(millis);
+                log.info("First request ({} {}) served {} ms after JVM start",
+                        request.getMethod(), request.getRequestURI(), millis);
+            }
+        }
+    }
+}
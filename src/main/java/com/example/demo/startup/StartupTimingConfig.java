@@ -0,0 +1,20 @@
+package com.example.demo.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class StartupTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestTimingFilter> firstRequestTimingFilter(MeterRegistry registry) {
+        FilterRegistrationBean<FirstRequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new FirstRequestTimingFilter(registry));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
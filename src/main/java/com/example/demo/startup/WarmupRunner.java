@@ -0,0 +1,278 @@
+package com.example.demo.startup;
+
+import com.example.demo.controller.ExerciseController;
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutController;
+import com.example.demo.workout.WorkoutRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms the app up before it takes traffic, so the first requests after a deploy don't pay for cold JIT,
+ * empty Hibernate query plan caches, an empty connection pool and lazily built JSON serializers.
+ * - Runs as a SmartLifecycle in the phase before the embedded web server's, so the port is only bound
+ *   once we're done. Heroku routes to a dyno as soon as $PORT is bound and never asks
+ *   /actuator/health/readiness, so holding back readiness alone wouldn't keep traffic away.
+ *   The warm-up counts against the platform's boot timeout (60 s on Heroku): keep warmup.max-duration-ms
+ *   well below it.
+ * - Pre-fills the connection pool, then calls the hot WorkoutController/ExerciseController reads and the
+ *   repository queries behind them with keys that match no rows, and writes their result types through
+ *   the MVC message converters, on warmup.threads threads until warmup.iterations or warmup.max-duration-ms.
+ * - Nothing is written; failures are logged and never stop the app from starting.
+ * - application.warmup.time / application.warmup.iterations report what it did.
+ */
+@Component
+public class WarmupRunner implements SmartLifecycle {
+
+    /** Started (and so finished) right before the web server starts. */
+    static final int PHASE = WebServerApplicationContext.START_STOP_LIFECYCLE_PHASE - 1;
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String USER = "__warmup__";
+    private static final String PLAN = "__warmup__";
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final Type WORKOUTS = ResolvableType.forClassWithGenerics(List.class, Workout.class).getType();
+    private static final Type EXERCISES = ResolvableType.forClassWithGenerics(List.class, ExerciseEntity.class).getType();
+    private static final Type DAY_EXERCISES =
+            ResolvableType.forClassWithGenerics(List.class, WorkoutController.WorkoutExerciseDTO.class).getType();
+
+    private final WorkoutController workoutController;
+    private final ExerciseController exerciseController;
+    private final WorkoutRepository workouts;
+    private final ExerciseRepository exercises;
+    private final DataSource dataSource;
+    private final RequestMappingHandlerAdapter mvc;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationMillis;
+    private final int threads;
+    private final int poolConnections;
+
+    private final AtomicLong warmupMillis = new AtomicLong();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean running;
+
+    public WarmupRunner(WorkoutController workoutController, ExerciseController exerciseController,
+                        WorkoutRepository workouts, ExerciseRepository exercises, DataSource dataSource,
+                        RequestMappingHandlerAdapter mvc, MeterRegistry registry,
+                        @Value("${warmup.enabled:true}") boolean enabled,
+                        @Value("${warmup.iterations:2000}") int iterations,
+                        @Value("${warmup.max-duration-ms:20000}") long maxDurationMillis,
+                        @Value("${warmup.threads:4}") int threads,
+                        @Value("${warmup.pool-connections:0}") int poolConnections) {
+        this.workoutController = workoutController;
+        this.exerciseController = exerciseController;
+        this.workouts = workouts;
+        this.exercises = exercises;
+        this.dataSource = dataSource;
+        this.mvc = mvc;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationMillis = maxDurationMillis;
+        this.threads = Math.max(1, threads);
+        this.poolConnections = poolConnections;
+        TimeGauge.builder("application.warmup.time", warmupMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time spent warming up before the app reported ready")
+                .register(registry);
+        Gauge.builder("application.warmup.iterations", completed, AtomicInteger::get)
+                .description("Warm-up iterations completed")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        warmUp();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        int connections = prefillPool();
+        List<ExerciseEntity> sampleExercises = sampleExercises();
+        List<Workout> sampleWorkouts = List.of(new Workout(USER, PLAN, "Squat", "Mon", 3, 5),
+                new Workout(USER, PLAN, "Bench Press", "Wed", 4, 8));
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "warmup-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i; (i = next.getAndIncrement()) < iterations && System.nanoTime() < deadline; ) {
+                        iteration(i, sampleExercises, sampleWorkouts);
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(Math.max(1, deadline - System.nanoTime()) + TimeUnit.SECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up stopped early after {} iterations: {}", completed.get(), e.toString());
+        } finally {
+            pool.shutdownNow();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        warmupMillis.set(millis);
+        log.info("Warm-up done in {} ms: {} iterations on {} threads, {} pooled connections",
+                millis, completed.get(), threads, connections);
+    }
+
+    private void iteration(int i, List<ExerciseEntity> sampleExercises, List<Workout> sampleWorkouts) throws IOException {
+        String day = DAYS[i % DAYS.length];
+        String exercise = sampleExercises.get(i % sampleExercises.size()).getName();
+
+        write(workoutController.getExercisesForDay(USER, PLAN, day), DAY_EXERCISES);
+        write(exerciseController.getExerciseByName(exercise), EXERCISES);
+        workouts.findByUserIdAndWorkoutPlanName(USER, PLAN);
+        workouts.findByUserIdAndWorkoutPlanNameAndExerciseName(USER, PLAN, exercise);
+        workouts.existsByUserIdAndWorkoutPlanName(USER, PLAN);
+        workouts.findPlanNamesByUserId(USER);
+        workouts.findById(-1L);
+        exercises.findByNameIn(List.of(exercise, USER));
+
+        write(sampleWorkouts, WORKOUTS);
+        write(sampleExercises, EXERCISES);
+        write(sampleWorkouts.get(i % sampleWorkouts.size()), Workout.class);
+        write(sampleExercises.get(i % sampleExercises.size()), ExerciseEntity.class);
+    }
+
+    /** Borrows connections until the pool holds its maximum (or warmup.pool-connections), then returns them. */
+    private int prefillPool() {
+        int target = poolConnections > 0 ? poolConnections : maxPoolSize();
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            while (held.size() < target) {
+                Connection c = dataSource.getConnection();
+                held.add(c);
+                c.isValid(2); // a lazy connection proxy only fetches the real connection on first use
+            }
+        } catch (SQLException e) {
+            log.warn("Connection pool pre-fill stopped at {} connections: {}", held.size(), e.getMessage());
+        } finally {
+            for (Connection c : held) {
+                try {
+                    c.close();
+                } catch (SQLException ignored) {
+                    // already broken, the pool replaces it
+                }
+            }
+        }
+        return held.size();
+    }
+
+    private int maxPoolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ignored) {
+            // not a Hikari pool
+        }
+        return 10;
+    }
+
+    private List<ExerciseEntity> sampleExercises() {
+        try {
+            List<ExerciseEntity> page = exercises.findAll(PageRequest.of(0, 20)).getContent();
+            if (!page.isEmpty()) {
+                return page;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read sample exercises for the warm-up: {}", e.getMessage());
+        }
+        return List.of(new ExerciseEntity("__warmup__"));
+    }
+
+    /** Writes the value with the converter MVC would pick for that declared type, into a throwaway buffer. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void write(Object value, Type type) throws IOException {
+        Class<?> clazz = value.getClass();
+        for (HttpMessageConverter<?> converter : mvc.getMessageConverters()) {
+            if (converter instanceof GenericHttpMessageConverter generic) {
+                if (generic.canWrite(type, clazz, MediaType.APPLICATION_JSON)) {
+                    generic.write(value, type, MediaType.APPLICATION_JSON, new BufferMessage());
+                    return;
+                }
+            } else if (converter.canWrite(clazz, MediaType.APPLICATION_JSON)) {
+                ((HttpMessageConverter) converter).write(value, MediaType.APPLICATION_JSON, new BufferMessage());
+                return;
+            }
+        }
+    }
+
+    private static final class BufferMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.support;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding: maps each distinct string to a small dense int id (0, 1, 2, ...) and back.
+ * Lets hot data structures keep int/short ids in primitive arrays instead of String references.
+ * Thread-safe: lookups are lock-free, only adding a new string takes a lock.
+ */
+public final class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    /** @return the id for value, adding it when it is new */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            if (next == values.length) {
+                values = Arrays.copyOf(values, next * 2);
+            }
+            values[next] = value;
+            size = next + 1;
+            ids.put(value, next); // publish last, so anyone who sees the id can also read the value
+            return next;
+        }
+    }
+
+    /** @return the id for value, or -1 if it was never added */
+    public int find(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String valueOf(int id) {
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.user;
 
+import com.example.demo.json.MaskedSerializer;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -26,6 +28,7 @@ public class User {
     @NotBlank(message = "Password is required")
     @Column(nullable = false)
     //@JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @JsonSerialize(using = MaskedSerializer.class) // never leaves the server in clear text
     private String password;
 
     public User() {}
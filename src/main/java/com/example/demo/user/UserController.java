@@ -15,6 +15,8 @@ import java.util.List;
  * - The POST returns 201 + Location header when it creates a user.
  * - We reject any duplicate emails with 409 (Conflict).
  * - We never let the client set "id" during create. DB generates it.
+ * - Passwords are masked when a User is serialized (see User.password), so entities are returned as is.
+ * - DELETE returns 202 + a purge job: the user's workouts are deleted in the background (UserPurgeService).
  */
 
 @RestController
@@ -22,9 +24,11 @@ import java.util.List;
 public class UserController {
 
     private final UserRepository repo;
+    private final UserPurgeService purges;
 
-    public UserController(UserRepository repo) {
+    public UserController(UserRepository repo, UserPurgeService purges) {
         this.repo = repo;
+        this.purges = purges;
     }
 
     // --- CREATE ---
@@ -42,21 +46,20 @@ public class UserController {
 
         User saved = repo.save(u);
         URI location = URI.create("/api/users/" + saved.getId());
-        return ResponseEntity.created(location).body(mask(saved));
+        return ResponseEntity.created(location).body(saved);
     }
 
     // --- READ (all) ---
     @GetMapping
     public List<User> list() {
-        return repo.findAll().stream().map(this::mask).toList();
+        return repo.findAll();
     }
 
     // --- READ (one) ---
     @GetMapping("/{id}")
     public User getOne(@PathVariable Long id) {
-        User found = repo.findById(id)
+        return repo.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        return mask(found);
     }
 
     // --- UPDATE ---
@@ -77,26 +80,29 @@ public class UserController {
             existing.setPassword(dto.password()); 
         }
 
-        return mask(repo.save(existing));
+        return repo.save(existing);
     }
 
     // --- DELETE ---
+    // the user is gone once this returns; their workouts follow, see Location for progress
     @DeleteMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        if (!repo.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
-        }
-        repo.deleteById(id);
+    public ResponseEntity<UserPurgeJob> delete(@PathVariable Long id) {
+        UserPurgeJob job = purges.submit(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        return ResponseEntity.accepted().location(URI.create("/api/users/purges/" + job.getId())).body(job);
+    }
+
+    // --- PURGE JOBS ---
+    @GetMapping("/purges/{jobId}")
+    public UserPurgeJob purge(@PathVariable Long jobId) {
+        return purges.find(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Purge job not found"));
     }
 
-    // --- helper: so we never leak passwords in responses ---
-    private User mask(User u) {
-        User copy = new User();
-        copy.setId(u.getId());
-        copy.setName(u.getName());
-        copy.setEmail(u.getEmail());
-        copy.setPassword("********");
-        return copy;
+    // restarts a FAILED job; other jobs are returned unchanged
+    @PostMapping("/purges/{jobId}/resume")
+    public UserPurgeJob resumePurge(@PathVariable Long jobId) {
+        return purges.resume(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Purge job not found"));
     }
 }
\ No newline at end of file
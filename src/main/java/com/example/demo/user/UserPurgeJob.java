@@ -0,0 +1,65 @@
+package com.example.demo.user;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Row in user_purge_jobs: the background deletion of one deleted user's workouts (see UserPurgeService).
+ * Progress is committed with every chunk, so after a restart the job just continues where it was.
+ * A RUNNING job belongs to the instance holding its lease (lease_until, renewed with every chunk).
+ */
+@Entity
+@Table(name = "user_purge_jobs", indexes = @Index(name = "ix_user_purge_jobs_status", columnList = "status"))
+public class UserPurgeJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "deleted_rows", nullable = false)
+    private long deletedRows;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    public UserPurgeJob() {}
+
+    public UserPurgeJob(String userId, Instant now) {
+        this.userId = userId;
+        this.status = Status.QUEUED;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    public Long getId() { return id; }
+    public String getUserId() { return userId; }
+    public Status getStatus() { return status; }
+    public long getDeletedRows() { return deletedRows; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+}
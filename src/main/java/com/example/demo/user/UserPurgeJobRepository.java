@@ -0,0 +1,46 @@
+package com.example.demo.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface UserPurgeJobRepository extends JpaRepository<UserPurgeJob, Long> {
+
+    // jobs to pick up again after a restart
+    @Transactional(readOnly = true)
+    List<UserPurgeJob> findByStatusInOrderByIdAsc(Collection<UserPurgeJob.Status> statuses);
+
+    /**
+     * Takes the job for this instance: a QUEUED job, or a RUNNING one whose lease ran out (its instance
+     * died). 0 rows updated = another instance holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UserPurgeJob j set j.status = :running, j.leaseUntil = :leaseUntil, j.updatedAt = :now"
+            + " where j.id = :id and (j.status = :queued"
+            + " or (j.status = :running and (j.leaseUntil is null or j.leaseUntil < :now)))")
+    int claim(@Param("id") Long id, @Param("queued") UserPurgeJob.Status queued,
+              @Param("running") UserPurgeJob.Status running, @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    // bulk updates, so the worker never keeps a job entity around between chunks; every chunk renews the lease
+    @Transactional
+    @Modifying
+    @Query("update UserPurgeJob j set j.deletedRows = j.deletedRows + :rows, j.updatedAt = :now,"
+            + " j.leaseUntil = :leaseUntil where j.id = :id")
+    int addDeletedRows(@Param("id") Long id, @Param("rows") long rows, @Param("now") Instant now,
+                       @Param("leaseUntil") Instant leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update UserPurgeJob j set j.status = :status, j.updatedAt = :now, j.finishedAt = :finishedAt,"
+            + " j.error = :error where j.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") UserPurgeJob.Status status, @Param("now") Instant now,
+                     @Param("finishedAt") Instant finishedAt, @Param("error") String error);
+}
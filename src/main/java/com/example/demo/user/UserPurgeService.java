@@ -0,0 +1,346 @@
+package com.example.demo.user;
+
+import com.example.demo.analytics.VolumeAnalytics;
+import com.example.demo.shard.ShardedWorkoutRepository;
+import com.example.demo.workout.WorkoutChangedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Deleting a user: the users row goes right away, their workouts (workout.user_id has no foreign key)
+ * are deleted afterwards by a background job, so a heavy user never means one long transaction.
+ * - submit() deletes the user and records a QUEUED job in one transaction.
+ * - One worker thread deletes user-purge.chunk-size workouts per transaction (by primary key, so
+ *   locks stay narrow) and adds them to the job's deleted_rows in that same transaction.
+ * - Throttling: user-purge.pause-ms between chunks, and no next chunk while requests are waiting
+ *   for a pooled connection (up to user-purge.max-backoff-ms), so foreground traffic goes first.
+ * - Every deleted row is published as a WorkoutChangedEvent DELETED after its chunk commits, so live
+ *   streams and the analytics see the purge like any other delete.
+ * - With workout.sharding.enabled=true the workouts are selected and deleted on the user's shard, and
+ *   the events carry the global ids. The job row stays in the main database, so there the chunk and its
+ *   deleted_rows are two transactions: if the second fails, those rows are gone but not counted, and the
+ *   job carries on with the rows that are left.
+ * - A worker claims its job with a conditional update and holds it by a lease (user-purge.lease, renewed
+ *   with every chunk), so with several instances each job runs on one of them only.
+ * - QUEUED jobs and RUNNING jobs with an expired lease are picked up at startup and every lease period;
+ *   a job interrupted by shutdown continues from the rows that are left. FAILED jobs (user-purge.max-attempts
+ *   failed chunks in a row) can be resumed with POST /api/users/purges/{jobId}/resume.
+ * Metrics: users.purge.rows, users.purge.chunk, users.purge.jobs{outcome}, users.purge.jobs.active.
+ */
+@Service
+public class UserPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository users;
+    private final UserPurgeJobRepository jobs;
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectProvider<ShardedWorkoutRepository> sharded;
+    private final Map<Integer, ShardTarget> shardTargets = new ConcurrentHashMap<>();
+    private final VolumeAnalytics analytics;
+    private final ApplicationEventPublisher events;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    private final ExecutorService worker;
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    private final Counter deletedRows;
+    private final Timer chunkTimer;
+    private final Counter jobsDone;
+    private final Counter jobsFailed;
+
+    public UserPurgeService(UserRepository users, UserPurgeJobRepository jobs, DataSource dataSource,
+                            PlatformTransactionManager txManager,
+                            @Value("${user-purge.chunk-size:500}") int chunkSize,
+                            @Value("${user-purge.pause-ms:100}") long pauseMs,
+                            @Value("${user-purge.max-backoff-ms:5000}") long maxBackoffMs,
+                            @Value("${user-purge.max-attempts:5}") int maxAttempts,
+                            @Value("${user-purge.lease:PT2M}") Duration lease,
+                            ObjectProvider<ShardedWorkoutRepository> sharded, VolumeAnalytics analytics, ApplicationEventPublisher events, MeterRegistry registry) {
+        this.users = users;
+        this.jobs = jobs;
+        this.dataSource = dataSource;
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(txManager);
+        this.sharded = sharded;
+        this.analytics = analytics;
+        this.events = events;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.maxBackoffMs = Math.max(0, maxBackoffMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = lease;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "user-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        this.deletedRows = Counter.builder("users.purge.rows").register(meters);
+        this.chunkTimer = Timer.builder("users.purge.chunk").register(meters);
+        this.jobsDone = Counter.builder("users.purge.jobs").tag("outcome", "done").register(meters);
+        this.jobsFailed = Counter.builder("users.purge.jobs").tag("outcome", "failed").register(meters);
+        meters.gauge("users.purge.jobs.active", scheduled, Set::size);
+    }
+
+    /**
+     * Deletes the user and queues the purge of their workouts.
+     * @return the job, or empty if there is no such user
+     */
+    public Optional<UserPurgeJob> submit(Long userId) {
+        UserPurgeJob job = tx.execute(status -> {
+            if (!users.existsById(userId)) {
+                return null;
+            }
+            users.deleteById(userId);
+            return jobs.save(new UserPurgeJob(String.valueOf(userId), Instant.now()));
+        });
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (analytics != null) {
+            analytics.removeUser(job.getUserId());
+        }
+        schedule(job.getId(), job.getUserId());
+        return Optional.of(job);
+    }
+
+    public Optional<UserPurgeJob> find(Long jobId) {
+        return jobs.findById(jobId);
+    }
+
+    /**
+     * Queues a FAILED job again; QUEUED/RUNNING/DONE jobs are returned as they are.
+     * @return empty if there is no such job
+     */
+    public Optional<UserPurgeJob> resume(Long jobId) {
+        Optional<UserPurgeJob> job = jobs.findById(jobId);
+        if (job.isPresent() && job.get().getStatus() == UserPurgeJob.Status.FAILED) {
+            jobs.updateStatus(jobId, UserPurgeJob.Status.QUEUED, Instant.now(), null, null);
+            schedule(jobId, job.get().getUserId());
+            return jobs.findById(jobId);
+        }
+        return job;
+    }
+
+    // at startup, and every lease period for jobs whose instance went away; the worker's claim decides
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${user-purge.lease:PT2M}", fixedDelayString = "${user-purge.lease:PT2M}")
+    public void resumeUnfinished() {
+        Instant now = Instant.now();
+        List<UserPurgeJob> unfinished = jobs.findByStatusInOrderByIdAsc(
+                EnumSet.of(UserPurgeJob.Status.QUEUED, UserPurgeJob.Status.RUNNING)).stream()
+                .filter(job -> job.getStatus() == UserPurgeJob.Status.QUEUED
+                        || job.getLeaseUntil() == null || job.getLeaseUntil().isBefore(now))
+                .filter(job -> !scheduled.contains(job.getId()))
+                .toList();
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} user purge jobs", unfinished.size());
+        }
+        unfinished.forEach(job -> schedule(job.getId(), job.getUserId()));
+    }
+
+    // the user id is passed along instead of re-reading the job, which a lagging read replica may not have yet
+    private void schedule(Long jobId, String userId) {
+        if (!stopping && scheduled.add(jobId)) {
+            worker.execute(() -> {
+                try {
+                    run(jobId, userId);
+                } finally {
+                    scheduled.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(Long jobId, String userId) {
+        Instant now = Instant.now();
+        if (jobs.claim(jobId, UserPurgeJob.Status.QUEUED, UserPurgeJob.Status.RUNNING, now, now.plus(lease)) == 0) {
+            log.debug("User purge job {} is done or running on another instance", jobId);
+            return;
+        }
+        int failures = 0;
+        try {
+            while (!stopping) {
+                int selected;
+                try {
+                    selected = deleteChunk(jobId, userId);
+                    failures = 0;
+                } catch (RuntimeException e) {
+                    failures++;
+                    if (failures >= maxAttempts) {
+                        log.error("User purge job {} failed after {} attempts", jobId, failures, e);
+                        jobs.updateStatus(jobId, UserPurgeJob.Status.FAILED, Instant.now(), Instant.now(),
+                                abbreviate(String.valueOf(e.getMessage())));
+                        jobsFailed.increment();
+                        return;
+                    }
+                    log.warn("User purge job {}: chunk failed ({} of {} attempts): {}", jobId, failures, maxAttempts,
+                            e.getMessage());
+                    Thread.sleep(Math.min(maxBackoffMs, pauseMs * (1L << Math.min(failures, 10))));
+                    continue;
+                }
+                if (selected == 0) {
+                    jobs.updateStatus(jobId, UserPurgeJob.Status.DONE, Instant.now(), Instant.now(), null);
+                    jobsDone.increment();
+                    log.info("User purge job {} done: workouts of user {} deleted", jobId, userId);
+                    return;
+                }
+                throttle(workoutDataSource(userId));
+            }
+        } catch (InterruptedException e) {
+            // shutting down: the job stays RUNNING and is resumed on the next start
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deletes up to chunkSize of the user's workouts and records them on the job, in one transaction
+     * (two when sharded, see the class comment); once the rows are deleted, publishes a DELETED event per row.
+     * @return rows selected (0 = nothing left)
+     */
+    private int deleteChunk(Long jobId, String userId) {
+        long start = System.nanoTime();
+        int[] deleted = new int[1]; // fewer than selected only if someone else deleted some of them meanwhile
+        ShardedWorkoutRepository shards = sharded.getIfAvailable();
+        List<WorkoutChangedEvent> rows;
+        if (shards == null) {
+            rows = tx.execute(status -> {
+                List<WorkoutChangedEvent> selected = selectAndDelete(jdbc, userId, id -> id, deleted);
+                if (!selected.isEmpty()) {
+                    recordDeleted(jobId, deleted[0]);
+                }
+                return selected;
+            });
+        } else {
+            int index = shards.shardFor(userId);
+            ShardTarget shard = shardTarget(shards, index);
+            rows = shard.tx().execute(status -> selectAndDelete(shard.jdbc(), userId,
+                    id -> ShardedWorkoutRepository.globalId(index, id), deleted));
+        }
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        deletedRows.increment(deleted[0]);
+        rows.forEach(events::publishEvent);
+        if (shards != null && !rows.isEmpty()) {
+            tx.executeWithoutResult(status -> recordDeleted(jobId, deleted[0]));
+        }
+        return rows.size();
+    }
+
+    private List<WorkoutChangedEvent> selectAndDelete(NamedParameterJdbcTemplate jdbc, String userId,
+                                                      LongUnaryOperator toEventId, int[] deleted) {
+        List<WorkoutChangedEvent> selected = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        jdbc.getJdbcOperations().query(
+                "SELECT id, workout_plan_name, exercise_name, day, sets, reps FROM workout WHERE user_id = ?"
+                        + " LIMIT " + chunkSize,
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    selected.add(new WorkoutChangedEvent(WorkoutChangedEvent.Type.DELETED,
+                            toEventId.applyAsLong(rs.getLong(1)), userId, rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getInt(5), rs.getInt(6)));
+                },
+                userId);
+        if (!ids.isEmpty()) {
+            deleted[0] = jdbc.update("DELETE FROM workout WHERE id IN (:ids)", Map.of("ids", ids));
+        }
+        return selected;
+    }
+
+    private void recordDeleted(Long jobId, int deleted) {
+        Instant now = Instant.now();
+        jobs.addDeletedRows(jobId, deleted, now, now.plus(lease));
+    }
+
+    private ShardTarget shardTarget(ShardedWorkoutRepository shards, int index) {
+        return shardTargets.computeIfAbsent(index, i -> {
+            DataSource shard = shards.shardDataSource(i);
+            return new ShardTarget(shard, new NamedParameterJdbcTemplate(shard),
+                    new TransactionTemplate(new DataSourceTransactionManager(shard)));
+        });
+    }
+
+    // where the user's workouts live: the throttle watches that pool
+    private DataSource workoutDataSource(String userId) {
+        ShardedWorkoutRepository shards = sharded.getIfAvailable();
+        return shards == null ? dataSource : shardTarget(shards, shards.shardFor(userId)).dataSource();
+    }
+
+    // pause between chunks, longer while foreground requests are queueing for a connection
+    private void throttle(DataSource pool) throws InterruptedException {
+        Thread.sleep(pauseMs);
+        long waited = 0;
+        long step = Math.max(10, pauseMs);
+        while (waited < maxBackoffMs && threadsAwaitingConnection(pool) > 0) {
+            Thread.sleep(step);
+            waited += step;
+        }
+    }
+
+    private static int threadsAwaitingConnection(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+            }
+        } catch (SQLException ignored) {
+            // not a Hikari pool
+        }
+        return 0;
+    }
+
+    private record ShardTarget(DataSource dataSource, NamedParameterJdbcTemplate jdbc, TransactionTemplate tx) {
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        worker.shutdownNow();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,5 +15,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // helpful for the update: “does someone else (not this id) have this email?”
     boolean existsByEmailAndIdNot(String email, Long id);
 
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
 }
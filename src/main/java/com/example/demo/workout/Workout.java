@@ -1,6 +1,7 @@
 package com.example.demo.workout;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "workout", uniqueConstraints = {
@@ -31,6 +32,13 @@ public class Workout {
     @Column(nullable = false)
     private int reps;
 
+    // optimistic locking for JPA writes; the native upserts in WorkoutUpsertImpl increment it
+    // without checking it, so there it only counts changes
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public Workout() {}
     public Workout(String userId, String workoutPlanName, String exerciseName, String day, int sets, int reps) {
         this.userId = userId;
@@ -98,4 +106,12 @@ public class Workout {
     public void setReps(int reps) {
         this.reps = reps;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.demo.workout;
+
+/**
+ * Published (Spring application event) whenever a workout row is created, updated or deleted.
+ * Holds a copy of the row's values, so listeners never see later changes to the entity.
+ */
+public record WorkoutChangedEvent(Type type, Long id, String userId, String workoutPlanName,
+                                  String exerciseName, String day, int sets, int reps) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static WorkoutChangedEvent of(Type type, Workout w) {
+        return new WorkoutChangedEvent(type, w.getId(), w.getUserId(), w.getWorkoutPlanName(),
+                w.getExerciseName(), w.getDay(), w.getSets(), w.getReps());
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.demo.workout;
 
+import com.example.demo.singleflight.SingleFlight;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /** controller can:
  * getAllWorkouts
@@ -23,13 +28,21 @@ import java.util.List;
 @RequestMapping("/api/workout")
 public class WorkoutController {
     private final WorkoutRepository workout;
+    private final ApplicationEventPublisher events; // WorkoutChangedEvent for analytics etc.
 
-    public WorkoutController(WorkoutRepository workout) {
+    public WorkoutController(WorkoutRepository workout, ApplicationEventPublisher events) {
         this.workout = workout;
+        this.events = events;
     }
 
     @GetMapping
-    public List<Workout> getAllWorkouts() {return workout.findAll();}
+    public List<Workout> getAllWorkouts() {
+        try {
+            return workout.findAll();
+        } catch (RejectedExecutionException e) { // sharded storage: the cross-shard query pool is full
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
 
     @GetMapping("/{id}")
     public Workout getWorkoutById(@PathVariable long id) {   // <-- PathVariable, not RequestParam
@@ -40,7 +53,9 @@ public class WorkoutController {
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteWorkoutById(@PathVariable long id) {
         if (workout.existsById(id)) {        // check if it exists
+            Optional<Workout> row = workout.findById(id);
             workout.deleteById(id);          // delete it
+            row.ifPresent(w -> events.publishEvent(WorkoutChangedEvent.of(WorkoutChangedEvent.Type.DELETED, w)));
             return ResponseEntity.noContent().build(); // 204 No Content
         } else {
             return ResponseEntity.notFound().build();  // 404 if not found
@@ -50,7 +65,9 @@ public class WorkoutController {
     @DeleteMapping("/delete/{userId}/{planName}")
     public ResponseEntity<Void> deleteWorkoutByUserPlanName(@PathVariable String userId, @PathVariable String planName) {
         if(workout.existsByUserIdAndWorkoutPlanName(userId, planName)){
+            List<Workout> rows = workout.findByUserIdAndWorkoutPlanName(userId, planName);
             workout.deleteByUserIdAndWorkoutPlanName(userId, planName);
+            rows.forEach(w -> events.publishEvent(WorkoutChangedEvent.of(WorkoutChangedEvent.Type.DELETED, w)));
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();  // 404 if not found
@@ -59,19 +76,23 @@ public class WorkoutController {
 
     @PostMapping("/add-exercise")
     public ResponseEntity<Void> addExercise(@RequestBody Workout payload) {
-        // optional upsert: if the same (user, plan, exercise) exists, update sets/reps/day
-        workout.findByUserIdAndWorkoutPlanNameAndExerciseName(
-                payload.getUserId(), payload.getWorkoutPlanName(), payload.getExerciseName()
-        ).ifPresentOrElse(existing -> {
-            existing.setDay(payload.getDay());
-            existing.setSets(payload.getSets());
-            existing.setReps(payload.getReps());
-            workout.save(existing);
-        }, () -> workout.save(payload));
+        if (payload.getUserId() == null || payload.getWorkoutPlanName() == null
+                || payload.getExerciseName() == null || payload.getDay() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId, workoutPlanName, exerciseName and day are required");
+        }
+        // atomic upsert on the unique key (user, plan, exercise, day): a new row, or new sets/reps for the existing one
+        WorkoutUpsert.Result result = workout.upsert(payload);
+        payload.setId(result.id());
+        payload.setVersion(result.version());
+        WorkoutChangedEvent.Type type = result.outcome() == WorkoutUpsert.Outcome.INSERTED
+                ? WorkoutChangedEvent.Type.CREATED : WorkoutChangedEvent.Type.UPDATED;
+        events.publishEvent(WorkoutChangedEvent.of(type, payload));
 
         return ResponseEntity.ok().build();
     }
 
+    // identical concurrent reads of the same user/plan/day share one query
+    @SingleFlight("workout.exercisesForDay")
     @GetMapping("/{userId}/{planName}/exercises")
     public List<WorkoutExerciseDTO> getExercisesForDay(
             @PathVariable String userId,
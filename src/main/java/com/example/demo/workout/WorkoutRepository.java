@@ -1,16 +1,37 @@
 package com.example.demo.workout;
 
 import jakarta.validation.Valid;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface WorkoutRepository extends JpaRepository<Workout, Long> {
+// read methods are readOnly so they can be served by a read replica (see replica.ReplicaRoutingConfig)
+// CRUD and paging only, no JpaRepository: nothing here may need JPA or query by example, because
+// shard.ShardedWorkoutRepository implements the same interface over plain JDBC
+public interface WorkoutRepository extends ListCrudRepository<Workout, Long>, ListPagingAndSortingRepository<Workout, Long>,
+        WorkoutUpsert {
     // boolean existsByWorkoutPlanName(@Valid String name, String planName);
     //Optional<Workout> findByWorkoutId(@Valid String userId);
+    @Transactional(readOnly = true)
     List<Workout> findByUserIdAndWorkoutPlanNameAndDay(String userId, String workoutPlanName, String day);
+    @Transactional(readOnly = true)
     Optional<Workout> findByUserIdAndWorkoutPlanNameAndExerciseName(String userId, String workoutPlanName, String exerciseName);
+    @Transactional(readOnly = true)
+    List<Workout> findByUserIdAndWorkoutPlanName(String userId, String workoutPlanName);
     boolean existsByUserIdAndWorkoutPlanName(String userId, String workoutPlanName);
+    @Transactional // derived deletes need a write transaction
     void deleteByUserIdAndWorkoutPlanName(String userId, String workoutPlanName);
+    @Transactional(readOnly = true)
+    List<Workout> findByUserIdAndDay(String userId, String day);
+    @Transactional(readOnly = true)
+    @Query("select distinct w.workoutPlanName from Workout w where w.userId = :userId order by w.workoutPlanName")
+    List<String> findPlanNamesByUserId(@Param("userId") String userId);
+    // keyset paging over the whole table (analytics rebuild)
+    @Transactional(readOnly = true)
+    List<Workout> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
 }
@@ -0,0 +1,18 @@
+package com.example.demo.workout;
+
+/**
+ * Custom repository fragment: insert-or-update of one workout row on its unique key
+ * (user_id, workout_plan_name, exercise_name, day) without a read-then-write race.
+ */
+public interface WorkoutUpsert {
+
+    enum Outcome { INSERTED, UPDATED }
+
+    record Result(Outcome outcome, long id, long version) {}
+
+    /**
+     * Inserts the row, or sets sets/reps of the row with the same key, last writer wins.
+     * The returned version counts the row's changes; it is not checked against anything.
+     */
+    Result upsert(Workout workout);
+}
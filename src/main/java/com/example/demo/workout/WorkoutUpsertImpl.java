@@ -0,0 +1,161 @@
+package com.example.demo.workout;
+
+import com.example.demo.jdbc.SqlDialect;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * WorkoutUpsert for WorkoutRepository (picked up by Spring Data through the Impl suffix).
+ * - Last writer wins on every path: an upsert does not compare against a version the caller has seen.
+ *   The version column is a change counter here; it still makes JPA writers that loaded the row
+ *   earlier fail their own @Version check after an upsert changed it.
+ * - MySQL: INSERT ... AS new ON DUPLICATE KEY UPDATE (row alias, MySQL 8.0.19+; VALUES() is deprecated);
+ *   H2: MERGE ... USING. Both increment the version.
+ * - Any other database: find by key + JPA save; the @Version check only guards the gap between that
+ *   read and the flush.
+ * - Duplicate keys (two first inserts racing), optimistic lock failures, deadlocks and lock timeouts are
+ *   retried up to workout.upsert.max-attempts times with a short random backoff. Retries only happen
+ *   when no outer transaction is active, since a failed statement poisons it.
+ */
+public class WorkoutUpsertImpl implements WorkoutUpsert {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutUpsertImpl.class);
+
+    private static final String MYSQL_UPSERT = """
+            INSERT INTO workout (user_id, workout_plan_name, exercise_name, day, sets, reps, version)
+            VALUES (:userId, :plan, :exercise, :day, :sets, :reps, 0) AS new
+            ON DUPLICATE KEY UPDATE sets = new.sets, reps = new.reps, version = version + 1""";
+
+    private static final String H2_UPSERT = """
+            MERGE INTO workout t
+            USING (SELECT CAST(:userId AS VARCHAR(255)) AS user_id, CAST(:plan AS VARCHAR(255)) AS workout_plan_name,
+                          CAST(:exercise AS VARCHAR(255)) AS exercise_name, CAST(:day AS VARCHAR(255)) AS day,
+                          CAST(:sets AS INT) AS sets, CAST(:reps AS INT) AS reps) s
+            ON t.user_id = s.user_id AND t.workout_plan_name = s.workout_plan_name
+               AND t.exercise_name = s.exercise_name AND t.day = s.day
+            WHEN MATCHED THEN UPDATE SET sets = s.sets, reps = s.reps, version = t.version + 1
+            WHEN NOT MATCHED THEN INSERT (user_id, workout_plan_name, exercise_name, day, sets, reps, version)
+                 VALUES (s.user_id, s.workout_plan_name, s.exercise_name, s.day, s.sets, s.reps, 0)""";
+
+    private static final String SELECT_KEY = """
+            SELECT id, version FROM workout
+            WHERE user_id = :userId AND workout_plan_name = :plan AND exercise_name = :exercise AND day = :day""";
+
+    private static final String JPA_FIND = """
+            select w from Workout w where w.userId = :userId and w.workoutPlanName = :plan
+            and w.exerciseName = :exercise and w.day = :day""";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final EntityManager em;
+    private final DataSource dataSource;
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private volatile SqlDialect dialect; // detected on first use, so startup doesn't need a connection
+
+    public WorkoutUpsertImpl(NamedParameterJdbcTemplate jdbc, EntityManager em, DataSource dataSource,
+                             PlatformTransactionManager txManager,
+                             @Value("${workout.upsert.max-attempts:5}") int maxAttempts) {
+        this.jdbc = jdbc;
+        this.em = em;
+        this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(txManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    @Override
+    public Result upsert(Workout workout) {
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> dialect() == SqlDialect.OTHER ? upsertJpa(workout) : upsertNative(workout));
+            } catch (DataIntegrityViolationException | TransientDataAccessException e) {
+                // the caller checks for missing values, so an integrity violation here is a unique key race
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                log.debug("Workout upsert attempt {} failed ({}), retrying", attempt, e.getClass().getSimpleName());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Result upsertNative(Workout w) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", w.getUserId())
+                .addValue("plan", w.getWorkoutPlanName())
+                .addValue("exercise", w.getExerciseName())
+                .addValue("day", w.getDay())
+                .addValue("sets", w.getSets())
+                .addValue("reps", w.getReps());
+        int affected = jdbc.update(dialect() == SqlDialect.MYSQL ? MYSQL_UPSERT : H2_UPSERT, params);
+        List<long[]> row = jdbc.query(SELECT_KEY, params, (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("version")});
+        long id = row.get(0)[0];
+        long version = row.get(0)[1];
+        // MySQL reports 1 affected row for an insert and 2 for an update; MERGE always reports 1, so use the version
+        boolean inserted = dialect() == SqlDialect.MYSQL ? affected == 1 : version == 0;
+        return new Result(inserted ? Outcome.INSERTED : Outcome.UPDATED, id, version);
+    }
+
+    private Result upsertJpa(Workout w) {
+        try {
+            return upsertWithVersionCheck(w);
+        } catch (RuntimeException e) {
+            // we are inside the repository proxy, so its exception translation hasn't happened yet
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private Result upsertWithVersionCheck(Workout w) {
+        List<Workout> existing = em.createQuery(JPA_FIND, Workout.class)
+                .setParameter("userId", w.getUserId())
+                .setParameter("plan", w.getWorkoutPlanName())
+                .setParameter("exercise", w.getExerciseName())
+                .setParameter("day", w.getDay())
+                .getResultList();
+        if (existing.isEmpty()) {
+            Workout row = new Workout(w.getUserId(), w.getWorkoutPlanName(), w.getExerciseName(), w.getDay(),
+                    w.getSets(), w.getReps());
+            em.persist(row);
+            em.flush();
+            return new Result(Outcome.INSERTED, row.getId(), row.getVersion());
+        }
+        Workout row = existing.get(0);
+        row.setSets(w.getSets());
+        row.setReps(w.getReps());
+        em.flush(); // UPDATE ... WHERE version = ? fails here if someone else changed the row
+        return new Result(Outcome.UPDATED, row.getId(), row.getVersion());
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SqlDialect dialect() {
+        SqlDialect d = dialect;
+        if (d == null) {
+            d = SqlDialect.of(dataSource);
+            dialect = d;
+        }
+        return d;
+    }
+}
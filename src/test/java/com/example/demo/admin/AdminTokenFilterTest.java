@@ -0,0 +1,55 @@
+package com.example.demo.admin;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit tests (no Spring context) for the admin token check.
+ */
+class AdminTokenFilterTest {
+
+    @Test
+    void withoutConfiguredToken_adminEndpointsDoNotExist() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/admin/jfr/start");
+        request.addHeader(AdminTokenFilter.TOKEN_HEADER, "");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AdminTokenFilter("").doFilter(request, response, chain);
+
+        assertEquals(404, response.getStatus());
+        assertNull(chain.getRequest(), "the controller must not run");
+    }
+
+    @Test
+    void missingOrWrongToken_is401() throws Exception {
+        AdminTokenFilter filter = new AdminTokenFilter("s3cret");
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/admin/sql-stats"), missing, new MockFilterChain());
+        assertEquals(401, missing.getStatus());
+
+        MockHttpServletRequest wrong = new MockHttpServletRequest("PUT", "/api/admin/sql-stats");
+        wrong.addHeader(AdminTokenFilter.TOKEN_HEADER, "s3cre");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(wrong, response, new MockFilterChain());
+        assertEquals(401, response.getStatus());
+    }
+
+    @Test
+    void rightToken_passes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/jfr");
+        request.addHeader(AdminTokenFilter.TOKEN_HEADER, "s3cret");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AdminTokenFilter("s3cret").doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.analytics;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutChangedEvent;
+import com.example.demo.workout.WorkoutRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.demo.workout.WorkoutChangedEvent.Type.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pure unit test (repositories mocked). Verifies incremental updates match a full rebuild.
+ */
+class VolumeAnalyticsTest {
+
+    private WorkoutRepository workoutRepo;
+    private ExerciseRepository exerciseRepo;
+    private VolumeAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        workoutRepo = mock(WorkoutRepository.class);
+        exerciseRepo = mock(ExerciseRepository.class);
+        ExerciseEntity bench = exercise("Bench Press", "chest", "intermediate");
+        ExerciseEntity squat = exercise("Squat", "quadriceps", "expert");
+        when(exerciseRepo.findByName(anyString())).thenReturn(List.of());
+        when(exerciseRepo.findByName("Bench Press")).thenReturn(List.of(bench));
+        when(exerciseRepo.findByName("Squat")).thenReturn(List.of(squat));
+        when(exerciseRepo.findAll()).thenReturn(List.of(bench, squat));
+        analytics = new VolumeAnalytics(workoutRepo, exerciseRepo, false, false);
+    }
+
+    @Test
+    void createdRows_areSummedPerMuscleDayAndDifficulty() {
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Bench Press", "Monday", 3, 10));
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Squat", "Monday", 5, 5));
+        analytics.onWorkoutChanged(event(CREATED, "PlanB", "Bench Press", "Thu", 4, 8));
+
+        assertEquals(Map.of("chest", 62L, "quadriceps", 25L), analytics.weeklyVolumeByMuscle("u1", null));
+        assertEquals(Map.of("chest", 30L, "quadriceps", 25L), analytics.weeklyVolumeByMuscle("u1", "PlanA"));
+        assertEquals(Map.of("chest", 32L), analytics.dailyVolumeByMuscle("u1", null).get("Thu"));
+
+        Map<String, VolumeAnalytics.DifficultyStats> difficulty = analytics.difficultyDistribution("u1", null);
+        assertEquals(new VolumeAnalytics.DifficultyStats(2, 62), difficulty.get("intermediate"));
+        assertEquals(new VolumeAnalytics.DifficultyStats(1, 25), difficulty.get("expert"));
+    }
+
+    @Test
+    void updateReplacesPreviousContribution_andDeleteRemovesIt() {
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Bench Press", "Mon", 3, 10));
+        analytics.onWorkoutChanged(event(UPDATED, "PlanA", "Bench Press", "Mon", 5, 5));
+        assertEquals(Map.of("chest", 25L), analytics.weeklyVolumeByMuscle("u1", null));
+
+        analytics.onWorkoutChanged(event(DELETED, "PlanA", "Bench Press", "Mon", 5, 5));
+        assertTrue(analytics.weeklyVolumeByMuscle("u1", null).isEmpty());
+        assertTrue(analytics.difficultyDistribution("u1", "PlanA").isEmpty());
+    }
+
+    @Test
+    void unknownExercisesAndDays_areBucketed() {
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Mystery Move", "someday", 2, 10));
+
+        assertEquals(Map.of("unknown", 20L), analytics.dailyVolumeByMuscle("u1", null).get("Other"));
+    }
+
+    @Test
+    void unknownExercise_isNotCached_soALaterCatalogEntryCounts() {
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Dip", "Mon", 3, 10));
+        when(exerciseRepo.findByName("Dip")).thenReturn(List.of(exercise("Dip", "triceps", "beginner")));
+        analytics.onWorkoutChanged(event(CREATED, "PlanA", "Dip", "Tue", 3, 10));
+
+        assertEquals(Map.of("unknown", 30L, "triceps", 30L), analytics.weeklyVolumeByMuscle("u1", null));
+    }
+
+    @Test
+    void rebuild_matchesIncrementalState() {
+        Workout a = workout(1L, "PlanA", "Bench Press", "Mon", 3, 10);
+        Workout b = workout(2L, "PlanA", "Squat", "Wed", 5, 5);
+        when(workoutRepo.findTop1000ByIdGreaterThanOrderByIdAsc(anyLong())).thenReturn(List.of());
+        when(workoutRepo.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(a, b));
+
+        analytics.onWorkoutChanged(WorkoutChangedEvent.of(CREATED, a));
+        analytics.onWorkoutChanged(WorkoutChangedEvent.of(CREATED, b));
+        Map<String, Long> incremental = analytics.weeklyVolumeByMuscle("u1", null);
+
+        VolumeAnalytics.RebuildStats stats = analytics.rebuild();
+
+        assertEquals(2, stats.rows());
+        assertEquals(1, stats.users());
+        assertEquals(incremental, analytics.weeklyVolumeByMuscle("u1", null));
+        verify(workoutRepo).findTop1000ByIdGreaterThanOrderByIdAsc(2L);
+    }
+
+    private static WorkoutChangedEvent event(WorkoutChangedEvent.Type type, String plan, String exercise,
+                                             String day, int sets, int reps) {
+        return new WorkoutChangedEvent(type, null, "u1", plan, exercise, day, sets, reps);
+    }
+
+    private static Workout workout(Long id, String plan, String exercise, String day, int sets, int reps) {
+        Workout w = new Workout("u1", plan, exercise, day, sets, reps);
+        w.setId(id);
+        return w;
+    }
+
+    private static ExerciseEntity exercise(String name, String muscle, String difficulty) {
+        ExerciseEntity e = new ExerciseEntity(name);
+        e.setMuscle(muscle);
+        e.setDifficulty(difficulty);
+        return e;
+    }
+}
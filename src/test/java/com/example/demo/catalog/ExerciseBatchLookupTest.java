@@ -0,0 +1,82 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pure unit test (repository mocked). Verifies one IN query, stable ordering, the cap and the index path.
+ */
+class ExerciseBatchLookupTest {
+
+    private ExerciseRepository repository;
+    private ObjectProvider<ExerciseNameIndex> provider;
+    private ExerciseBatchLookup lookup;
+    private List<ExerciseEntity> catalog;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ExerciseRepository.class);
+        provider = mock(ObjectProvider.class);
+        lookup = new ExerciseBatchLookup(repository, provider, 3);
+        catalog = List.of(exercise(3L, "Squat"), exercise(1L, "Bench Press"), exercise(2L, "bench press"));
+        List<ExerciseEntity> shuffled = new ArrayList<>(catalog);
+        Collections.reverse(shuffled);
+        when(repository.findByNameIn(anyCollection())).thenReturn(shuffled);
+        when(repository.findAll()).thenReturn(catalog);
+    }
+
+    @Test
+    void database_oneQuery_requestOrder_idOrder() {
+        Map<String, List<ExerciseEntity>> result = lookup.findByNames(List.of("Squat", "Bench Press", "Lunge", "Squat", " "));
+
+        assertEquals(List.of("Squat", "Bench Press", "Lunge"), List.copyOf(result.keySet()));
+        assertEquals(List.of(3L), ids(result.get("Squat")));
+        assertEquals(List.of(1L, 2L), ids(result.get("Bench Press")));
+        assertTrue(result.get("Lunge").isEmpty());
+        verify(repository, times(1)).findByNameIn(Set.of("Squat", "Bench Press", "Lunge"));
+        verify(repository, never()).findByName(any());
+    }
+
+    @Test
+    void tooManyNames_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> lookup.findByNames(List.of("a", "b", "c", "d")));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void loadedIndex_isUsedInsteadOfTheDatabase() {
+        ExerciseNameIndex index = new ExerciseNameIndex(repository, true);
+        index.refresh();
+        when(provider.getIfAvailable()).thenReturn(index);
+
+        Map<String, List<ExerciseEntity>> result = lookup.findByNames(List.of("BENCH PRESS", "Squat"));
+
+        assertEquals(List.of(1L, 2L), ids(result.get("BENCH PRESS")));
+        assertEquals(List.of(3L), ids(result.get("Squat")));
+        verify(repository, never()).findByNameIn(anyCollection());
+    }
+
+    private static List<Long> ids(List<ExerciseEntity> exercises) {
+        return exercises.stream().map(ExerciseEntity::getId).toList();
+    }
+
+    private static ExerciseEntity exercise(Long id, String name) {
+        ExerciseEntity e = new ExerciseEntity(name);
+        e.setId(id);
+        return e;
+    }
+}
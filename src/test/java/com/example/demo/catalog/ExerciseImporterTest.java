@@ -0,0 +1,118 @@
+package com.example.demo.catalog;
+
+import com.example.demo.controller.ExerciseImportController;
+import com.example.demo.model.InstructionsCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the importer against an embedded H2 database (see application-test.properties).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ExerciseImporter.class)
+@RecordApplicationEvents
+class ExerciseImporterTest {
+
+    @Autowired ExerciseImporter importer;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ApplicationEvents events;
+
+    @Test
+    void csvImport_insertsUpdatesAndReportsBadRows() throws Exception {
+        // an exercise that already exists -> should be updated, not duplicated
+        jdbc.update("INSERT INTO exercises (name, type, muscle, equipment, difficulty) "
+                + "VALUES ('push up', 'strength', 'chest', 'none', 'beginner')");
+        jdbc.update("INSERT INTO exercise_instructions (exercise_id, content, compressed) "
+                + "SELECT id, ?, FALSE FROM exercises WHERE name = 'push up'", (Object) "old".getBytes(StandardCharsets.UTF_8));
+
+        String csv = """
+                name,type,muscle,equipment,difficulty,instructions
+                push up,strength,chest,none,beginner,new instructions
+                squat,strength,quadriceps,barbell,intermediate,sit back and stand up
+                Squat,strength,quadriceps,barbell,intermediate,duplicate by name
+                plank,strength,,none,beginner,missing muscle
+                deadlift,strength,hamstrings,barbell,advanced,hinge at the hips
+                """;
+
+        ImportReport report = importer.importCatalog(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, 2);
+
+        assertEquals(5, report.rowsRead());
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.updated());
+        assertEquals(2, report.skipped());
+        assertEquals(2, report.errors().size());
+        assertEquals(3, report.errors().get(0).row());
+        assertEquals(4, report.errors().get(1).row());
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM exercises WHERE name = 'push up'", Integer.class));
+        assertEquals("new instructions", instructionsOf("push up"));
+        assertEquals("hinge at the hips", instructionsOf("deadlift"));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM exercises", Integer.class));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+        assertEquals(List.of(new CatalogChangedEvent(2, 1)), events.stream(CatalogChangedEvent.class).toList());
+    }
+
+    @Test
+    void jsonImport_streamsArray() throws Exception {
+        String json = """
+                [
+                  {"name":"lunge","type":"strength","muscle":"glutes","equipment":"none","difficulty":"beginner","instructions":"step forward"},
+                  {"name":"row","type":"strength","muscle":"lats","equipment":"cable","difficulty":"beginner","instructions":"pull to waist"}
+                ]
+                """;
+
+        ImportReport report = importer.importCatalog(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), ImportFormat.JSON, null);
+
+        assertEquals(2, report.inserted());
+        assertFalse(report.aborted());
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM exercises", Integer.class));
+        assertEquals("pull to waist", instructionsOf("row"));
+    }
+
+    @Test
+    void oldNotNullInstructionsColumn_isRefusedUpFront() {
+        jdbc.execute("ALTER TABLE exercises ADD COLUMN instructions VARCHAR(255) NOT NULL");
+        try {
+            String csv = "name,type,muscle,equipment,difficulty,instructions\nsquat,strength,quadriceps,barbell,intermediate,sit\n";
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> importer.importCatalog(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, null));
+            assertTrue(e.getMessage().contains("catalog.instructions.migration-enabled"));
+            assertEquals(0, events.stream(CatalogChangedEvent.class).count());
+        } finally {
+            jdbc.execute("ALTER TABLE exercises DROP COLUMN instructions");
+        }
+    }
+
+    @Test
+    void malformedJsonBody_isABadRequest() {
+        ExerciseImportController controller = new ExerciseImportController(importer);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> controller.importCatalog(
+                new ByteArrayInputStream("not json".getBytes(StandardCharsets.UTF_8)), "application/json", null));
+        assertEquals(400, e.getStatusCode().value());
+    }
+
+    private String instructionsOf(String name) {
+        return jdbc.queryForObject("SELECT i.content, i.compressed FROM exercise_instructions i"
+                        + " JOIN exercises e ON e.id = i.exercise_id WHERE e.name = ?",
+                (rs, n) -> InstructionsCodec.decode(rs.getBytes(1), rs.getBoolean(2)), name);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.catalog;
+
+import com.example.demo.model.InstructionsCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moving the pre-split exercises.instructions column, against an in-memory H2 database.
+ */
+class InstructionsColumnMigrationTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:instructions;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("DROP TABLE IF EXISTS schema_migration");
+        jdbc.execute("DROP TABLE IF EXISTS exercise_instructions_copied");
+        jdbc.execute("DROP TABLE IF EXISTS exercise_instructions");
+        jdbc.execute("DROP TABLE IF EXISTS exercises");
+        jdbc.execute("CREATE TABLE exercises (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+                + " instructions VARCHAR(255) NOT NULL)");
+        jdbc.execute("CREATE TABLE exercise_instructions (exercise_id BIGINT PRIMARY KEY, content BLOB NOT NULL,"
+                + " compressed BOOLEAN NOT NULL)");
+    }
+
+    @Test
+    void offByDefault() {
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('e0', 'do 0')");
+
+        migration(false, false).run(null);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+        assertEquals(1, jdbc.queryForList("SELECT instructions FROM exercises").size());
+    }
+
+    @Test
+    void copyStep_copiesInChunks_skipsCopiedRows_andKeepsTheColumnNullable() {
+        for (int i = 0; i < 5; i++) {
+            jdbc.update("INSERT INTO exercises (name, instructions) VALUES (?, ?)", "e" + i, "do " + i);
+        }
+        // an earlier, interrupted run got this far
+        jdbc.update("INSERT INTO exercise_instructions SELECT id, ?, FALSE FROM exercises WHERE name = 'e0'",
+                (Object) "do 0".getBytes());
+
+        migration(true, false).run(null);
+
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+        assertEquals("do 3", jdbc.queryForObject("SELECT i.content, i.compressed FROM exercise_instructions i"
+                        + " JOIN exercises e ON e.id = i.exercise_id WHERE e.name = 'e3'",
+                (rs, n) -> InstructionsCodec.decode(rs.getBytes(1), rs.getBoolean(2))));
+        // old instances can still read it, new ones insert without it
+        assertEquals(5, jdbc.queryForList("SELECT instructions FROM exercises").size());
+        jdbc.update("INSERT INTO exercises (name) VALUES ('new')");
+        assertNotNull(jdbc.queryForObject("SELECT finished_at FROM schema_migration WHERE name = ?",
+                Timestamp.class, InstructionsColumnMigration.COPY_STEP));
+    }
+
+    @Test
+    void dropStep_copiesWhatOldInstancesWroteSince_thenDropsTheColumn() {
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('e0', 'do 0')");
+        migration(true, false).run(null);
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('late', 'written by an old instance')");
+
+        migration(true, false).run(null); // the copy step ran once already
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+
+        migration(true, true).run(null);
+
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+        assertThrows(BadSqlGrammarException.class, () -> jdbc.queryForList("SELECT instructions FROM exercises"));
+        migration(true, true).run(null); // nothing left to do
+    }
+
+    @Test
+    void dropStep_replacesWhatOldInstancesEdited_keepsWhatNewInstancesEdited() {
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('old-edit', 'do 0')");
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('new-edit', 'do 1')");
+        migration(true, false).run(null);
+        // during the rolling window: an old instance edits the old column, a new one the new table
+        jdbc.update("UPDATE exercises SET instructions = 'do 0, slower' WHERE name = 'old-edit'");
+        jdbc.update("UPDATE exercise_instructions SET content = ?, compressed = FALSE"
+                + " WHERE exercise_id = (SELECT id FROM exercises WHERE name = 'new-edit')", (Object) "do 1, deeper".getBytes());
+
+        migration(true, true).run(null);
+
+        assertEquals("do 0, slower", instructionsOf("old-edit"));
+        assertEquals("do 1, deeper", instructionsOf("new-edit"));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+        assertThrows(BadSqlGrammarException.class, () -> jdbc.queryForList("SELECT * FROM exercise_instructions_copied"));
+    }
+
+    @Test
+    void stepLeasedByAnotherInstance_isLeftAlone() {
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('e0', 'do 0')");
+        jdbc.execute("CREATE TABLE schema_migration (name VARCHAR(100) NOT NULL PRIMARY KEY,"
+                + " owner VARCHAR(36) NOT NULL, locked_until TIMESTAMP NOT NULL, finished_at TIMESTAMP NULL)");
+        jdbc.update("INSERT INTO schema_migration (name, owner, locked_until) VALUES (?, 'other', ?)",
+                InstructionsColumnMigration.COPY_STEP, Timestamp.from(Instant.now().plusSeconds(60)));
+
+        migration(true, false).run(null);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM exercise_instructions", Integer.class));
+    }
+
+    @Test
+    void missingNewTable_isLogged_notFatal() {
+        jdbc.execute("DROP TABLE exercise_instructions");
+        jdbc.update("INSERT INTO exercises (name, instructions) VALUES ('e0', 'do 0')");
+
+        assertDoesNotThrow(() -> migration(true, false).run(null));
+
+        assertNull(jdbc.queryForObject("SELECT finished_at FROM schema_migration WHERE name = ?",
+                Timestamp.class, InstructionsColumnMigration.COPY_STEP), "retried on the next start");
+    }
+
+    private String instructionsOf(String exercise) {
+        return jdbc.queryForObject("SELECT i.content, i.compressed FROM exercise_instructions i"
+                        + " JOIN exercises e ON e.id = i.exercise_id WHERE e.name = ?",
+                (rs, n) -> InstructionsCodec.decode(rs.getBytes(1), rs.getBoolean(2)), exercise);
+    }
+
+    private InstructionsColumnMigration migration(boolean enabled, boolean dropColumn) {
+        return new InstructionsColumnMigration(jdbc, enabled, dropColumn, 2, Duration.ofMinutes(5));
+    }
+}
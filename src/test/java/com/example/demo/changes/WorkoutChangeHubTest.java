@@ -0,0 +1,171 @@
+package com.example.demo.changes;
+
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hub unit tests without HTTP: subscribers are recording sinks, and the drain executor either runs
+ * inline or is a queue the test runs by hand (to play a slow consumer).
+ */
+class WorkoutChangeHubTest {
+
+    private static final Executor INLINE = Runnable::run;
+
+    @Test
+    void fansOutToEverySubscriberOfTheUser_only() {
+        WorkoutChangeHub hub = new WorkoutChangeHub(16, OverflowPolicy.DROP_OLDEST, 60_000, INLINE, null);
+        RecordingSink phone = new RecordingSink();
+        RecordingSink laptop = new RecordingSink();
+        RecordingSink otherUser = new RecordingSink();
+        hub.subscribe("u1", null, phone);
+        hub.subscribe("u1", null, laptop);
+        hub.subscribe("u2", null, otherUser);
+
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.CREATED, "u1", 1));
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.DELETED, "u1", 1));
+
+        assertEquals(List.of("resync", "created", "deleted"), phone.names);
+        assertEquals(List.of("resync", "created", "deleted"), laptop.names);
+        assertEquals(phone.ids, laptop.ids);
+        assertEquals(List.of("resync"), otherUser.names);
+        assertEquals(3, hub.subscribers());
+    }
+
+    @Test
+    void lastEventId_resumesWithTheMissedEvents() {
+        WorkoutChangeHub hub = new WorkoutChangeHub(16, OverflowPolicy.DROP_OLDEST, 60_000, INLINE, null);
+        RecordingSink first = new RecordingSink();
+        WorkoutChangeHub.Subscription subscription = hub.subscribe("u1", null, first);
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.CREATED, "u1", 1));
+        subscription.cancel();
+        assertTrue(first.closed);
+
+        // changes while disconnected
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.UPDATED, "u1", 1));
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.CREATED, "u1", 2));
+
+        RecordingSink again = new RecordingSink();
+        hub.subscribe("u1", first.ids.get(1), again);
+        assertEquals(List.of("updated", "created"), again.names);
+        assertEquals(2L, ((WorkoutChangedEvent) again.data.get(1)).id().longValue());
+    }
+
+    @Test
+    void freshSubscriber_isToldToLoadThePlanFirst() {
+        WorkoutChangeHub hub = new WorkoutChangeHub(16, OverflowPolicy.DROP_OLDEST, 60_000, INLINE, null);
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe("u1", null, sink);
+
+        // changes handled by other instances never arrive here: the client has to start from a fresh load
+        assertEquals(List.of("resync"), sink.names);
+        assertEquals(Map.of("reason", "connected"), sink.data.get(0));
+    }
+
+    @Test
+    void unknownLastEventId_getsAResync() {
+        WorkoutChangeHub hub = new WorkoutChangeHub(16, OverflowPolicy.DROP_OLDEST, 60_000, INLINE, null);
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe("u1", "previous-process-42", sink);
+        hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.CREATED, "u1", 1));
+
+        assertEquals(List.of("resync", "created"), sink.names);
+    }
+
+    @Test
+    void slowSubscriber_dropOldest_skipsAheadAndSaysSo() {
+        Queue<Runnable> pending = new ArrayDeque<>();
+        WorkoutChangeHub hub = new WorkoutChangeHub(4, OverflowPolicy.DROP_OLDEST, 60_000, pending::add, null);
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe("u1", null, sink);
+        runAll(pending);
+
+        for (int i = 1; i <= 10; i++) {
+            hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.UPDATED, "u1", i));
+        }
+        runAll(pending); // the subscriber only gets to run now, 10 events behind with room for 4
+
+        assertEquals(List.of("resync", "resync"), sink.names.subList(0, 2), "connected, then overflow");
+        assertEquals(6, sink.names.size());
+        assertEquals(10L, ((WorkoutChangedEvent) sink.data.get(5)).id().longValue());
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    void slowSubscriber_disconnectPolicy_closesTheStream() {
+        Queue<Runnable> pending = new ArrayDeque<>();
+        WorkoutChangeHub hub = new WorkoutChangeHub(4, OverflowPolicy.DISCONNECT, 60_000, pending::add, null);
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe("u1", null, sink);
+        runAll(pending);
+
+        for (int i = 1; i <= 10; i++) {
+            hub.onWorkoutChanged(event(WorkoutChangedEvent.Type.UPDATED, "u1", i));
+        }
+        runAll(pending);
+
+        assertTrue(sink.closed);
+        assertEquals(List.of("resync"), sink.names, "only the one sent on connect");
+        assertEquals(0, hub.subscribers());
+    }
+
+    @Test
+    void heartbeat_pingsSubscribers_andForgetsIdleTopics() {
+        WorkoutChangeHub hub = new WorkoutChangeHub(16, OverflowPolicy.DROP_OLDEST, 0, INLINE, null);
+        RecordingSink live = new RecordingSink();
+        hub.subscribe("u1", null, live);
+        hub.subscribe("u2", null, new RecordingSink()).cancel();
+
+        hub.heartbeat();
+
+        assertEquals(1, live.heartbeats);
+        assertEquals(1, hub.topics(), "u2 has nobody left and nothing worth resuming");
+    }
+
+    private static void runAll(Queue<Runnable> pending) {
+        Runnable r;
+        while ((r = pending.poll()) != null) {
+            r.run();
+        }
+    }
+
+    private static WorkoutChangedEvent event(WorkoutChangedEvent.Type type, String userId, long id) {
+        Workout w = new Workout(userId, "Plan A", "Squat", "Mon", 3, 5);
+        w.setId(id);
+        return WorkoutChangedEvent.of(type, w);
+    }
+
+    private static final class RecordingSink implements ChangeSink {
+        final List<String> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Object> data = new ArrayList<>();
+        int heartbeats;
+        boolean closed;
+
+        @Override
+        public void event(String id, String name, Object payload) {
+            ids.add(id);
+            names.add(name);
+            data.add(payload);
+        }
+
+        @Override
+        public void heartbeat() {
+            heartbeats++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.dashboard;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pure unit test (repositories mocked). Verifies branches run concurrently and slow branches degrade to partial results.
+ */
+class DashboardServiceTest {
+
+    private UserRepository users;
+    private WorkoutRepository workouts;
+    private ExerciseRepository exercises;
+    private EntityManager entityManager;
+    private DashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        users = mock(UserRepository.class);
+        workouts = mock(WorkoutRepository.class);
+        exercises = mock(ExerciseRepository.class);
+        entityManager = mock(EntityManager.class);
+        service = new DashboardService(users, workouts, exercises, entityManager,
+                mock(PlatformTransactionManager.class), 4, 10, 300);
+
+        User user = new User("Ann", "ann@example.com", "secret");
+        user.setId(7L);
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        when(workouts.findPlanNamesByUserId("7")).thenReturn(List.of("Push", "Pull"));
+        when(workouts.findByUserIdAndDay("7", "Mon")).thenReturn(List.of(
+                new Workout("7", "Push", "Bench Press", "Mon", 4, 8),
+                new Workout("7", "Push", "Dips", "Mon", 3, 10)));
+        ExerciseEntity bench = new ExerciseEntity("Bench Press");
+        bench.setMuscle("chest");
+        when(exercises.findByNameIn(anyCollection())).thenReturn(List.of(bench));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void allBranches_areCombined_withOneBatchedDetailsQuery() {
+        DashboardResponse response = service.load("7", "Mon");
+
+        assertEquals(new DashboardResponse.Profile(7L, "Ann", "ann@example.com"), response.profile());
+        assertEquals(List.of("Push", "Pull"), response.plans());
+        assertEquals(2, response.today().size());
+        assertEquals("chest", response.today().get(0).details().getMuscle());
+        assertNull(response.today().get(1).details(), "Dips is not in the catalog");
+        assertTrue(response.unavailable().isEmpty());
+        verify(exercises, times(1)).findByNameIn(anyCollection());
+        verify(exercises, never()).findByName(any());
+    }
+
+    @Test
+    void branches_runConcurrently() {
+        when(workouts.findPlanNamesByUserId("7")).thenAnswer(inv -> sleep(200, List.of("Push")));
+        when(users.findById(7L)).thenAnswer(inv -> sleep(200, Optional.empty()));
+
+        DashboardResponse response = service.load("7", "Mon");
+
+        assertTrue(response.unavailable().isEmpty());
+        assertTrue(response.elapsedMillis() < 350, "took " + response.elapsedMillis() + " ms");
+    }
+
+    @Test
+    void slowOrFailingBranches_giveAPartialResponse() {
+        when(workouts.findPlanNamesByUserId("7")).thenAnswer(inv -> sleep(2000, List.of()));
+        when(exercises.findByNameIn(anyCollection())).thenThrow(new IllegalStateException("db down"));
+
+        DashboardResponse response = service.load("7", "Mon");
+
+        assertEquals(Map.of("plans", "timeout", "exerciseDetails", "error"), response.unavailable());
+        assertNull(response.plans());
+        assertEquals("Ann", response.profile().name());
+        assertEquals(2, response.today().size());
+        assertNull(response.today().get(0).details());
+        assertTrue(response.elapsedMillis() < 1000, "took " + response.elapsedMillis() + " ms");
+    }
+
+    @Test
+    void timedOutBranch_isInterrupted_andItsQueriesCarryTheBudgetLeft() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(workouts.findPlanNamesByUserId("7")).thenAnswer(inv -> {
+            try {
+                return sleep(5000, List.of());
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+
+        DashboardResponse response = service.load("7", "Mon");
+
+        assertEquals(Map.of("plans", "timeout"), response.unavailable());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "the worker keeps running after the timeout");
+        verify(entityManager, atLeast(4)).setProperty(eq(DashboardService.QUERY_TIMEOUT_HINT),
+                intThat(ms -> ms > 0 && ms <= 300));
+    }
+
+    private static <T> T sleep(long millis, T result) throws InterruptedException {
+        Thread.sleep(millis);
+        return result;
+    }
+}
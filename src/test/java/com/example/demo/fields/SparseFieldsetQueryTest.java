@@ -0,0 +1,83 @@
+package com.example.demo.fields;
+
+import com.example.demo.shard.ShardedWorkoutRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tuple queries for ?fields= against an embedded H2 database (see application-test.properties).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SparseFieldsetQuery.class)
+class SparseFieldsetQueryTest {
+
+    @Autowired SparseFieldsetQuery query;
+    @Autowired JdbcTemplate jdbc;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void onlyTheSelectedColumnsAreReturned_idFirst_inDeclarationOrder() throws Exception {
+        jdbc.update("INSERT INTO exercises (name, type, muscle, equipment, difficulty) "
+                + "VALUES ('squat', 'strength', 'quadriceps', 'barbell', 'intermediate')");
+
+        List<String> fields = Fieldset.EXERCISE.select("muscle, name,name");
+        assertEquals(List.of("id", "name", "muscle"), fields);
+
+        SparseRows rows = query.findAll(Fieldset.EXERCISE, fields);
+        assertEquals(1, rows.rows().size());
+        assertEquals(3, rows.rows().get(0).length);
+
+        String json = mapper.writeValueAsString(rows);
+        assertTrue(json.matches("\\[\\{\"id\":\\d+,\"name\":\"squat\",\"muscle\":\"quadriceps\"}]"), json);
+    }
+
+    @Test
+    void maskedFields_areNotQueried_butWrittenAsTheMask() throws Exception {
+        jdbc.update("INSERT INTO users (name, email, password) VALUES ('Kass', 'k@example.com', 'secret')");
+
+        SparseRows rows = query.findAll(Fieldset.USER, Fieldset.USER.select("email,password"));
+        assertEquals(2, rows.rows().get(0).length, "id and email only");
+
+        String json = mapper.writeValueAsString(rows);
+        assertTrue(json.contains("\"email\":\"k@example.com\",\"password\":\"********\""), json);
+        assertFalse(json.contains("secret"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void withSharding_workoutsComeFromTheShards() throws Exception {
+        jdbc.update("INSERT INTO workout (user_id, workout_plan_name, exercise_name, day, sets, reps, version)"
+                + " VALUES ('u1', 'Plan', 'Squat', 'Mon', 3, 5, 0)"); // not read: the main table is stale
+        ShardedWorkoutRepository shards = mock(ShardedWorkoutRepository.class);
+        when(shards.findAllColumns(List.of("id", "workout_plan_name", "sets")))
+                .thenReturn(List.<Object[]>of(new Object[]{65L, "Plan B", 4}));
+        ObjectProvider<ShardedWorkoutRepository> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(shards);
+
+        SparseRows rows = new SparseFieldsetQuery(null, provider)
+                .findAll(Fieldset.WORKOUT, Fieldset.WORKOUT.select("sets,workoutPlanName"));
+
+        assertEquals("[{\"id\":65,\"workoutPlanName\":\"Plan B\",\"sets\":4}]", mapper.writeValueAsString(rows));
+    }
+
+    @Test
+    void unknownOrEmptySelections_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Fieldset.WORKOUT.select("userId,passwordHash"));
+        assertThrows(IllegalArgumentException.class, () -> Fieldset.WORKOUT.select(" , "));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit tests (no Spring context). The FilterChain stands in for the controller.
+ */
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\":\"push up\"}";
+
+    private AtomicInteger executions;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        executions = new AtomicInteger();
+        filter = new IdempotencyFilter(new InMemoryIdempotencyStore(100, Duration.ofMinutes(5)),
+                new ClientKeyResolver(false), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void retryWithSameKey_replaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = post("key-1", BODY, createdChain(null));
+        MockHttpServletResponse retry = post("key-1", BODY, createdChain(null));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("/exercises/1", retry.getHeader("Location"));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void sameKeyDifferentBody_returns422() throws Exception {
+        post("key-2", BODY, createdChain(null));
+        MockHttpServletResponse other = post("key-2", "{\"name\":\"squat\"}", createdChain(null));
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void sameKeyFromAnotherClient_isNotReplayed() throws Exception {
+        post("key-4", BODY, createdChain(null));
+        MockHttpServletResponse other = post("key-4", BODY, createdChain(null), "10.9.9.9");
+
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void keyClaimedElsewhere_returns409AfterWaiting() throws Exception {
+        InMemoryIdempotencyStore memory = new InMemoryIdempotencyStore(100, Duration.ofMinutes(5));
+        IdempotencyStore claimedByAnotherInstance = new IdempotencyStore() {
+            @Override public Optional<StoredResponse> find(String key) { return memory.find(key); }
+            @Override public void put(String key, StoredResponse response) { memory.put(key, response); }
+            @Override public boolean claim(String key, String requestHash) { return false; }
+        };
+        filter = new IdempotencyFilter(claimedByAnotherInstance, new ClientKeyResolver(false), Duration.ofMillis(200));
+
+        assertEquals(409, post("key-5", BODY, createdChain(null)).getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void cachedBody_supportsAsyncReads() throws Exception {
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            AtomicBoolean allRead = new AtomicBoolean();
+            in.setReadListener(new ReadListener() {
+                @Override public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        in.read();
+                    }
+                }
+                @Override public void onAllDataRead() { allRead.set(true); }
+                @Override public void onError(Throwable t) { throw new IllegalStateException(t); }
+            });
+            ((HttpServletResponse) response).setStatus(allRead.get() && in.isFinished() ? 201 : 500);
+        };
+
+        assertEquals(201, post("key-6", BODY, asyncReader).getStatus());
+    }
+
+    @Test
+    void noKey_isNotDeduplicated() throws Exception {
+        post(null, BODY, createdChain(null));
+        post(null, BODY, createdChain(null));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicate_waitsForFirstInsteadOfRunning() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = createdChain(() -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = pool.submit(() -> post("key-3", BODY, slow));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> duplicate = pool.submit(() -> post("key-3", BODY, slow));
+
+            Thread.sleep(100); // give the duplicate time to start waiting
+            release.countDown();
+
+            assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(201, duplicate.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface Pause {
+        void run() throws Exception;
+    }
+
+    /** Pretend controller: counts calls and answers 201 + Location like POST /api/users does. */
+    private FilterChain createdChain(Pause pause) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            if (pause != null) {
+                try {
+                    pause.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setHeader("Location", "/exercises/1");
+            http.setContentType("application/json");
+            http.getWriter().write("{\"id\":1}");
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain) throws Exception {
+        return post(key, body, chain, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain, String clientIp) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/exercises");
+        request.setRemoteAddr(clientIp);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
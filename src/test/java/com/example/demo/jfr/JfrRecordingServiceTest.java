@@ -0,0 +1,82 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit test (no Spring). Starts a real recording, emits the custom events and reads them back.
+ */
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService service = new JfrRecordingService(60_000, 50);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void recordsCustomEventsToTheStoppedFile() throws Exception {
+        service.start(Duration.ofSeconds(30), 0, "default", 0);
+
+        RequestEvent request = new RequestEvent();
+        request.begin();
+        request.method = "GET";
+        request.path = "/api/workout/u1";
+        request.route = "/api/workout/{userId}";
+        request.status = 200;
+        request.commit();
+
+        CacheLookupEvent lookup = new CacheLookupEvent();
+        lookup.begin();
+        lookup.end("idempotency", true);
+
+        Optional<Path> file = service.stop();
+        assertTrue(file.isPresent());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.get());
+
+        RecordedEvent recorded = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.demo.Request"))
+                .findFirst().orElseThrow();
+        assertEquals("/api/workout/{userId}", recorded.getString("route"));
+        assertEquals(200, recorded.getInt("status"));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.example.demo.CacheLookup")
+                && e.getBoolean("hit")));
+        assertEquals(file, service.lastRecording());
+        assertTrue(events.stream().noneMatch(e -> List.of(JfrRecordingService.SENSITIVE_EVENTS)
+                .contains(e.getEventType().getName())), "system properties / environment must not be recorded");
+    }
+
+    @Test
+    void onlyOneRecordingAtATime() {
+        service.start(Duration.ofSeconds(30), 0, "default", 0);
+        assertEquals("RUNNING", service.status().state());
+        assertThrows(IllegalStateException.class, () -> service.start(Duration.ofSeconds(30), 0, "default", 0));
+        service.stop();
+        assertEquals("NONE", service.status().state());
+        assertTrue(service.status().lastRecordingBytes() > 0);
+    }
+
+    @Test
+    void rejectsUnknownSettings() {
+        assertThrows(IllegalArgumentException.class, () -> service.start(Duration.ofSeconds(30), 0, "nope", 0));
+    }
+
+    @Test
+    void countsRowsOfRepositoryResults() {
+        assertEquals(0, RepositoryJfrAspect.rows(null));
+        assertEquals(3, RepositoryJfrAspect.rows(List.of(1, 2, 3)));
+        assertEquals(0, RepositoryJfrAspect.rows(Optional.empty()));
+        assertEquals(1, RepositoryJfrAspect.rows(Optional.of("x")));
+        assertEquals(1, RepositoryJfrAspect.rows(42L));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.user.User;
+import com.example.demo.workout.Workout;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit test. CBOR, Smile and Protobuf responses decode to the same content as the JSON one.
+ */
+class BinaryFormatConvertersTest {
+
+    private static final Type EXERCISES = new ParameterizedTypeReference<List<ExerciseEntity>>() {}.getType();
+    private static final Type WORKOUTS = new ParameterizedTypeReference<List<Workout>>() {}.getType();
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void cborAndSmileLists_decodeToTheJsonTree() throws Exception {
+        List<ExerciseEntity> rows = List.of(exercise(1), exercise(2));
+        JsonNode expected = json.readTree(json.writeValueAsBytes(rows));
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] cborBytes = write(new StreamingListHttpMessageConverter(cbor.getFactory(),
+                MediaType.APPLICATION_CBOR), rows, EXERCISES);
+        assertEquals(expected, cbor.readTree(cborBytes));
+
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        byte[] smileBytes = write(new StreamingListHttpMessageConverter(smile.getFactory(), JsonConfig.APPLICATION_SMILE),
+                rows, EXERCISES);
+        assertEquals(expected, smile.readTree(smileBytes));
+    }
+
+    @Test
+    void protobuf_writesListsAsWrapperMessages_andSingleObjects() throws Exception {
+        ObjectMapper protobuf = new ObjectMapper(new ProtobufFactory());
+        ProtobufHttpMessageConverter converter = new ProtobufHttpMessageConverter(protobuf);
+        ProtobufSchema schema = ProtobufSchemaLoader.std.parse(
+                new ClassPathResource(ProtobufHttpMessageConverter.SCHEMA).getContentAsString(StandardCharsets.UTF_8));
+
+        Workout w = new Workout("u1", "Plan A", "Squat", "Mon", 5, 5);
+        w.setId(7L);
+        assertTrue(converter.canWrite(WORKOUTS, List.class, ProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        byte[] list = write(converter, List.of(w), WORKOUTS);
+        JsonNode decoded = protobuf.readerFor(JsonNode.class).with(schema.withRootType("WorkoutList")).readValue(list);
+        assertEquals("Squat", decoded.get("items").get(0).get("exerciseName").asText());
+        assertEquals(7, decoded.get("items").get(0).get("id").asLong());
+
+        User u = new User("Kass", "kass@example.com", "secret");
+        byte[] single = write(converter, u, User.class);
+        JsonNode user = protobuf.readerFor(JsonNode.class).with(schema.withRootType("User")).readValue(single);
+        assertEquals(MaskedSerializer.MASK, user.get("password").asText());
+
+        assertFalse(converter.canWrite(String.class, ProtobufHttpMessageConverter.APPLICATION_PROTOBUF),
+                "no message for it, so MVC answers 406");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static byte[] write(GenericHttpMessageConverter converter, Object value,
+                                Type type) throws Exception {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(value, type, null, out);
+        return out.getBodyAsBytes();
+    }
+
+    private static ExerciseEntity exercise(long id) {
+        ExerciseEntity e = new ExerciseEntity("exercise " + id);
+        e.setId(id);
+        e.setType("strength");
+        e.setMuscle("chest");
+        e.setEquipment("barbell");
+        e.setDifficulty("beginner");
+        e.setInstructions("Press the bar up.");
+        return e;
+    }
+}
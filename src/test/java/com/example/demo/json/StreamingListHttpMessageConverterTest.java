@@ -0,0 +1,77 @@
+package com.example.demo.json;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.user.User;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit test. The streaming writers must produce exactly what Jackson's default mapping produces.
+ */
+class StreamingListHttpMessageConverterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final StreamingListHttpMessageConverter converter = new StreamingListHttpMessageConverter(mapper);
+
+    @Test
+    void exercises_matchJackson() throws Exception {
+        ExerciseEntity e = new ExerciseEntity("bench press");
+        e.setId(1L);
+        e.setType("strength");
+        e.setMuscle("chest");
+        e.setEquipment("barbell");
+        e.setDifficulty("intermediate");
+        e.setInstructions("say \"hi\"\n");
+        ExerciseEntity unsaved = new ExerciseEntity("squat");
+        assertSameJson(List.of(e, unsaved), new ParameterizedTypeReference<List<ExerciseEntity>>() {}.getType());
+    }
+
+    @Test
+    void workouts_andDtos_matchJackson() throws Exception {
+        Workout w = new Workout("u1", "Plan A", "Pushup", "Mon", 3, 12);
+        w.setId(5L);
+        w.setVersion(2);
+        assertSameJson(List.of(w), new ParameterizedTypeReference<List<Workout>>() {}.getType());
+        assertSameJson(List.of(new WorkoutController.WorkoutExerciseDTO("Pushup", 3, 12)),
+                new ParameterizedTypeReference<List<WorkoutController.WorkoutExerciseDTO>>() {}.getType());
+    }
+
+    @Test
+    void users_areMasked_likeTheEntitySerializer() throws Exception {
+        User u = new User("Kass", "kass@example.com", "secret");
+        u.setId(10L);
+        String json = assertSameJson(new ArrayList<>(List.of(u)), new ParameterizedTypeReference<List<User>>() {}.getType());
+        assertFalse(json.contains("secret"));
+        assertTrue(json.contains(MaskedSerializer.MASK));
+    }
+
+    @Test
+    void otherElementTypes_areLeftToJackson() {
+        Type maps = new ParameterizedTypeReference<List<Map<String, Object>>>() {}.getType();
+        assertFalse(converter.canWrite(maps, ArrayList.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ArrayList.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<List<Workout>>() {}.getType(), List.class,
+                MediaType.APPLICATION_XML));
+    }
+
+    private String assertSameJson(List<?> rows, Type type) throws Exception {
+        assertTrue(converter.canWrite(type, rows.getClass(), MediaType.APPLICATION_JSON));
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(rows, type, MediaType.APPLICATION_JSON, out);
+        String streamed = out.getBodyAsString();
+        assertEquals(mapper.readTree(mapper.writeValueAsString(rows)), mapper.readTree(streamed));
+        return streamed;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.model;
+
+import com.example.demo.repository.ExerciseInstructionsRepository;
+import com.example.demo.repository.ExerciseRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The hot/cold split of exercises against an embedded H2 database (see application-test.properties).
+ * Relies on the build-time bytecode enhancement for the lazy inverse one-to-one.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ExerciseInstructionsTest {
+
+    private static final String LONG_TEXT = "Keep the core braced, move through the full range of motion and "
+            + "control the lowering phase. ".repeat(10);
+
+    @Autowired ExerciseRepository exercises;
+    @Autowired ExerciseInstructionsRepository instructions;
+    @Autowired EntityManager em;
+
+    @Test
+    void instructionsAreSavedThroughTheExercise_andNotLoadedWithIt() {
+        ExerciseEntity squat = exercise("squat");
+        squat.setInstructions(LONG_TEXT);
+        Long id = exercises.saveAndFlush(squat).getId();
+        em.clear();
+
+        List<ExerciseEntity> found = exercises.findByName("squat");
+        assertEquals(1, found.size());
+        assertFalse(Hibernate.isPropertyInitialized(found.get(0), "details"));
+        assertNull(found.get(0).getInstructions(), "left out of the JSON");
+
+        ExerciseInstructions stored = instructions.findById(id).orElseThrow();
+        assertEquals(LONG_TEXT, stored.getText());
+        assertTrue(stored.isCompressed());
+        assertTrue(stored.getStoredSize() < LONG_TEXT.length() / 2);
+    }
+
+    @Test
+    void updatingKeepsOneRow_andNullKeepsTheText() {
+        ExerciseEntity plank = exercise("plank");
+        plank.setInstructions("hold");
+        Long id = exercises.saveAndFlush(plank).getId();
+        em.clear();
+
+        ExerciseEntity loaded = exercises.findById(id).orElseThrow();
+        loaded.setInstructions("hold longer");
+        exercises.saveAndFlush(loaded);
+        em.clear();
+
+        ExerciseEntity again = exercises.findById(id).orElseThrow();
+        again.setInstructions(null);
+        again.setDifficulty("intermediate");
+        exercises.saveAndFlush(again);
+        em.clear();
+
+        ExerciseInstructions stored = instructions.findById(id).orElseThrow();
+        assertEquals("hold longer", stored.getText());
+        assertFalse(stored.isCompressed(), "short texts are stored as is");
+        assertEquals(1, instructions.count());
+
+        exercises.deleteById(id);
+        exercises.flush();
+        assertEquals(0, instructions.count());
+    }
+
+    @Test
+    void codecRoundTrips() {
+        for (String text : List.of("", "\u00fc", LONG_TEXT, "x".repeat(InstructionsCodec.MIN_COMPRESS_BYTES))) {
+            InstructionsCodec.Encoded encoded = InstructionsCodec.encode(text);
+            assertEquals(text, InstructionsCodec.decode(encoded.bytes(), encoded.compressed()));
+        }
+    }
+
+    private static ExerciseEntity exercise(String name) {
+        ExerciseEntity e = new ExerciseEntity(name);
+        e.setType("strength");
+        e.setMuscle("core");
+        e.setEquipment("none");
+        e.setDifficulty("beginner");
+        return e;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.plan;
+
+import com.example.demo.model.ExerciseEntity;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.workout.Workout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit test (catalog repository mocked). Verifies the generated plans respect the constraints.
+ */
+class PlanGeneratorTest {
+
+    private PlanGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    private void catalog(List<ExerciseEntity> exercises) {
+        ExerciseRepository repo = mock(ExerciseRepository.class);
+        when(repo.findAll()).thenReturn(exercises);
+        CatalogIndex index = new CatalogIndex(repo);
+        index.refresh(); // what the startup preload does
+        generator = new PlanGenerator(index, 2, 80, 500);
+    }
+
+    @Test
+    void catalogNotLoadedYet_isUnavailable_notABadRequest() {
+        ExerciseRepository repo = mock(ExerciseRepository.class);
+        when(repo.findAll()).thenReturn(List.of());
+        generator = new PlanGenerator(new CatalogIndex(repo), 2, 80, 500);
+
+        assertThrows(PlanUnavailableException.class, () -> generator.generate(new PlanRequest("u1", null,
+                List.of("biceps"), null, null, 2, 1, 0, null)));
+    }
+
+    @Test
+    void plan_coversMuscles_respectsEquipmentDifficultyAndRestDays() {
+        catalog(List.of(
+                exercise("Bench Press", "chest", "barbell", "intermediate"),
+                exercise("Push-up", "chest", "body_only", "beginner"),
+                exercise("Cable Fly", "chest", "cable", "beginner"),
+                exercise("Squat", "quadriceps", "barbell", "intermediate"),
+                exercise("Lunge", "quadriceps", "body_only", "beginner"),
+                exercise("Pistol Squat", "quadriceps", "body_only", "expert"),
+                exercise("Pull-up", "lats", "body_only", "intermediate"),
+                exercise("Barbell Row", "lats", "barbell", "intermediate")));
+
+        GeneratedPlan plan = generator.generate(new PlanRequest("u1", "Auto", List.of("Chest", "quadriceps", "lats"),
+                List.of("barbell"), "intermediate", 4, 2, 1, null));
+
+        Set<String> used = plan.workouts().stream().map(Workout::getExerciseName).collect(Collectors.toSet());
+        assertFalse(used.contains("Cable Fly"), "no cable available");
+        assertFalse(used.contains("Pistol Squat"), "harder than requested");
+        assertEquals(Set.of("chest", "quadriceps", "lats"), plan.setsPerMuscle().keySet());
+        assertTrue(plan.skippedMuscles().isEmpty());
+        assertTrue(plan.exhaustive());
+
+        // a muscle is never trained on two days with less than one full rest day in between
+        Map<String, String> muscleOf = Map.of("Bench Press", "chest", "Push-up", "chest", "Squat", "quadriceps",
+                "Lunge", "quadriceps", "Pull-up", "lats", "Barbell Row", "lats");
+        Map<String, TreeSet<Integer>> daysByMuscle = new HashMap<>();
+        for (Workout w : plan.workouts()) {
+            assertEquals("u1", w.getUserId());
+            assertEquals("Auto", w.getWorkoutPlanName());
+            daysByMuscle.computeIfAbsent(muscleOf.get(w.getExerciseName()), m -> new TreeSet<>())
+                    .add(Arrays.asList(PlanGenerator.WEEKDAYS).indexOf(w.getDay()));
+        }
+        daysByMuscle.values().forEach(days -> {
+            Integer previous = null;
+            for (int day : days) {
+                if (previous != null) {
+                    assertTrue(day - previous >= 2, "rest day violated: " + days);
+                }
+                previous = day;
+            }
+            if (days.size() > 1) {
+                assertTrue(days.first() + 7 - days.last() >= 2, "rest day violated across weeks: " + days);
+            }
+        });
+    }
+
+    @Test
+    void unknownMuscles_areSkipped_andNothingMatching_isRejected() {
+        catalog(List.of(exercise("Curl", "biceps", "dumbbell", "beginner")));
+
+        GeneratedPlan plan = generator.generate(new PlanRequest("u1", null, List.of("biceps", "neck"),
+                null, null, 2, 1, 0, null));
+        assertEquals(List.of("neck"), plan.skippedMuscles());
+        assertEquals(2, plan.workouts().size());
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(new PlanRequest("u1", null,
+                List.of("biceps"), List.of("barbell"), null, 2, 1, 0, null)));
+    }
+
+    @Test
+    void impossibleRestDays_areRejected() {
+        catalog(List.of(exercise("Curl", "biceps", "dumbbell", "beginner")));
+
+        // one muscle on 7 days cannot get a rest day in between
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(new PlanRequest("u1", null,
+                List.of("biceps"), null, null, 7, 1, 1, null)));
+    }
+
+    @Test
+    void largeCatalog_returnsWithinBudget() {
+        String[] muscles = {"chest", "lats", "quadriceps", "hamstrings", "glutes", "shoulders",
+                "biceps", "triceps", "calves", "abdominals", "traps", "forearms"};
+        List<ExerciseEntity> exercises = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            exercises.add(exercise("Exercise " + i, muscles[i % muscles.length], i % 3 == 0 ? "barbell" : "dumbbell",
+                    CatalogIndex.DIFFICULTIES[i % 3]));
+        }
+        catalog(exercises);
+
+        long start = System.nanoTime();
+        GeneratedPlan plan = generator.generate(new PlanRequest("u1", null, List.of(muscles), null, "expert", 6, 6, 1, 50L));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis < 500, "took " + millis + " ms");
+        assertEquals(12, plan.setsPerMuscle().size(), "every muscle trained at least once");
+    }
+
+    private static ExerciseEntity exercise(String name, String muscle, String equipment, String difficulty) {
+        ExerciseEntity e = new ExerciseEntity(name);
+        e.setMuscle(muscle);
+        e.setEquipment(equipment);
+        e.setDifficulty(difficulty);
+        return e;
+    }
+}
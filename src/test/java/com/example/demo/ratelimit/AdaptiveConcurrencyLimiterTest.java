@@ -0,0 +1,99 @@
+package com.example.demo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The limit math per sample window, and many threads acquiring/releasing at once.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void flatLatency_growsTheLimit_risingLatency_shrinksIt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 10);
+        releaseWindows(limiter, 5, 10 * MS);
+        int grown = limiter.getLimit();
+        assertTrue(grown > 20, "grew to " + grown);
+
+        releaseWindows(limiter, 10, 100 * MS);
+
+        assertTrue(limiter.getLimit() < grown, "shrank to " + limiter.getLimit());
+    }
+
+    @Test
+    void limitOnlyMovesOncePerWindow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 10);
+        releaseWindows(limiter, 1, 10 * MS); // baseline
+        for (int i = 0; i < 9; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, true);
+        }
+        assertEquals(20, limiter.getLimit(), "window not full yet");
+
+        limiter.tryAcquire();
+        limiter.release(10 * MS, false);
+
+        assertEquals(18, limiter.getLimit(), "one 10% cut for the window, not one per failure");
+    }
+
+    @Test
+    void concurrentReleases_keepCountsAndLimitConsistent() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(50, 10);
+        int threads = 16;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int admitted = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        if (limiter.tryAcquire()) {
+                            admitted++;
+                            limiter.release((1 + i % 5) * MS, i % 1000 == 0);
+                        }
+                    }
+                    return admitted;
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Integer> result : results) {
+                admitted += result.get(30, TimeUnit.SECONDS);
+            }
+
+            assertTrue(admitted > 0);
+            assertEquals(0, limiter.getInFlight());
+            assertTrue(limiter.getLimit() >= 4 && limiter.getLimit() <= 200, "limit " + limiter.getLimit());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void releaseWindows(AdaptiveConcurrencyLimiter limiter, int windows, long rttNanos) {
+        for (int i = 0; i < windows * 10; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(rttNanos, false);
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial, int window) {
+        RateLimitProperties.Concurrency settings = new RateLimitProperties.Concurrency();
+        settings.setInitialLimit(initial);
+        settings.setSampleWindow(window);
+        return new AdaptiveConcurrencyLimiter(settings);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientKeyResolverTest {
+
+    @Test
+    void userHeader_isIgnored_withoutAuthentication() {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader(ClientKeyResolver.USER_HEADER, "someone-else");
+
+        assertEquals("ip:10.0.0.1", new ClientKeyResolver(false).resolve(request));
+    }
+
+    @Test
+    void authenticatedPrincipal_isTheKey() {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.setUserPrincipal(() -> "42");
+
+        assertEquals("user:42", new ClientKeyResolver(false).resolve(request));
+    }
+
+    @Test
+    void trustedForwardedFor_usesTheEntryOurProxyAppended() {
+        MockHttpServletRequest request = request("10.1.1.1");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7"); // first entry is client-controlled
+
+        assertEquals("ip:203.0.113.7", new ClientKeyResolver(true).resolve(request));
+        assertEquals("ip:10.1.1.1", new ClientKeyResolver(false).resolve(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/exercises");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit tests (no Spring context) for the token bucket and the filter.
+ */
+class RateLimitFilterTest {
+
+    @Test
+    void tokenBucket_allowsBurstThenAsksToWait() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(3, 1.0, now);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        long wait = bucket.tryAcquire(now);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        // one second later exactly one token is back
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    @Test
+    void bucketTable_evictsIdleClients() {
+        RateLimitProperties.Route route = route("POST", "/exercises", 5, 1);
+        ClientBucketTable table = new ClientBucketTable(4, 100, TimeUnit.SECONDS.toNanos(1));
+
+        table.bucketFor(route, "ip:1.1.1.1", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+        assertEquals(1, table.size());
+
+        table.sweep();
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void filter_returns429WithRetryAfter_whenClientExhaustsBucket() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(
+                List.of(route("POST", "/exercises", 2, 0.5)),
+                new ClientBucketTable(4, 100, TimeUnit.MINUTES.toNanos(5)),
+                null, new ClientKeyResolver(false), new SimpleMeterRegistry());
+
+        assertEquals(200, post(filter, "10.0.0.1").getStatus());
+        assertEquals(200, post(filter, "10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = post(filter, "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("2", limited.getHeader("Retry-After"));
+
+        // another client still has its own bucket
+        assertEquals(200, post(filter, "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void filter_returns503_whenConcurrencyLimitReached() throws Exception {
+        RateLimitProperties.Concurrency settings = new RateLimitProperties.Concurrency();
+        settings.setInitialLimit(4);
+        settings.setMinLimit(4);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire()); // simulate 4 requests still running
+        }
+
+        RateLimitFilter filter = new RateLimitFilter(List.of(),
+                new ClientBucketTable(4, 100, TimeUnit.MINUTES.toNanos(5)),
+                limiter, new ClientKeyResolver(false), new SimpleMeterRegistry());
+
+        MockHttpServletResponse response = post(filter, "10.0.0.1");
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+    }
+
+    private static MockHttpServletResponse post(RateLimitFilter filter, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/exercises");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RateLimitProperties.Route route(String method, String pattern, int capacity, double refill) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setMethod(method);
+        route.setPattern(pattern);
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refill);
+        return route;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.replica;
+
+import com.example.demo.ratelimit.ClientKeyResolver;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for primary and replica; each has a one-row "node" table naming
+ * itself, so a query tells which one served it.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private FlakyDataSource replica;
+    private ReadReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        replica = new FlakyDataSource(h2("replica"));
+        routing = new ReadReplicaRoutingDataSource(primary, List.of(replica), 1, null);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTx = new TransactionTemplate(txManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(txManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransactions_goToTheReplica_everythingElseToThePrimary() {
+        assertEquals("replica", readOnlyTx.execute(s -> node()));
+        assertEquals("primary", writeTx.execute(s -> node()));
+        assertEquals("primary", node()); // no transaction at all
+    }
+
+    @Test
+    void pinnedCaller_readsFromThePrimary() {
+        RoutingContext.pinToPrimary();
+        assertEquals("primary", readOnlyTx.execute(s -> node()));
+    }
+
+    @Test
+    void replicaDown_fallsBackToThePrimary_andComesBackAfterAHealthCheck() {
+        replica.down = true;
+        assertEquals("primary", readOnlyTx.execute(s -> node()));
+        assertEquals(0, routing.healthyReplicas());
+
+        replica.down = false;
+        assertEquals("primary", readOnlyTx.execute(s -> node()), "stays out until the health check sees it");
+        routing.checkHealth();
+        assertEquals(1, routing.healthyReplicas());
+        assertEquals("replica", readOnlyTx.execute(s -> node()));
+    }
+
+    @Test
+    void healthCheck_marksAFailingReplicaDown() {
+        replica.down = true;
+        routing.checkHealth();
+        assertEquals(0, routing.healthyReplicas());
+        assertEquals(1, routing.replicaCount());
+    }
+
+    @Test
+    void readYourWritesFilter_pinsTheWriterForTheWindow() throws Exception {
+        RecentWriters writers = new RecentWriters(TimeUnit.SECONDS.toNanos(30));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(writers, new ClientKeyResolver(false));
+        List<String> served = new ArrayList<>();
+
+        filter.doFilter(request("GET", "10.0.0.1"), new MockHttpServletResponse(), chain(served));
+        filter.doFilter(request("POST", "10.0.0.1"), new MockHttpServletResponse(), chain(served));
+        filter.doFilter(request("GET", "10.0.0.1"), new MockHttpServletResponse(), chain(served));
+        filter.doFilter(request("GET", "10.0.0.2"), new MockHttpServletResponse(), chain(served));
+
+        assertEquals(List.of("replica", "primary", "primary", "replica"), served);
+        assertFalse(RoutingContext.isPinnedToPrimary(), "cleared after the request");
+
+        writers.sweep(System.nanoTime() + TimeUnit.SECONDS.toNanos(31));
+        assertEquals(0, writers.size());
+    }
+
+    private MockFilterChain chain(List<String> served) {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                served.add(readOnlyTx.execute(s -> node()));
+            }
+        };
+    }
+
+    private static MockHttpServletRequest request(String method, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/workout");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(ClientKeyResolver.USER_HEADER, "u1"); // client-sent, must not decide the routing
+        return request;
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return ds;
+    }
+
+    /** A replica that can be switched off. */
+    private static final class FlakyDataSource extends DelegatingDataSource {
+        volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica unreachable");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.sessionlog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Group-commit writes, rollups and range reads against an in-memory H2 database, plus the
+ * partition bookkeeping used on MySQL.
+ */
+class SetLogWriterTest {
+
+    private JdbcTemplate jdbc;
+    private SetLogWriter writer;
+    private SetLogRepository repository;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:setlog;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(h2);
+        jdbc.execute("DROP TABLE IF EXISTS set_log");
+        jdbc.execute("DROP TABLE IF EXISTS set_log_daily");
+        jdbc.execute("DROP TABLE IF EXISTS set_log_weekly");
+        SetLogSchema schema = new SetLogSchema(h2, 3, 0, Clock.systemUTC());
+        registry = new SimpleMeterRegistry();
+        writer = new SetLogWriter(schema, h2, new DataSourceTransactionManager(h2), 1000, 100, registry);
+        repository = new SetLogRepository(schema, h2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void rollupsAreMaintainedIncrementally_perDayAndWeek() {
+        // Monday 2026-10-12 and Wednesday 2026-10-14 are in the same ISO week
+        writer.append(List.of(
+                set("Squat", "2026-10-12T08:00:00Z", 100, 5),
+                set("Squat", "2026-10-12T08:05:00Z", 110, 3)));
+        writer.append(List.of(set("Squat", "2026-10-14T18:00:00Z", 90, 8)));
+
+        List<Rollup> daily = repository.history("u1", Rollup.Granularity.DAY,
+                LocalDate.parse("2026-10-12"), LocalDate.parse("2026-10-19"), null);
+        assertEquals(2, daily.size());
+        assertEquals(new Rollup(LocalDate.parse("2026-10-12"), "Squat", 2, 8, 830, 110), daily.get(0));
+        assertEquals(new Rollup(LocalDate.parse("2026-10-14"), "Squat", 1, 8, 720, 90), daily.get(1));
+
+        List<Rollup> weekly = repository.history("u1", Rollup.Granularity.WEEK,
+                LocalDate.parse("2026-10-14"), LocalDate.parse("2026-10-19"), "Squat");
+        assertEquals(List.of(new Rollup(LocalDate.parse("2026-10-12"), "Squat", 3, 16, 1550, 110)), weekly,
+                "a from inside the week still returns that week's bucket");
+    }
+
+    @Test
+    void rangeQuery_isHalfOpen_perUser_andOrderedByTime() {
+        writer.append(List.of(
+                set("Bench", "2026-10-13T10:00:00Z", 60, 10),
+                set("Bench", "2026-10-12T10:00:00Z", 60, 10),
+                set("Row", "2026-10-15T10:00:00Z", 50, 12)));
+        writer.append(List.of(new SetRecord(null, "u2", "Bench", Instant.parse("2026-10-13T10:00:00Z"), 80, 5)));
+
+        List<SetRecord> sets = repository.findSets("u1", Instant.parse("2026-10-12T10:00:00Z"),
+                Instant.parse("2026-10-15T10:00:00Z"), null, 100);
+        assertEquals(List.of(Instant.parse("2026-10-12T10:00:00Z"), Instant.parse("2026-10-13T10:00:00Z")),
+                sets.stream().map(SetRecord::performedAt).toList());
+        assertNotNull(sets.get(0).id());
+        assertEquals(1, repository.findSets("u1", Instant.parse("2026-10-01T00:00:00Z"),
+                Instant.parse("2026-11-01T00:00:00Z"), "Row", 100).size());
+    }
+
+    @Test
+    void concurrentAppends_areAllCommitted_inSharedBatches() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(pool.submit(() -> writer.append(List.of(set("Deadlift", "2026-10-16T07:00:00Z", 140, 2)))));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(200, jdbc.queryForObject("SELECT COUNT(*) FROM set_log", Integer.class));
+        assertEquals(200, jdbc.queryForObject("SELECT sets FROM set_log_daily", Integer.class));
+        long flushes = registry.get("sessionlog.batch.rows").summary().count();
+        assertTrue(flushes <= 200, "never more commits than requests, usually far fewer: " + flushes);
+    }
+
+    @Test
+    void partitionBookkeeping() {
+        YearMonth current = YearMonth.of(2026, 10);
+        List<String> existing = List.of("p_start", "p202610", "p202611", "p_future");
+
+        assertEquals(List.of(YearMonth.of(2026, 12), YearMonth.of(2027, 1)),
+                SetLogSchema.monthsToAdd(existing, current, 3));
+        assertEquals(List.of(current, current.plusMonths(1)), SetLogSchema.monthsToAdd(List.of("p_future"), current, 1));
+
+        List<String> old = List.of("p_start", "p202607", "p202608", "p202609", "p202610", "p_future");
+        assertEquals(List.of("p202607"), SetLogSchema.partitionsToDrop(old, current, 2));
+        assertTrue(SetLogSchema.partitionsToDrop(old, current, 0).isEmpty(), "0 keeps everything");
+    }
+
+    private static SetRecord set(String exercise, String at, double weight, int reps) {
+        return new SetRecord(null, "u1", exercise, Instant.parse(at), weight, reps);
+    }
+}
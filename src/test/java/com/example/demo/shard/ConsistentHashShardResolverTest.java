@@ -0,0 +1,64 @@
+package com.example.demo.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit tests for the hash ring: balance, determinism and how many users move when a shard is added.
+ */
+class ConsistentHashShardResolverTest {
+
+    private static final int USERS = 30_000;
+
+    @Test
+    void spreadsUsersRoughlyEvenly() {
+        ConsistentHashShardResolver resolver = new ConsistentHashShardResolver(List.of("a", "b", "c"), 128);
+        int[] perShard = new int[3];
+        for (int i = 0; i < USERS; i++) {
+            perShard[resolver.shardFor("user-" + i)]++;
+        }
+        for (int count : perShard) {
+            assertTrue(count > USERS / 3 * 0.8 && count < USERS / 3 * 1.2, "unbalanced: " + count);
+        }
+    }
+
+    @Test
+    void sameUser_alwaysSameShard_regardlessOfListOrder() {
+        ConsistentHashShardResolver abc = new ConsistentHashShardResolver(List.of("a", "b", "c"), 64);
+        ConsistentHashShardResolver cab = new ConsistentHashShardResolver(List.of("c", "a", "b"), 64);
+        List<String> namesAbc = List.of("a", "b", "c");
+        List<String> namesCab = List.of("c", "a", "b");
+        for (int i = 0; i < 1000; i++) {
+            String user = "user-" + i;
+            assertEquals(abc.shardFor(user), abc.shardFor(user));
+            assertEquals(namesAbc.get(abc.shardFor(user)), namesCab.get(cab.shardFor(user)));
+        }
+    }
+
+    @Test
+    void addingAShard_movesOnlyAboutItsShare() {
+        ConsistentHashShardResolver three = new ConsistentHashShardResolver(List.of("a", "b", "c"), 128);
+        ConsistentHashShardResolver four = new ConsistentHashShardResolver(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+        for (int i = 0; i < USERS; i++) {
+            String user = "user-" + i;
+            int before = three.shardFor(user);
+            int after = four.shardFor(user);
+            if (before != after) {
+                assertEquals(3, after, "users only ever move to the new shard");
+                moved++;
+            }
+        }
+        assertTrue(moved < USERS * 0.35, "moved " + moved + " of " + USERS); // hash % n would move ~75%
+    }
+
+    @Test
+    void rejectsMissingUserAndEmptyRing() {
+        ConsistentHashShardResolver resolver = new ConsistentHashShardResolver(List.of("a"), 8);
+        assertThrows(IllegalArgumentException.class, () -> resolver.shardFor(null));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashShardResolver(List.of(), 8));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.demo.shard;
+
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutUpsert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three in-memory H2 databases as shards, each with its own copy of the workout table.
+ */
+class ShardedWorkoutRepositoryTest {
+
+    private final List<JdbcTemplate> shardJdbc = new ArrayList<>();
+    private ShardedWorkoutRepository repo;
+    private List<DataSource> dataSources;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> dataSources = new ArrayList<>();
+        List<String> names = List.of("s0", "s1", "s2");
+        for (String name : names) {
+            DataSource ds = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard_" + name + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY,VALUE", "sa", "");
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.execute("DROP TABLE IF EXISTS workout");
+            jdbc.execute("DROP TABLE IF EXISTS shard_ring");
+            jdbc.execute("""
+                    CREATE TABLE workout (
+                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      user_id VARCHAR(255) NOT NULL, workout_plan_name VARCHAR(255) NOT NULL,
+                      exercise_name VARCHAR(255) NOT NULL, day VARCHAR(255) NOT NULL,
+                      sets INT NOT NULL, reps INT NOT NULL, version BIGINT DEFAULT 0 NOT NULL,
+                      CONSTRAINT uk_plan_user_name UNIQUE (user_id, workout_plan_name, exercise_name, day))""");
+            dataSources.add(ds);
+            shardJdbc.add(jdbc);
+        }
+        repo = new ShardedWorkoutRepository(dataSources, new ConsistentHashShardResolver(names, 64), 3, 5_000, 5);
+        this.dataSources = dataSources;
+    }
+
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
+    @Test
+    void userRows_liveOnlyOnTheirShard() {
+        for (int u = 0; u < 30; u++) {
+            repo.upsert(new Workout("user-" + u, "Plan", "Squat", "Mon", 3, 5));
+        }
+        for (int u = 0; u < 30; u++) {
+            String user = "user-" + u;
+            int owner = repo.shardFor(user);
+            for (int s = 0; s < shardJdbc.size(); s++) {
+                int rows = shardJdbc.get(s).queryForObject(
+                        "SELECT COUNT(*) FROM workout WHERE user_id = ?", Integer.class, user);
+                assertEquals(s == owner ? 1 : 0, rows, user + " on shard " + s);
+            }
+        }
+        assertEquals(30, repo.count());
+    }
+
+    @Test
+    void upsert_insertsThenUpdates_withGlobalIds() {
+        WorkoutUpsert.Result first = repo.upsert(new Workout("u1", "Plan A", "Pushup", "Mon", 3, 12));
+        WorkoutUpsert.Result second = repo.upsert(new Workout("u1", "Plan A", "Pushup", "Mon", 5, 8));
+
+        assertEquals(WorkoutUpsert.Outcome.INSERTED, first.outcome());
+        assertEquals(WorkoutUpsert.Outcome.UPDATED, second.outcome());
+        assertEquals(first.id(), second.id());
+        assertEquals(1, second.version());
+        assertEquals(repo.shardFor("u1"), ShardedWorkoutRepository.shardOfGlobalId(first.id()));
+
+        Workout row = repo.findById(first.id()).orElseThrow();
+        assertEquals(5, row.getSets());
+        assertEquals("u1", row.getUserId());
+
+        repo.deleteById(first.id());
+        assertTrue(repo.findById(first.id()).isEmpty());
+    }
+
+    @Test
+    void perUserQueries_routeToTheOwningShard() {
+        repo.upsert(new Workout("u1", "Plan A", "Pushup", "Mon", 3, 12));
+        repo.upsert(new Workout("u1", "Plan A", "Squat", "Wed", 4, 8));
+        repo.upsert(new Workout("u1", "Plan B", "Row", "Mon", 3, 10));
+        repo.upsert(new Workout("u2", "Plan A", "Pushup", "Mon", 3, 12));
+
+        assertEquals(1, repo.findByUserIdAndWorkoutPlanNameAndDay("u1", "Plan A", "Mon").size());
+        assertEquals(2, repo.findByUserIdAndWorkoutPlanName("u1", "Plan A").size());
+        assertEquals(2, repo.findByUserIdAndDay("u1", "Mon").size());
+        assertEquals(List.of("Plan A", "Plan B"), repo.findPlanNamesByUserId("u1"));
+        assertTrue(repo.findByUserIdAndWorkoutPlanNameAndExerciseName("u1", "Plan A", "Squat").isPresent());
+        assertTrue(repo.existsByUserIdAndWorkoutPlanName("u1", "Plan B"));
+
+        repo.deleteByUserIdAndWorkoutPlanName("u1", "Plan A");
+        assertFalse(repo.existsByUserIdAndWorkoutPlanName("u1", "Plan A"));
+        assertTrue(repo.existsByUserIdAndWorkoutPlanName("u2", "Plan A"), "other users untouched");
+    }
+
+    @Test
+    void findAll_scatterGathersPagesInIdOrder() {
+        for (int u = 0; u < 20; u++) {
+            for (String day : List.of("Mon", "Wed", "Fri")) {
+                repo.upsert(new Workout("user-" + u, "Plan", "Squat", day, 3, 5));
+            }
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Page<Workout> page = repo.findAll(PageRequest.of(0, 7));
+        assertEquals(60, page.getTotalElements());
+        assertEquals(9, page.getTotalPages());
+        while (true) {
+            page.forEach(w -> seen.add(w.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = repo.findAll(page.nextPageable());
+        }
+        assertEquals(60, seen.size());
+        assertEquals(60, new HashSet<>(seen).size(), "no duplicates across pages");
+        List<Long> sorted = new ArrayList<>(seen);
+        sorted.sort(null);
+        assertEquals(sorted, seen);
+
+        // keyset paging walks the same sequence
+        List<Long> keyset = new ArrayList<>();
+        long after = 0;
+        List<Workout> batch;
+        while (!(batch = repo.findAllAfter(after, 11)).isEmpty()) {
+            batch.forEach(w -> keyset.add(w.getId()));
+            after = batch.get(batch.size() - 1).getId();
+        }
+        assertEquals(seen, keyset);
+    }
+
+    @Test
+    void findAllColumns_selectsOnlyThoseColumns_withGlobalIds_inIdOrder() {
+        for (int u = 0; u < 10; u++) {
+            repo.upsert(new Workout("user-" + u, "Plan", "Squat", "Mon", u, 5));
+        }
+
+        List<Object[]> rows = repo.findAllColumns(List.of("id", "user_id", "sets"));
+
+        assertEquals(10, rows.size());
+        List<Long> ids = rows.stream().map(r -> (Long) r[0]).toList();
+        assertEquals(repo.findAll().stream().map(Workout::getId).toList(), ids);
+        Object[] first = rows.get(0);
+        assertEquals(3, first.length);
+        Workout same = repo.findById((Long) first[0]).orElseThrow();
+        assertEquals(same.getUserId(), first[1]);
+        assertEquals(same.getSets(), ((Number) first[2]).intValue());
+        assertThrows(IllegalArgumentException.class, () -> repo.findAllColumns(List.of("user_id")));
+        assertThrows(IllegalArgumentException.class, () -> repo.findAllColumns(List.of("id", "1; DROP TABLE workout")));
+    }
+
+    @Test
+    void findAll_rejectsSortsItCannotMerge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> repo.findAll(PageRequest.of(0, 10, Sort.by("userId"))));
+        Set<Long> ids = new HashSet<>();
+        repo.findAll(PageRequest.of(0, 10, Sort.by("id"))).forEach(w -> ids.add(w.getId()));
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    void checkRing_pinsTheRing_andRefusesAChangedOne() {
+        repo.checkRing();
+        repo.checkRing(); // same ring, next start
+
+        List<DataSource> four = new ArrayList<>(dataSources);
+        DataSource fresh = new DriverManagerDataSource("jdbc:h2:mem:shard_s3;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(fresh).execute("DROP TABLE IF EXISTS shard_ring");
+        four.add(fresh);
+        ShardedWorkoutRepository appended = new ShardedWorkoutRepository(four,
+                new ConsistentHashShardResolver(List.of("s0", "s1", "s2", "s3"), 64), 1, 5_000, 5);
+        IllegalStateException e = assertThrows(IllegalStateException.class, appended::checkRing);
+        assertTrue(e.getMessage().contains("shard_ring"));
+
+        ShardedWorkoutRepository reordered = new ShardedWorkoutRepository(
+                List.of(dataSources.get(1), dataSources.get(0), dataSources.get(2)),
+                new ConsistentHashShardResolver(List.of("s1", "s0", "s2"), 64), 1, 5_000, 5);
+        assertThrows(IllegalStateException.class, reordered::checkRing);
+        appended.close();
+        reordered.close();
+        assertEquals(0, shardJdbc.get(0).queryForObject("SELECT shard_index FROM shard_ring", Integer.class));
+    }
+
+    @Test
+    void save_insertsWithAGlobalId_andUpdatesOnlyTheVersionItRead() {
+        Workout w = repo.save(new Workout("u3", "Plan A", "Dips", "Fri", 3, 10));
+        assertEquals(repo.shardFor("u3"), ShardedWorkoutRepository.shardOfGlobalId(w.getId()));
+        assertEquals(0, w.getVersion());
+
+        Workout stale = repo.findById(w.getId()).orElseThrow();
+        w.setSets(4);
+        repo.save(w);
+        assertEquals(1, w.getVersion());
+        assertEquals(4, repo.findById(w.getId()).orElseThrow().getSets());
+
+        stale.setSets(5);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repo.save(stale));
+
+        assertEquals(List.of(w.getId()), repo.findTop1000ByIdGreaterThanOrderByIdAsc(0L).stream()
+                .map(Workout::getId).toList());
+        repo.deleteAll();
+        assertEquals(0, repo.count());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.singleflight;
+
+import com.example.demo.replica.RoutingContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit test (no Spring). Verifies identical concurrent calls share one execution.
+ */
+class SingleFlightGroupTest {
+
+    private SimpleMeterRegistry registry;
+    private SingleFlightGroup group;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        group = new SingleFlightGroup(registry);
+    }
+
+    @Test
+    void concurrentIdenticalCalls_runOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    try {
+                        return group.execute("byName", new Object[]{"bench press"}, 5000, () -> {
+                            executions.incrementAndGet();
+                            release.await(); // hold the leader until everyone has joined
+                            return "rows";
+                        });
+                    } catch (Throwable t) {
+                        throw new RuntimeException(t);
+                    }
+                }));
+            }
+
+            // wait until the other callers have attached to the leader's call
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (collapsed() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Object> f : results) {
+                assertEquals("rows", f.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(callers - 1, collapsed());
+            assertEquals(0, group.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentArguments_areNotCollapsed() throws Throwable {
+        AtomicInteger executions = new AtomicInteger();
+        group.execute("byName", new Object[]{"squat"}, 1000, executions::incrementAndGet);
+        group.execute("byName", new Object[]{"deadlift"}, 1000, executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, collapsed());
+    }
+
+    @Test
+    void callerPinnedToPrimary_doesNotShareAReplicaRead() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> unpinned = pool.submit(() -> {
+                try {
+                    return group.execute("byName", new Object[]{"squat"}, 5000, () -> {
+                        release.await();
+                        return "replica";
+                    });
+                } catch (Throwable t) {
+                    throw new RuntimeException(t);
+                }
+            });
+            while (group.inFlightCount() == 0) {
+                Thread.sleep(5);
+            }
+
+            RoutingContext.pinToPrimary();
+            Object pinned = group.execute("byName", new Object[]{"squat"}, 5000, () -> "primary");
+            release.countDown();
+
+            assertEquals("primary", pinned);
+            assertEquals("replica", unpinned.get(5, TimeUnit.SECONDS));
+            assertEquals(0, collapsed());
+        } finally {
+            RoutingContext.clear();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void leaderFailure_isRethrown() {
+        assertThrows(IllegalStateException.class, () ->
+                group.execute("byName", new Object[]{"x"}, 1000, () -> {
+                    throw new IllegalStateException("db down");
+                }));
+        assertEquals(0, group.inFlightCount());
+    }
+
+    private double collapsed() {
+        var counter = registry.find("singleflight.calls").tag("outcome", "collapsed").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
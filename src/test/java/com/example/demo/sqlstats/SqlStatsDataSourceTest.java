@@ -0,0 +1,112 @@
+package com.example.demo.sqlstats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement accounting against an in-memory H2 database, and the filter's headers/metrics.
+ */
+class SqlStatsDataSourceTest {
+
+    private final SqlStatsSettings settings = new SqlStatsSettings();
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:sqlstats;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(new SqlStatsDataSource(h2, settings));
+        jdbc.execute("DROP TABLE IF EXISTS item");
+        jdbc.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(20))");
+        jdbc.batchUpdate("INSERT INTO item VALUES (?, ?)", List.of(
+                new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{3, "c"}));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlStats.end();
+    }
+
+    @Test
+    void countsStatementsRowsAndTime() {
+        SqlStats stats = SqlStats.start();
+        jdbc.queryForList("SELECT name FROM item", String.class);
+        jdbc.update("UPDATE item SET name = ? WHERE id < ?", "x", 3);
+
+        assertEquals(2, stats.statements());
+        assertEquals(3 + 2, stats.rows(), "3 rows read, 2 updated");
+        assertTrue(stats.dbMillis() >= 0);
+    }
+
+    @Test
+    void sameStatementManyTimes_isAnNPlusOneSuspect_evenWithLiterals() {
+        SqlStats stats = SqlStats.start();
+        jdbc.queryForList("SELECT id FROM item", Integer.class);
+        for (int id = 1; id <= 3; id++) {
+            jdbc.queryForObject("SELECT name FROM item WHERE id = ?", String.class, id);
+            jdbc.queryForObject("SELECT name FROM item WHERE id = " + id, String.class);
+        }
+
+        // bound and inlined ids normalize to the same statement; the single list query is not a suspect
+        assertEquals(List.of(new SqlStats.Repeated("SELECT name FROM item WHERE id = ?", 6)), stats.repeated(3));
+    }
+
+    @Test
+    void slowStatementsAreFlagged() {
+        settings.setSlowQueryMs(0);
+        SqlStats stats = SqlStats.start();
+        jdbc.queryForList("SELECT name FROM item WHERE name = 'a'", String.class);
+
+        assertEquals(1, stats.slow().size());
+        assertEquals("SELECT name FROM item WHERE name = ?", stats.slow().get(0).sql());
+    }
+
+    @Test
+    void nothingIsRecordedOutsideARequest() {
+        jdbc.queryForList("SELECT name FROM item", String.class);
+        assertNull(SqlStats.current());
+    }
+
+    @Test
+    void filter_setsHeadersAndMetrics_andCanBeSwitchedOff() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatsFilter filter = new SqlStatsFilter(settings, registry);
+        settings.setHeaders(true); // off by default outside dev
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/exercises"), response, queryingChain());
+        assertEquals("1", response.getHeader("X-SQL-Count"));
+        assertEquals("3", response.getHeader("X-SQL-Rows"));
+        assertNotNull(response.getHeader("X-SQL-Time-Ms"));
+        assertEquals(1, registry.get("sql.request.statements").summary().count());
+
+        settings.setEnabled(false);
+        MockHttpServletResponse off = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/exercises"), off, queryingChain());
+        assertNull(off.getHeader("X-SQL-Count"));
+        assertEquals(1, registry.get("sql.request.statements").summary().count());
+    }
+
+    private MockFilterChain queryingChain() {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                List<String> names = jdbc.queryForList("SELECT name FROM item", String.class);
+                response.getWriter().write(String.join(",", names));
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.startup;
+
+import com.example.demo.controller.ExerciseController;
+import com.example.demo.repository.ExerciseRepository;
+import com.example.demo.workout.WorkoutController;
+import com.example.demo.workout.WorkoutRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pure unit test (controllers and repositories mocked): the warm-up runs in its own lifecycle phase,
+ * ahead of the web server, and does its iterations there.
+ */
+class WarmupRunnerTest {
+
+    private WorkoutController workoutController;
+    private ExerciseController exerciseController;
+    private WorkoutRepository workouts;
+    private ExerciseRepository exercises;
+    private DataSource dataSource;
+    private RequestMappingHandlerAdapter mvc;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        workoutController = mock(WorkoutController.class);
+        exerciseController = mock(ExerciseController.class);
+        workouts = mock(WorkoutRepository.class);
+        exercises = mock(ExerciseRepository.class);
+        when(exercises.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        mvc = new RequestMappingHandlerAdapter();
+        mvc.setMessageConverters(List.of(new MappingJackson2HttpMessageConverter()));
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void startsBeforeTheWebServer() {
+        WarmupRunner runner = runner(true);
+
+        assertTrue(runner.isAutoStartup());
+        assertTrue(runner.getPhase() < WebServerApplicationContext.START_STOP_LIFECYCLE_PHASE,
+                "the port must not be bound before the warm-up is done");
+    }
+
+    @Test
+    void start_runsTheIterationsBeforeReturning() throws Exception {
+        WarmupRunner runner = runner(true);
+
+        runner.start();
+
+        assertTrue(runner.isRunning());
+        assertEquals(10, registry.get("application.warmup.iterations").gauge().value());
+        verify(workouts, times(10)).findPlanNamesByUserId(any());
+        verify(workoutController, times(10)).getExercisesForDay(any(), any(), any());
+        verify(dataSource, times(3)).getConnection();
+    }
+
+    @Test
+    void disabled_doesNothing_butStillCountsAsStarted() {
+        WarmupRunner runner = runner(false);
+
+        runner.start();
+
+        assertTrue(runner.isRunning());
+        verifyNoInteractions(workouts, workoutController, dataSource);
+    }
+
+    private WarmupRunner runner(boolean enabled) {
+        return new WarmupRunner(workoutController, exerciseController, workouts, exercises, dataSource, mvc,
+                registry, enabled, 10, 10_000, 2, 3);
+    }
+}
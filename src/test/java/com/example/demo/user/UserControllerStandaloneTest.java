@@ -16,9 +16,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,12 +34,14 @@ class UserControllerStandaloneTest {
     private MockMvc mvc;
     private ObjectMapper json;
     private UserRepository repo; // mocked
+    private UserPurgeService purges; // mocked
     private UserController controller; // real controller, no Spring
 
     @BeforeEach
     void setUp() {
         repo = Mockito.mock(UserRepository.class);
-        controller = new UserController(repo);
+        purges = Mockito.mock(UserPurgeService.class);
+        controller = new UserController(repo, purges);
         mvc = MockMvcBuilders.standaloneSetup(controller).build();
         json = new ObjectMapper();
     }
@@ -128,5 +132,28 @@ class UserControllerStandaloneTest {
            .andExpect(jsonPath("$.email").value("new@example.com"))
            .andExpect(jsonPath("$.password").value("********")); // controller masks
     }
-}
 
+    @Test
+    @DisplayName("DELETE /api/users/{id} -> 202 Accepted with the purge job")
+    void delete_accepted() throws Exception {
+        UserPurgeJob job = new UserPurgeJob("5", Instant.now());
+        ReflectionTestUtils.setField(job, "id", 7L);
+        when(purges.submit(5L)).thenReturn(Optional.of(job));
+
+        mvc.perform(delete("/api/users/5"))
+           .andExpect(status().isAccepted())
+           .andExpect(header().string("Location", "/api/users/purges/7"))
+           .andExpect(jsonPath("$.id").value(7))
+           .andExpect(jsonPath("$.userId").value("5"))
+           .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/users/{id} -> 404 when the user doesn't exist")
+    void delete_notFound() throws Exception {
+        when(purges.submit(6L)).thenReturn(Optional.empty());
+
+        mvc.perform(delete("/api/users/6"))
+           .andExpect(status().isNotFound());
+    }
+}
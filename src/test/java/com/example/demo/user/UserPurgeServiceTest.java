@@ -0,0 +1,192 @@
+package com.example.demo.user;
+
+import com.example.demo.shard.ConsistentHashShardResolver;
+import com.example.demo.shard.ShardedWorkoutRepository;
+import com.example.demo.workout.Workout;
+import com.example.demo.workout.WorkoutChangedEvent;
+import com.example.demo.workout.WorkoutRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Background purge of a deleted user's workouts against embedded H2.
+ * Not transactional: the worker thread has to see the committed rows.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPurgeServiceTest {
+
+    @Autowired UserRepository users;
+    @Autowired UserPurgeJobRepository jobs;
+    @Autowired WorkoutRepository workouts;
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager txManager;
+
+    private SimpleMeterRegistry registry;
+    private List<Object> published;
+    private ObjectProvider<ShardedWorkoutRepository> sharding;
+    private ShardedWorkoutRepository sharded;
+    private UserPurgeService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        published = new CopyOnWriteArrayList<>();
+        sharding = mock(ObjectProvider.class); // sharding off unless a test hands out a repository
+        service = new UserPurgeService(users, jobs, dataSource, txManager, 3, 0, 100, 3, Duration.ofMinutes(2),
+                sharding, null, published::add, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+        if (sharded != null) {
+            sharded.close();
+        }
+        workouts.deleteAll();
+        jobs.deleteAll();
+        users.deleteAll();
+    }
+
+    @Test
+    void deletesTheUserAtOnce_andTheirWorkoutsInChunks() throws Exception {
+        User user = users.save(new User("Kass", "kass@example.com", "pw"));
+        String userId = user.getId().toString();
+        workouts.saveAll(workoutsOf(userId, 10));
+        workouts.saveAll(workoutsOf("someone-else", 2));
+
+        UserPurgeJob job = service.submit(user.getId()).orElseThrow();
+        assertFalse(users.existsById(user.getId()));
+
+        UserPurgeJob done = awaitFinished(job.getId());
+        assertEquals(UserPurgeJob.Status.DONE, done.getStatus());
+        assertEquals(10, done.getDeletedRows());
+        assertNotNull(done.getFinishedAt());
+        assertEquals(2, workouts.count(), "other users' workouts are untouched");
+        assertEquals(10, registry.get("users.purge.rows").counter().count());
+        assertEquals(5, registry.get("users.purge.chunk").timer().count(), "3 + 3 + 3 + 1 rows, then the empty check");
+        assertEquals(10, published.size());
+        assertTrue(published.stream().allMatch(e -> e instanceof WorkoutChangedEvent w
+                && w.type() == WorkoutChangedEvent.Type.DELETED && w.userId().equals(userId)));
+    }
+
+    @Test
+    void unknownUser_isNotQueued() {
+        assertTrue(service.submit(424242L).isEmpty());
+        assertEquals(0, jobs.count());
+    }
+
+    @Test
+    void queuedJobs_areResumedOnStartup() throws Exception {
+        workouts.saveAll(workoutsOf("17", 4));
+        UserPurgeJob left = jobs.save(new UserPurgeJob("17", Instant.now())); // from before a restart
+
+        service.resumeUnfinished();
+
+        UserPurgeJob done = awaitFinished(left.getId());
+        assertEquals(UserPurgeJob.Status.DONE, done.getStatus());
+        assertEquals(4, done.getDeletedRows());
+        assertEquals(0, workouts.count());
+    }
+
+    @Test
+    void jobLeasedByAnotherInstance_isLeftAlone() throws Exception {
+        workouts.saveAll(workoutsOf("18", 2));
+        UserPurgeJob job = jobs.save(new UserPurgeJob("18", Instant.now()));
+        Instant now = Instant.now();
+        assertEquals(1, jobs.claim(job.getId(), UserPurgeJob.Status.QUEUED, UserPurgeJob.Status.RUNNING,
+                now, now.plus(Duration.ofMinutes(1)))); // the other instance
+
+        service.resumeUnfinished();
+        Thread.sleep(200);
+
+        assertEquals(2, workouts.count());
+        assertEquals(UserPurgeJob.Status.RUNNING, jobs.findById(job.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void withSharding_deletesOnTheUsersShard_andPublishesGlobalIds() throws Exception {
+        sharded = shards("purge_s0", "purge_s1");
+        when(sharding.getIfAvailable()).thenReturn(sharded);
+        User user = users.save(new User("Shard", "shard@example.com", "pw"));
+        String userId = user.getId().toString();
+        List<Workout> saved = sharded.saveAll(workoutsOf(userId, 5));
+        sharded.saveAll(workoutsOf("someone-else", 2));
+        workouts.saveAll(workoutsOf(userId, 1)); // the main database's table is no longer read
+
+        UserPurgeJob done = awaitFinished(service.submit(user.getId()).orElseThrow().getId());
+
+        assertEquals(UserPurgeJob.Status.DONE, done.getStatus());
+        assertEquals(5, done.getDeletedRows());
+        assertTrue(sharded.findByUserIdAndDay(userId, "Mon").isEmpty());
+        assertEquals(2, sharded.count(), "other users' workouts are untouched");
+        assertEquals(1, workouts.count());
+        assertEquals(saved.stream().map(Workout::getId).sorted().toList(),
+                published.stream().map(e -> ((WorkoutChangedEvent) e).id()).sorted().toList());
+    }
+
+    private UserPurgeJob awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            UserPurgeJob job = service.find(jobId).orElseThrow();
+            if (job.getStatus() == UserPurgeJob.Status.DONE || job.getStatus() == UserPurgeJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        fail("purge job " + jobId + " did not finish");
+        return null;
+    }
+
+    private static ShardedWorkoutRepository shards(String... names) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (String name : names) {
+            DataSource ds = new DriverManagerDataSource(
+                    "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY,VALUE", "sa", "");
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.execute("DROP TABLE IF EXISTS workout");
+            jdbc.execute("""
+                    CREATE TABLE workout (
+                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      user_id VARCHAR(255) NOT NULL, workout_plan_name VARCHAR(255) NOT NULL,
+                      exercise_name VARCHAR(255) NOT NULL, day VARCHAR(255) NOT NULL,
+                      sets INT NOT NULL, reps INT NOT NULL, version BIGINT DEFAULT 0 NOT NULL)""");
+            dataSources.add(ds);
+        }
+        return new ShardedWorkoutRepository(dataSources, new ConsistentHashShardResolver(List.of(names), 16),
+                2, 5_000, 3);
+    }
+
+    private static List<Workout> workoutsOf(String userId, int count) {
+        List<Workout> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new Workout(userId, "Plan A", "Exercise " + i, "Mon", 3, 10));
+        }
+        return list;
+    }
+}
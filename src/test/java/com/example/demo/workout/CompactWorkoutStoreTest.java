@@ -0,0 +1,111 @@
+package com.example.demo.workout;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pure unit test. Every lookup on the compact store must return the same rows as filtering the entity list.
+ */
+class CompactWorkoutStoreTest {
+
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    private static List<Workout> rows;
+    private static CompactWorkoutStore store;
+
+    @BeforeAll
+    static void setUp() {
+        Random random = new Random(42);
+        rows = new ArrayList<>();
+        long id = 1;
+        for (int u = 0; u < 50; u++) {
+            for (int p = 0; p < 3; p++) {
+                for (int e = 0; e < 10; e++) {
+                    if (random.nextInt(3) == 0) {
+                        continue;
+                    }
+                    Workout w = new Workout("user" + u, "Plan " + p, "Exercise " + e,
+                            DAYS[random.nextInt(DAYS.length)], 1 + random.nextInt(5), 1 + random.nextInt(20));
+                    w.setId(id++);
+                    rows.add(w);
+                }
+            }
+        }
+        store = CompactWorkoutStore.of(rows);
+    }
+
+    @Test
+    void findByUserPlanAndDay_matchesEntityList() {
+        assertEquals(rows.size(), store.size());
+        for (int u = 0; u < 50; u++) {
+            for (int p = 0; p < 3; p++) {
+                for (String day : DAYS) {
+                    String userId = "user" + u;
+                    String plan = "Plan " + p;
+                    List<Workout> expected = rows.stream()
+                            .filter(w -> w.getUserId().equals(userId) && w.getWorkoutPlanName().equals(plan) && w.getDay().equals(day))
+                            .toList();
+                    assertSame(expected, store.findByUserIdAndWorkoutPlanNameAndDay(userId, plan, day));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findByUserPlanAndExercise_andExists_matchEntityList() {
+        for (int u = 0; u < 50; u++) {
+            for (int p = 0; p < 3; p++) {
+                String userId = "user" + u;
+                String plan = "Plan " + p;
+                assertEquals(rows.stream().anyMatch(w -> w.getUserId().equals(userId) && w.getWorkoutPlanName().equals(plan)),
+                        store.existsByUserIdAndWorkoutPlanName(userId, plan));
+                assertSame(rows.stream().filter(w -> w.getUserId().equals(userId) && w.getWorkoutPlanName().equals(plan)).toList(),
+                        store.findByUserIdAndWorkoutPlanName(userId, plan));
+
+                for (int e = 0; e < 10; e++) {
+                    String exercise = "Exercise " + e;
+                    Optional<Workout> expected = rows.stream()
+                            .filter(w -> w.getUserId().equals(userId) && w.getWorkoutPlanName().equals(plan)
+                                    && w.getExerciseName().equals(exercise))
+                            .findFirst();
+                    Optional<Workout> actual = store.findByUserIdAndWorkoutPlanNameAndExerciseName(userId, plan, exercise);
+                    assertEquals(expected.isPresent(), actual.isPresent());
+                    expected.ifPresent(w -> assertSame(List.of(w), List.of(actual.get())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void unknownValues_returnNothing() {
+        assertTrue(store.findByUserIdAndWorkoutPlanNameAndDay("nobody", "Plan 0", "Mon").isEmpty());
+        assertTrue(store.findByUserIdAndWorkoutPlanNameAndDay("user0", "Plan 0", "Someday").isEmpty());
+        assertTrue(store.findByUserIdAndWorkoutPlanNameAndExerciseName("user0", "Plan 9", "Exercise 0").isEmpty());
+        assertFalse(store.existsByUserIdAndWorkoutPlanName("user0", null));
+    }
+
+    /** Same rows with the same values, ignoring order. */
+    private static void assertSame(List<Workout> expected, List<Workout> actual) {
+        Comparator<Workout> byId = Comparator.comparing(Workout::getId);
+        List<Workout> e = expected.stream().sorted(byId).toList();
+        List<Workout> a = actual.stream().sorted(byId).toList();
+        assertEquals(e.size(), a.size());
+        for (int i = 0; i < e.size(); i++) {
+            assertEquals(e.get(i).getId(), a.get(i).getId());
+            assertEquals(e.get(i).getUserId(), a.get(i).getUserId());
+            assertEquals(e.get(i).getWorkoutPlanName(), a.get(i).getWorkoutPlanName());
+            assertEquals(e.get(i).getExerciseName(), a.get(i).getExerciseName());
+            assertEquals(e.get(i).getDay(), a.get(i).getDay());
+            assertEquals(e.get(i).getSets(), a.get(i).getSets());
+            assertEquals(e.get(i).getReps(), a.get(i).getReps());
+        }
+    }
+}
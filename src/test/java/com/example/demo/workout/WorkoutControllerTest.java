@@ -78,18 +78,19 @@ class WorkoutControllerTest {
     @Test
     void addExercise_insertsWhenNotExists() throws Exception {
         var payload = make("u1", "Plan A", "Pushup", "Mon", 3, 12);
-        // simulate "not exists"
-        given(workoutRepo.findByUserIdAndWorkoutPlanNameAndExerciseName("u1","Plan A","Pushup"))
-                .willReturn(Optional.empty());
+        // simulate "not exists": the upsert inserted a new row
+        given(workoutRepo.upsert(any()))
+                .willReturn(new WorkoutUpsert.Result(WorkoutUpsert.Outcome.INSERTED, 7L, 0));
 
         mvc.perform(post("/api/workout/add-exercise")
                         .contentType(APPLICATION_JSON)
                         .content(om.writeValueAsString(payload)))
                 .andExpect(status().isOk());
 
-        // verify it saved a brand new Workout
+        // verify the whole row went to the atomic upsert, with no read-then-write
         ArgumentCaptor<Workout> captor = ArgumentCaptor.forClass(Workout.class);
-        verify(workoutRepo, times(1)).save(captor.capture());
+        verify(workoutRepo, times(1)).upsert(captor.capture());
+        verify(workoutRepo, never()).save(any());
         Workout saved = captor.getValue();
         // validate fields mapped
         org.junit.jupiter.api.Assertions.assertEquals("u1", saved.getUserId());
@@ -104,25 +105,36 @@ class WorkoutControllerTest {
     void addExercise_updatesWhenExists() throws Exception {
         var payload = make("u1", "Plan A", "Pushup", "Wed", 5, 8);
 
-        // simulate exists with different values to ensure update path is used
-        var existing = make("u1", "Plan A", "Pushup", "Mon", 3, 12);
-        given(workoutRepo.findByUserIdAndWorkoutPlanNameAndExerciseName("u1","Plan A","Pushup"))
-                .willReturn(Optional.of(existing));
+        // simulate exists: the upsert updated the row with the same (user, plan, exercise, day)
+        given(workoutRepo.upsert(any()))
+                .willReturn(new WorkoutUpsert.Result(WorkoutUpsert.Outcome.UPDATED, 1L, 3));
 
         mvc.perform(post("/api/workout/add-exercise")
                         .contentType(APPLICATION_JSON)
                         .content(om.writeValueAsString(payload)))
                 .andExpect(status().isOk());
 
-        // verify that repo.save(existing) was called with updated fields
         ArgumentCaptor<Workout> captor = ArgumentCaptor.forClass(Workout.class);
-        verify(workoutRepo, times(1)).save(captor.capture());
+        verify(workoutRepo, times(1)).upsert(captor.capture());
+        verify(workoutRepo, never()).findByUserIdAndWorkoutPlanNameAndExerciseName(any(), any(), any());
         Workout saved = captor.getValue();
         org.junit.jupiter.api.Assertions.assertEquals("Wed", saved.getDay());
         org.junit.jupiter.api.Assertions.assertEquals(5, saved.getSets());
         org.junit.jupiter.api.Assertions.assertEquals(8, saved.getReps());
     }
 
+    @Test
+    void addExercise_missingKeyField_returns400() throws Exception {
+        var payload = make("u1", "Plan A", "Pushup", null, 5, 8);
+
+        mvc.perform(post("/api/workout/add-exercise")
+                        .contentType(APPLICATION_JSON)
+                        .content(om.writeValueAsString(payload)))
+                .andExpect(status().isBadRequest());
+
+        verify(workoutRepo, never()).upsert(any());
+    }
+
     @Test
     void getExercisesForDay_returnsMappedDTOs() throws Exception {
         var w1 = make("u1", "Plan A", "Pushup", "Mon", 3, 12);
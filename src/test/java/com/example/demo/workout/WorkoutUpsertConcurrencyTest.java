@@ -0,0 +1,97 @@
+package com.example.demo.workout;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one (user, plan, exercise, day) key from many threads against embedded H2 (MERGE path).
+ * Not transactional: every upsert commits on its own, like it does behind the controller.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WorkoutUpsertConcurrencyTest {
+
+    @Autowired WorkoutRepository repo;
+    @Autowired JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        repo.deleteAll();
+    }
+
+    @Test
+    void upsert_insertsThenUpdates() {
+        WorkoutUpsert.Result first = repo.upsert(new Workout("u1", "Plan A", "Pushup", "Mon", 3, 12));
+        WorkoutUpsert.Result second = repo.upsert(new Workout("u1", "Plan A", "Pushup", "Mon", 5, 8));
+        WorkoutUpsert.Result otherDay = repo.upsert(new Workout("u1", "Plan A", "Pushup", "Wed", 4, 10));
+
+        assertEquals(WorkoutUpsert.Outcome.INSERTED, first.outcome());
+        assertEquals(WorkoutUpsert.Outcome.UPDATED, second.outcome());
+        assertEquals(first.id(), second.id());
+        assertEquals(1, second.version());
+        assertEquals(WorkoutUpsert.Outcome.INSERTED, otherDay.outcome());
+
+        Workout row = repo.findById(first.id()).orElseThrow();
+        assertEquals(5, row.getSets());
+        assertEquals(8, row.getReps());
+        assertEquals(2, repo.count());
+    }
+
+    @Test
+    void concurrentUpserts_onOneKey_neverFailAndNeverLoseAnUpdate() throws Exception {
+        int threads = 16;
+        int perThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> inserts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int sets = t + 1;
+                inserts.add(pool.submit(() -> {
+                    start.await();
+                    int inserted = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        WorkoutUpsert.Result r = repo.upsert(new Workout("u1", "Plan A", "Squat", "Fri", sets, i));
+                        if (r.outcome() == WorkoutUpsert.Outcome.INSERTED) {
+                            inserted++;
+                        }
+                    }
+                    return inserted;
+                }));
+            }
+            start.countDown();
+
+            int insertedTotal = 0;
+            for (Future<Integer> f : inserts) {
+                insertedTotal += f.get(60, TimeUnit.SECONDS); // throws if any upsert surfaced an exception
+            }
+
+            assertEquals(1, insertedTotal, "exactly one caller inserts the row");
+            assertEquals(1, repo.count());
+            // every other call was applied as an update on top of the previous one
+            long version = jdbc.queryForObject("SELECT version FROM workout", Long.class);
+            assertEquals(threads * perThread - 1, version);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}